@@ -0,0 +1,23 @@
+package chess;
+
+/**
+ * The fixed positions all benchmarks run on, so that results can be compared between builds.
+ */
+public final class BenchmarkPositions {
+
+    // open middlegame with castling rights, pins, and en passant chances (Kiwipete)
+    public static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // quiet middlegame, both sides castled
+    public static final String QUIET_MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    // the open middlegame with black to move, so that the generation of black's moves is measured too
+    public static final String MIDDLEGAME_BLACK = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1";
+
+    // rook and pawn endgame
+    public static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private BenchmarkPositions() {
+    }
+
+}
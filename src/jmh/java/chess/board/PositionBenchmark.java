@@ -0,0 +1,75 @@
+package chess.board;
+
+import chess.BenchmarkPositions;
+import chess.moves.MoveConversion;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Making moves, evaluating, and parsing positions and moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionBenchmark {
+
+    @Param({BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.QUIET_MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String fen;
+
+    private Position position;
+    private MoveList moves;
+    private String firstMove;
+    private Board board;
+    private int index;
+
+    @Setup
+    public void setup() {
+        position = Position.fenToPosition(fen);
+        moves = position.getLegalMoves();
+        firstMove = PackedMove.toAlgebraicNotation(moves.get(0)) + " ";
+        board = new Board(position);
+    }
+
+    /**
+     * @return the next move of the position, cycling through all of them
+     */
+    private int nextMove() {
+        index = index + 1 < moves.size() ? index + 1 : 0;
+        return moves.get(index);
+    }
+
+    @Benchmark
+    public Position makeMove() {
+        return position.makeMove(nextMove());
+    }
+
+    @Benchmark
+    public long boardMakeUnmake() {
+        board.make(nextMove());
+        long key = board.getZobristKey();
+        board.unmake();
+        return key;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return Evaluation.evaluate(position);
+    }
+
+    @Benchmark
+    public Position fenToPosition() {
+        return Position.fenToPosition(fen);
+    }
+
+    @Benchmark
+    public Position applyAlgebraMoves() {
+        return MoveConversion.applyAlgebraMoves(firstMove, moves, position);
+    }
+
+}
@@ -0,0 +1,106 @@
+package chess.moves;
+
+import chess.BenchmarkPositions;
+import chess.board.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation: each piece type on its own, and all legal moves of a position.
+ * The pieces are those of the side to move, whose moves the position's PossibleMoves are set up for.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PossibleMovesBenchmark {
+
+    @Param({BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.MIDDLEGAME_BLACK, BenchmarkPositions.QUIET_MIDDLEGAME,
+            BenchmarkPositions.ENDGAME})
+    public String fen;
+
+    private Position position;
+    private PossibleMoves possibleMoves;
+    private final MoveList moves = new MoveList();
+
+    // the pieces of the side to move
+    private long pawns, knights, bishops, rooks, queens;
+
+    @Setup
+    public void setup() {
+        position = Position.fenToPosition(fen);
+        possibleMoves = position.possibleMoves;
+        boolean white = position.whiteToMove;
+        pawns = white ? position.wp : position.bp;
+        knights = white ? position.wn : position.bn;
+        bishops = white ? position.wb : position.bb;
+        rooks = white ? position.wr : position.br;
+        queens = white ? position.wq : position.bq;
+    }
+
+    @Benchmark
+    public MoveList pawns() {
+        moves.clear();
+        if (position.whiteToMove) {
+            possibleMoves.possibleWP(pawns, position.bp, position.ep, moves);
+        } else {
+            possibleMoves.possibleBP(pawns, position.wp, position.ep, moves);
+        }
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList knights() {
+        moves.clear();
+        possibleMoves.possibleN(knights, moves);
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList bishops() {
+        moves.clear();
+        possibleMoves.possibleB(bishops, moves);
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList rooks() {
+        moves.clear();
+        possibleMoves.possibleR(rooks, moves);
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList queens() {
+        moves.clear();
+        possibleMoves.possibleQ(queens, moves);
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList king() {
+        moves.clear();
+        possibleMoves.possibleK(position, moves);
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList castling() {
+        moves.clear();
+        if (position.whiteToMove) {
+            possibleMoves.possibleCW(position, moves);
+        } else {
+            possibleMoves.possibleCB(position, moves);
+        }
+        return moves;
+    }
+
+    @Benchmark
+    public MoveList legalMoves() {
+        return position.getLegalMoves();
+    }
+
+}
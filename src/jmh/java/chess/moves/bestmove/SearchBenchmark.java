@@ -0,0 +1,68 @@
+package chess.moves.bestmove;
+
+import chess.BenchmarkPositions;
+import chess.board.Position;
+import chess.moves.Move;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches with each algorithm, all to the same depth so that their times can be compared.
+ * The transposition table is cleared before every search, so every search does the same work.<br>
+ * The depth is a parameter, e.g. {@code -p depth=5}; minimax has no pruning, so at the default depth of 4
+ * it already takes about a second per search on the middlegames, and some thirty times longer per ply deeper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.QUIET_MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String fen;
+
+    @Param({"4"})
+    public int depth;
+
+    private Position position;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        position = Position.fenToPosition(fen);
+        // the searches print their root moves; keep that out of the benchmark output
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearHash() {
+        MoveGeneration.transpositionTable.clear();
+    }
+
+    @Benchmark
+    public Move sequentialMiniMax() {
+        return SequentialMiniMax.find(position, depth);
+    }
+
+    @Benchmark
+    public Move sequentialAlphaBeta() {
+        return SequentialAlphaBeta.find(position, depth);
+    }
+
+    @Benchmark
+    public Move threadedMiniMax() {
+        return ThreadedMiniMax.find(position, depth);
+    }
+
+}
@@ -1,15 +1,20 @@
 package chess;
 
-import java.util.concurrent.ForkJoinPool;
-
 public final class Constants {
 
     // Engine name
     public static final String ENGINE_NAME = "Hari";
     public static final int MAX_DEPTH = 6;
+    // deepest iteration of a timed or infinite search
+    public static final int MAX_SEARCH_DEPTH = 64;
+
+    // transposition table size in MB
+    public static final int DEFAULT_HASH_SIZE = 16;
+    public static final int MAX_HASH_SIZE = 1024;
 
-    // ForkJoinPool - for all threading
-    public static final ForkJoinPool commonPool = ForkJoinPool.commonPool();
+    // search threads, set by the UCI "Threads" option
+    public static final int DEFAULT_THREADS = 1;
+    public static final int MAX_THREADS = 256;
 
     // board constants
     public static final long FILE_A = 72340172838076673L;
@@ -92,4 +97,9 @@ public final class Constants {
     public static final int QUEEN_VALUE = 900;
     public static final int KING_VALUE = 100000;
 
+    // score of being checkmated, beyond any material score
+    public static final int MATE_VALUE = 1000000;
+    // mate scores are MATE_VALUE minus the plies to the mate, fewer than this many
+    public static final int MAX_MATE_PLY = 128;
+
 }
@@ -0,0 +1,608 @@
+package chess.board;
+
+import chess.moves.Attacks;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.MoveOrdering;
+import chess.moves.PackedMove;
+import chess.moves.PossibleMoves;
+import chess.moves.SliderAttacks;
+
+import java.util.Arrays;
+
+import static chess.Constants.*;
+
+/**
+ * A mutable chess board for the search.<p>
+ * Position.java is immutable, so every move creates a new Position (and a new PossibleMoves object).
+ * A Board is changed in place instead: {@link #make(int)} plays a move and {@link #unmake()} takes it back,
+ * using a stack of the state that a move cannot be undone from (captured piece, castling rights,
+ * en passant file, Zobrist key and half move counter).<br>
+ * A Board is not thread safe; each search thread works on its own Board.
+ * Position stays the public API for UCI and tests; use {@link #Board(Position)} and {@link #toPosition()}
+ * to convert between the two.
+ */
+public final class Board {
+
+    // piece indices, in the same order as Zobrist.PIECES
+    public static final int WP = 0, WN = 1, WB = 2, WR = 3, WQ = 4, WK = 5;
+    public static final int BP = 6, BN = 7, BB = 8, BR = 9, BQ = 10, BK = 11;
+    public static final int NO_PIECE = -1;
+
+    // kinds of moves to generate, see generateLegalMoves(MoveList, int)
+    public static final int ALL_MOVES = 0;
+    public static final int NOISY_MOVES = 1; // captures, en passant, and promotions
+    public static final int QUIET_MOVES = 2; // everything else, including castling
+
+    // castling rights, as bits of the castling field
+    public static final int CASTLE_WK = 1, CASTLE_WQ = 2, CASTLE_BK = 4, CASTLE_BQ = 8;
+
+    // castling rights kept when a piece moves from or to each square
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            CASTLING_KEPT[i] = CASTLE_WK | CASTLE_WQ | CASTLE_BK | CASTLE_BQ;
+        }
+        CASTLING_KEPT[60] &= ~(CASTLE_WK | CASTLE_WQ);
+        CASTLING_KEPT[(int) CASTLE_ROOKS[0]] &= ~CASTLE_WK;
+        CASTLING_KEPT[(int) CASTLE_ROOKS[1]] &= ~CASTLE_WQ;
+        CASTLING_KEPT[4] &= ~(CASTLE_BK | CASTLE_BQ);
+        CASTLING_KEPT[(int) CASTLE_ROOKS[2]] &= ~CASTLE_BK;
+        CASTLING_KEPT[(int) CASTLE_ROOKS[3]] &= ~CASTLE_BQ;
+    }
+
+    // bitboards, indexed by piece
+    private final long[] pieces = new long[12];
+    // piece on each square, or NO_PIECE; used to find the moving and captured pieces quickly
+    private final int[] squares = new int[64];
+
+    private long ep;
+    private int castling;
+    private boolean whiteToMove;
+    private long zobristKey;
+    private int halfMoveCount;
+    private int fullMoveCount;
+
+    // undo stack, one entry per move made
+    private final int[] moveStack = new int[MoveBuffers.MAX_PLY];
+    private final int[] capturedStack = new int[MoveBuffers.MAX_PLY];
+    private final int[] castlingStack = new int[MoveBuffers.MAX_PLY];
+    private final int[] halfMoveStack = new int[MoveBuffers.MAX_PLY];
+    private final long[] epStack = new long[MoveBuffers.MAX_PLY];
+    private final long[] keyStack = new long[MoveBuffers.MAX_PLY];
+    private int ply;
+
+    // reused for every move generation
+    private final PossibleMoves possibleMoves = new PossibleMoves(0L, 0L, 0L, 0L);
+    private final MoveList scratch = new MoveList();
+
+    /**
+     * Creates a board with the same state as the given position.
+     *
+     * @param position the position to copy
+     */
+    public Board(Position position) {
+        set(position);
+    }
+
+    /**
+     * Gives this board the state of the given position, as if it was created from it;
+     * the moves made on it so far are forgotten.
+     * Lets a board be reused instead of allocating a new one, see Position.generateMoves().
+     *
+     * @param position the position to copy
+     */
+    void set(Position position) {
+        long[] bitboards = {position.wp, position.wn, position.wb, position.wr, position.wq, position.wk,
+                position.bp, position.bn, position.bb, position.br, position.bq, position.bk};
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(squares, NO_PIECE);
+        ply = 0;
+        for (int piece = 0; piece < 12; piece++) {
+            long bitboard = bitboards[piece];
+            while (bitboard != 0) {
+                addPiece(piece, Long.numberOfTrailingZeros(bitboard));
+                bitboard &= bitboard - 1;
+            }
+        }
+        ep = position.ep;
+        castling = (position.cwk ? CASTLE_WK : 0) | (position.cwq ? CASTLE_WQ : 0)
+                | (position.cbk ? CASTLE_BK : 0) | (position.cbq ? CASTLE_BQ : 0);
+        whiteToMove = position.whiteToMove;
+        zobristKey = position.zobristKey;
+        halfMoveCount = position.getHalfMoveCount();
+        fullMoveCount = position.getFullMoveCount();
+    }
+
+    /**
+     * Makes a packed move on this board.
+     * The move must be one generated for this board.
+     *
+     * @param move the packed move to make (see PackedMove.java)
+     */
+    public void make(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int piece = squares[from];
+        int captured = squares[to];
+
+        // save what cannot be recomputed when the move is taken back
+        moveStack[ply] = move;
+        castlingStack[ply] = castling;
+        halfMoveStack[ply] = halfMoveCount;
+        epStack[ply] = ep;
+        keyStack[ply] = zobristKey;
+
+        long key = zobristKey ^ castlingKey(castling) ^ Zobrist.enPassantKey(ep);
+
+        if (PackedMove.isEnPassant(move)) {
+            // the captured pawn is beside the source square
+            int capturedSquare = (from & ~7) | (to & 7);
+            captured = squares[capturedSquare];
+            removePiece(captured, capturedSquare);
+            key ^= Zobrist.PIECES[captured][capturedSquare];
+        } else if (captured != NO_PIECE) {
+            removePiece(captured, to);
+            key ^= Zobrist.PIECES[captured][to];
+        }
+        capturedStack[ply] = captured;
+        ply++;
+
+        removePiece(piece, from);
+        int placed = PackedMove.isPromotion(move) ? promotionIndex(move) : piece;
+        addPiece(placed, to);
+        key ^= Zobrist.PIECES[piece][from] ^ Zobrist.PIECES[placed][to];
+
+        if (PackedMove.isCastling(move)) {
+            int rook = piece == WK ? WR : BR;
+            int rookFrom = rookCastlingFrom(move);
+            int rookTo = rookCastlingTo(move);
+            removePiece(rook, rookFrom);
+            addPiece(rook, rookTo);
+            key ^= Zobrist.PIECES[rook][rookFrom] ^ Zobrist.PIECES[rook][rookTo];
+        }
+
+        // a right is lost once its king or rook moves, or something moves onto the rook's square
+        castling &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        ep = MakeMove.makeMoveEP(move);
+        key ^= castlingKey(castling) ^ Zobrist.enPassantKey(ep) ^ Zobrist.BLACK_TO_MOVE;
+
+        halfMoveCount = (piece == WP || piece == BP || captured != NO_PIECE) ? 0 : halfMoveCount + 1;
+        if (!whiteToMove) {
+            fullMoveCount++;
+        }
+        whiteToMove = !whiteToMove;
+        zobristKey = key;
+    }
+
+    /**
+     * Takes back the last move made with {@link #make(int)}.
+     */
+    public void unmake() {
+        ply--;
+        int move = moveStack[ply];
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+
+        whiteToMove = !whiteToMove;
+        if (!whiteToMove) {
+            fullMoveCount--;
+        }
+
+        int placed = squares[to];
+        removePiece(placed, to);
+        addPiece(PackedMove.isPromotion(move) ? (whiteToMove ? WP : BP) : placed, from);
+
+        if (PackedMove.isCastling(move)) {
+            int rook = whiteToMove ? WR : BR;
+            removePiece(rook, rookCastlingTo(move));
+            addPiece(rook, rookCastlingFrom(move));
+        }
+
+        int captured = capturedStack[ply];
+        if (captured != NO_PIECE) {
+            addPiece(captured, PackedMove.isEnPassant(move) ? (from & ~7) | (to & 7) : to);
+        }
+
+        castling = castlingStack[ply];
+        halfMoveCount = halfMoveStack[ply];
+        ep = epStack[ply];
+        zobristKey = keyStack[ply];
+    }
+
+    /**
+     * Writes all legal moves for the side to move into the given list, best first:
+     * captures and promotions by MVV-LVA, then the quiet moves in generation order.
+     * See MoveOrdering.java; no move is made to order them.
+     *
+     * @param moves the list to write the moves to; should be empty
+     */
+    public void generateMoves(MoveList moves) {
+        generateLegalMoves(moves);
+        MoveOrdering.scoreMoves(this, moves, 0);
+        moves.sortByScore();
+    }
+
+    /**
+     * Writes all legal moves for the side to move into the given list, in generation order.
+     *
+     * @param moves the list to write the moves to; should be empty
+     * @see #generateLegalMoves(MoveList, int)
+     */
+    public void generateLegalMoves(MoveList moves) {
+        generateLegalMoves(moves, ALL_MOVES);
+    }
+
+    /**
+     * Appends the legal moves of one kind for the side to move to the given list, in generation order.<p>
+     * The checkers, the pinned pieces, and the squares that stop a check are worked out once,
+     * then the pseudo-legal moves are filtered against them without making any move:
+     * <ul>
+     *     <li>in double check only the king can move</li>
+     *     <li>in single check other pieces must capture the checker or block the line to the king</li>
+     *     <li>a pinned piece can only move along the line through the king and its pinner</li>
+     *     <li>the king can't move to a square attacked through where it stands now</li>
+     * </ul>
+     * En passant is the exception: it removes two pieces from the same rank, so it is made and
+     * checked instead.<br>
+     * A board without a king for the side to move gets its pseudo-legal moves.
+     *
+     * @param moves the list to add the moves to
+     * @param type  ALL_MOVES, NOISY_MOVES, or QUIET_MOVES
+     * @see <a href="https://www.chessprogramming.org/Move_Generation#Legal">Legal move generation</a>
+     */
+    public void generateLegalMoves(MoveList moves, int type) {
+        generate(moves, type, -1L);
+    }
+
+    /**
+     * Checks whether a move is legal on this board, e.g. a move from the transposition table
+     * or a killer move found in another position. Only the moves of the piece on the from square
+     * are generated.
+     *
+     * @param move the packed move to check
+     * @return whether the move is one of the legal moves of the side to move
+     */
+    public boolean isLegal(int move) {
+        if (move == PackedMove.NONE) {
+            return false;
+        }
+        int piece = squares[PackedMove.from(move)];
+        if (piece == NO_PIECE || (piece < BP) != whiteToMove) {
+            return false;
+        }
+        scratch.clear();
+        generate(scratch, ALL_MOVES, 1L << PackedMove.from(move));
+        return scratch.contains(move);
+    }
+
+    /**
+     * Appends the legal moves of one kind, of the pieces on the given squares, to the list.
+     */
+    private void generate(MoveList moves, int type, long fromMask) {
+        int us = whiteToMove ? WP : BP;
+        int them = whiteToMove ? BP : WP;
+        long king = pieces[us + 5];
+        if (king == 0) {
+            if (type == ALL_MOVES && fromMask == -1L) {
+                generatePseudoLegalMoves(moves);
+            }
+            return;
+        }
+
+        long white = pieces[WP] | pieces[WN] | pieces[WB] | pieces[WR] | pieces[WQ] | pieces[WK];
+        long black = pieces[BP] | pieces[BN] | pieces[BB] | pieces[BR] | pieces[BQ] | pieces[BK];
+        long occupied = white | black;
+        long myPieces = whiteToMove ? white : black;
+        long theirPieces = whiteToMove ? black : white;
+        int kingSquare = Long.numberOfTrailingZeros(king);
+
+        long checkers = attackersTo(kingSquare, occupied, whiteToMove);
+        long checkMask;
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if ((checkers & (checkers - 1)) == 0) {
+            checkMask = checkers | Attacks.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        } else {
+            checkMask = 0L;
+        }
+        long pinned = pinnedPieces(kingSquare, occupied, myPieces, theirPieces, them);
+
+        // without the king on the board, so that it can't step back along the line of a slider checking it
+        long withoutKing = occupied & ~king;
+        possibleMoves.setSquares(~myPieces, myPieces, withoutKing, ~withoutKing);
+        long unsafe = whiteToMove
+                ? possibleMoves.unsafeForWhite(pieces[BP], pieces[BN], pieces[BB], pieces[BR], pieces[BQ], pieces[BK])
+                : possibleMoves.unsafeForBlack(pieces[WP], pieces[WN], pieces[WB], pieces[WR], pieces[WQ], pieces[WK]);
+
+        // narrow the target squares down to the kind of move:
+        // noisy moves go to enemy pieces, or are pawn pushes to the last rank;
+        // quiet moves go to empty squares, except pawn pushes to the last rank
+        long promotionRank = whiteToMove ? RANK_8 : RANK_1;
+        long ep = this.ep;
+        if (type == NOISY_MOVES) {
+            possibleMoves.setSquares(theirPieces, myPieces, occupied, ~occupied & promotionRank);
+        } else if (type == QUIET_MOVES) {
+            possibleMoves.setSquares(~occupied, myPieces, occupied, ~occupied & ~promotionRank);
+            ep = 0L;
+        } else {
+            possibleMoves.setSquares(~myPieces, myPieces, occupied, ~occupied);
+        }
+
+        int start = moves.size();
+        if (checkMask != 0) {
+            if (whiteToMove) {
+                possibleMoves.possibleWP(pieces[WP] & fromMask, pieces[BP], ep, moves);
+            } else {
+                possibleMoves.possibleBP(pieces[BP] & fromMask, pieces[WP], ep, moves);
+            }
+            possibleMoves.possibleN(pieces[us + 1] & ~pinned & fromMask, moves);
+            possibleMoves.possibleB(pieces[us + 2] & fromMask, moves);
+            possibleMoves.possibleR(pieces[us + 3] & fromMask, moves);
+            possibleMoves.possibleQ(pieces[us + 4] & fromMask, moves);
+        }
+        int kingMoves = moves.size();
+        possibleMoves.possibleK(king & fromMask, unsafe, moves);
+        if (checkers == 0 && type != NOISY_MOVES && (king & fromMask) != 0) {
+            if (whiteToMove) {
+                possibleMoves.possibleCW(pieces[WK], pieces[WR], (castling & CASTLE_WK) != 0,
+                        (castling & CASTLE_WQ) != 0, unsafe, moves);
+            } else {
+                possibleMoves.possibleCB(pieces[BK], pieces[BR], (castling & CASTLE_BK) != 0,
+                        (castling & CASTLE_BQ) != 0, unsafe, moves);
+            }
+        }
+
+        // drop the moves of the other pieces that leave the king in check, keeping the order
+        int size = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (i >= kingMoves || passesMasks(move, kingSquare, checkMask, pinned)) {
+                moves.set(size++, move);
+            }
+        }
+        moves.truncate(size);
+    }
+
+    /**
+     * Checks a pseudo-legal move of a piece other than the king against the check and pin masks.
+     */
+    private boolean passesMasks(int move, int kingSquare, long checkMask, long pinned) {
+        if (PackedMove.flags(move) == PackedMove.EN_PASSANT) {
+            make(move);
+            boolean legal = !isInCheck(!whiteToMove);
+            unmake();
+            return legal;
+        }
+        int from = PackedMove.from(move);
+        long to = 1L << PackedMove.to(move);
+        return (checkMask & to) != 0
+                && ((pinned & (1L << from)) == 0 || (Attacks.LINE[kingSquare][from] & to) != 0);
+    }
+
+    /**
+     * Finds the pieces of the side to move that are pinned to their king:
+     * the only piece between the king and an enemy slider on the same line.
+     */
+    private long pinnedPieces(int kingSquare, long occupied, long myPieces, long theirPieces, int them) {
+        // enemy sliders that would attack the king if none of our pieces were in the way
+        long snipers = (SliderAttacks.rookAttacks(kingSquare, theirPieces) & (pieces[them + 3] | pieces[them + 4]))
+                | (SliderAttacks.bishopAttacks(kingSquare, theirPieces) & (pieces[them + 2] | pieces[them + 4]));
+        long pinned = 0L;
+        while (snipers != 0) {
+            long between = Attacks.BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if (between != 0 && (between & (between - 1)) == 0 && (between & myPieces) != 0) {
+                pinned |= between;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    /**
+     * Writes all moves for the side to move into the given list, in generation order.
+     * Only king moves are checked for safety, so a move may leave the king in check;
+     * use {@link #isInCheck(boolean)} after making it to find out, or {@link #generateLegalMoves(MoveList)}.
+     *
+     * @param moves the list to write the moves to; should be empty
+     */
+    public void generatePseudoLegalMoves(MoveList moves) {
+        long white = pieces[WP] | pieces[WN] | pieces[WB] | pieces[WR] | pieces[WQ] | pieces[WK];
+        long black = pieces[BP] | pieces[BN] | pieces[BB] | pieces[BR] | pieces[BQ] | pieces[BK];
+        long myPieces = whiteToMove ? white : black;
+        possibleMoves.setSquares(~myPieces, myPieces, white | black, ~(white | black));
+
+        if (whiteToMove) {
+            long unsafe = possibleMoves.unsafeForWhite(pieces[BP], pieces[BN], pieces[BB], pieces[BR],
+                    pieces[BQ], pieces[BK]);
+            possibleMoves.possibleWP(pieces[WP], pieces[BP], ep, moves);
+            possibleMoves.possibleN(pieces[WN], moves);
+            possibleMoves.possibleB(pieces[WB], moves);
+            possibleMoves.possibleR(pieces[WR], moves);
+            possibleMoves.possibleQ(pieces[WQ], moves);
+            possibleMoves.possibleK(pieces[WK], unsafe, moves);
+            possibleMoves.possibleCW(pieces[WK], pieces[WR], (castling & CASTLE_WK) != 0,
+                    (castling & CASTLE_WQ) != 0, unsafe, moves);
+        } else {
+            long unsafe = possibleMoves.unsafeForBlack(pieces[WP], pieces[WN], pieces[WB], pieces[WR],
+                    pieces[WQ], pieces[WK]);
+            possibleMoves.possibleBP(pieces[BP], pieces[WP], ep, moves);
+            possibleMoves.possibleN(pieces[BN], moves);
+            possibleMoves.possibleB(pieces[BB], moves);
+            possibleMoves.possibleR(pieces[BR], moves);
+            possibleMoves.possibleQ(pieces[BQ], moves);
+            possibleMoves.possibleK(pieces[BK], unsafe, moves);
+            possibleMoves.possibleCB(pieces[BK], pieces[BR], (castling & CASTLE_BK) != 0,
+                    (castling & CASTLE_BQ) != 0, unsafe, moves);
+        }
+    }
+
+    /**
+     * @return whether the king of the side to move is attacked
+     */
+    public boolean isInCheck() {
+        return isInCheck(whiteToMove);
+    }
+
+    /**
+     * Checks whether the king of the given side is attacked.
+     * A side without a king (captured deeper in the search) counts as in check.
+     *
+     * @param white true for the white king, false for the black king
+     * @return whether the king is attacked by any piece of the other side
+     */
+    public boolean isInCheck(boolean white) {
+        long king = white ? pieces[WK] : pieces[BK];
+        if (king == 0) {
+            return true;
+        }
+        long occupied = 0L;
+        for (long bitboard : pieces) {
+            occupied |= bitboard;
+        }
+        return attackersTo(Long.numberOfTrailingZeros(king), occupied, white) != 0;
+    }
+
+    /**
+     * Finds the enemy pieces attacking a square.
+     *
+     * @param square   the attacked square
+     * @param occupied the occupied squares, which block the sliders
+     * @param white    true to find the black pieces attacking a white piece on the square, false for the reverse
+     * @return the attackers of the square
+     */
+    private long attackersTo(int square, long occupied, boolean white) {
+        int them = white ? BP : WP;
+        // a piece on the square attacks the same squares that attack it
+        return (Attacks.PAWN[white ? Attacks.WHITE : Attacks.BLACK][square] & pieces[them])
+                | (Attacks.KNIGHT[square] & pieces[them + 1])
+                | (Attacks.KING[square] & pieces[them + 5])
+                | (SliderAttacks.bishopAttacks(square, occupied) & (pieces[them + 2] | pieces[them + 4]))
+                | (SliderAttacks.rookAttacks(square, occupied) & (pieces[them + 3] | pieces[them + 4]));
+    }
+
+    /**
+     * @return the evaluation of the board, positive values are good for white
+     */
+    public int getEvaluation() {
+        return Evaluation.evaluate(this);
+    }
+
+    /**
+     * @return a new immutable position with the same state as this board
+     */
+    public Position toPosition() {
+        return new Position(pieces[WP], pieces[WN], pieces[WB], pieces[WR], pieces[WQ], pieces[WK],
+                pieces[BP], pieces[BN], pieces[BB], pieces[BR], pieces[BQ], pieces[BK], ep,
+                (castling & CASTLE_WK) != 0, (castling & CASTLE_WQ) != 0,
+                (castling & CASTLE_BK) != 0, (castling & CASTLE_BQ) != 0,
+                whiteToMove, halfMoveCount, fullMoveCount);
+    }
+
+    /**
+     * @param piece the index of the piece, e.g. Board.WP
+     * @return the bitboard of the piece
+     */
+    public long getBitboard(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * @return the piece on the square, or NO_PIECE
+     */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    /**
+     * @return whether it is white's turn to move
+     */
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    /**
+     * @return the Zobrist key of the board, equal to the key of the same Position
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return the number of moves made on this board that have not been taken back
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return the last move made on this board that has not been taken back, or PackedMove.NONE
+     */
+    public int getLastMove() {
+        return ply == 0 ? PackedMove.NONE : moveStack[ply - 1];
+    }
+
+    /**
+     * @return half move count
+     */
+    public int getHalfMoveCount() {
+        return halfMoveCount;
+    }
+
+    /**
+     * @return full move count
+     */
+    public int getFullMoveCount() {
+        return fullMoveCount;
+    }
+
+    private void addPiece(int piece, int square) {
+        pieces[piece] |= 1L << square;
+        squares[square] = piece;
+    }
+
+    private void removePiece(int piece, int square) {
+        pieces[piece] &= ~(1L << square);
+        squares[square] = NO_PIECE;
+    }
+
+    /**
+     * @return the index of the piece a pawn is promoted to
+     */
+    private static int promotionIndex(int move) {
+        int index = switch (Character.toUpperCase(PackedMove.promotionPiece(move))) {
+            case 'N' -> WN;
+            case 'B' -> WB;
+            case 'R' -> WR;
+            default -> WQ;
+        };
+        // white promotes on rank 8
+        return PackedMove.to(move) < 8 ? index : index + BP;
+    }
+
+    /**
+     * @return the square the rook moves from when castling
+     */
+    private static int rookCastlingFrom(int move) {
+        int kingEnd = PackedMove.to(move);
+        return PackedMove.flags(move) == PackedMove.KING_CASTLE ? kingEnd + 1 : kingEnd - 2;
+    }
+
+    /**
+     * @return the square the rook moves to when castling
+     */
+    private static int rookCastlingTo(int move) {
+        int kingEnd = PackedMove.to(move);
+        return PackedMove.flags(move) == PackedMove.KING_CASTLE ? kingEnd - 1 : kingEnd + 1;
+    }
+
+    /**
+     * @return the XOR of the Zobrist keys of the castling rights in the given bits
+     */
+    private static long castlingKey(int castling) {
+        return Zobrist.castlingKey((castling & CASTLE_WK) != 0, (castling & CASTLE_WQ) != 0,
+                (castling & CASTLE_BK) != 0, (castling & CASTLE_BQ) != 0);
+    }
+
+}
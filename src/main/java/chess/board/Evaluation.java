@@ -13,30 +13,79 @@ public class Evaluation {
      * Integer.MIN_VALUE <= return value <= Integer.MAX_VALUE
      */
     public static int evaluate(Position position) {
-        return evaluateMaterial(position);
+        return evaluateMaterial(position.wp, position.wn, position.wb, position.wr, position.wq, position.wk,
+                position.bp, position.bn, position.bb, position.br, position.bq, position.bk);
     }
 
     /**
-     * Evaluates the current position based on number of pieces.
+     * Evaluates the current board, the same way as {@link #evaluate(Position)}.
      *
-     * @param position the position to evaluate
-     * @return the material evaluation of the current position.
+     * @param board the board to evaluate
+     * @return the evaluation of the current board.
+     * Positive values are good for white, negative values are good for black.
+     */
+    public static int evaluate(Board board) {
+        return evaluateMaterial(board.getBitboard(Board.WP), board.getBitboard(Board.WN),
+                board.getBitboard(Board.WB), board.getBitboard(Board.WR),
+                board.getBitboard(Board.WQ), board.getBitboard(Board.WK),
+                board.getBitboard(Board.BP), board.getBitboard(Board.BN),
+                board.getBitboard(Board.BB), board.getBitboard(Board.BR),
+                board.getBitboard(Board.BQ), board.getBitboard(Board.BK));
+    }
+
+    /**
+     * The score of a position where the side to move is checkmated, from the side to move's point of view
+     * (the searches that score from white's point of view negate it when black is mated).
+     * Mate scores count the plies from the root, so that the search prefers the quickest mate and the slowest
+     * loss: MATE_VALUE - n is mate in n plies. Stalemate is a draw, scored 0.
+     *
+     * @param ply the number of plies from the root to the position
+     * @return the (negative) mate score
+     */
+    public static int mated(int ply) {
+        return -(MATE_VALUE - ply);
+    }
+
+    /**
+     * @param score a score from mated(), negated any number of times
+     * @return whether the score is a mate score, as opposed to a material score
+     */
+    public static boolean isMate(int score) {
+        int distance = MATE_VALUE - Math.abs(score);
+        return distance >= 0 && distance < MAX_MATE_PLY;
+    }
+
+    /**
+     * @param score a mate score, see isMate()
+     * @return the moves (not plies) to the mate, negative if the side to move is getting mated,
+     * as used by the UCI "score mate" command
+     */
+    public static int mateMoves(int score) {
+        int plies = MATE_VALUE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    /**
+     * Evaluates the given bitboards based on number of pieces.
+     *
+     * @return the material evaluation of the bitboards.
      */
-    private static int evaluateMaterial(Position position) {
+    private static int evaluateMaterial(long wp, long wn, long wb, long wr, long wq, long wk,
+                                        long bp, long bn, long bb, long br, long bq, long bk) {
         // add up the number of pieces * their value
         // positive for white, negative for black
-        return Long.bitCount(position.wp) * PAWN_VALUE
-                + Long.bitCount(position.wn) * KNIGHT_VALUE
-                + Long.bitCount(position.wb) * BISHOP_VALUE
-                + Long.bitCount(position.wr) * ROOK_VALUE
-                + Long.bitCount(position.wq) * QUEEN_VALUE
-                + Long.bitCount(position.wk) * KING_VALUE
-                - Long.bitCount(position.bp) * PAWN_VALUE
-                - Long.bitCount(position.bn) * KNIGHT_VALUE
-                - Long.bitCount(position.bb) * BISHOP_VALUE
-                - Long.bitCount(position.br) * ROOK_VALUE
-                - Long.bitCount(position.bq) * QUEEN_VALUE
-                - Long.bitCount(position.bk) * KING_VALUE;
+        return Long.bitCount(wp) * PAWN_VALUE
+                + Long.bitCount(wn) * KNIGHT_VALUE
+                + Long.bitCount(wb) * BISHOP_VALUE
+                + Long.bitCount(wr) * ROOK_VALUE
+                + Long.bitCount(wq) * QUEEN_VALUE
+                + Long.bitCount(wk) * KING_VALUE
+                - Long.bitCount(bp) * PAWN_VALUE
+                - Long.bitCount(bn) * KNIGHT_VALUE
+                - Long.bitCount(bb) * BISHOP_VALUE
+                - Long.bitCount(br) * ROOK_VALUE
+                - Long.bitCount(bq) * QUEEN_VALUE
+                - Long.bitCount(bk) * KING_VALUE;
     }
 
 }
@@ -1,9 +1,8 @@
 package chess.board;
 
-import chess.moves.Move;
+import chess.moves.PackedMove;
 
 import static chess.Constants.files;
-import static chess.Constants.ranks;
 
 public class MakeMove {
 
@@ -11,64 +10,47 @@ public class MakeMove {
      * Makes a move on given bitboard and returns the new bitboard.
      *
      * @param board the bitboard to make the move on
-     * @param move  the move to make
+     * @param move  the packed move to make
      * @param type  the character of type of piece being moved
      * @return the new bitboard after the move has been made
      * @credit Logic Crazy Chess
      */
-    public static long makeMove(long board, Move move, char type) {
-        if (!move.isPromotion && !move.isEnPassant) {
-            // normal move
-            int start = move.sourceRank * 8 + move.sourceFile;
-            int end = move.destRank * 8 + move.destFile;
-            if (((board >>> start) & 1) == 1) {
-                board &= ~(1L << start);
-                board |= (1L << end);
-            } else {
-                board &= ~(1L << end);
-            }
+    public static long makeMove(long board, int move, char type) {
+        int start = PackedMove.from(move);
+        int end = PackedMove.to(move);
 
-            // castling rook move
-            if ((type == 'R' || type == 'r') && (move.isKingSideCastling() || move.isQueenSideCastling())) {
-                board = makeRookCastlingMove(board, move);
-            }
-
-        } else if (move.isPromotion) {
+        if (PackedMove.isPromotion(move)) {
             // pawn promotion
-            int start, end;
-            if (Character.isUpperCase(move.promotionPiece)) {
-                start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[1]);
-                end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[0]);
-            } else {
-                start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[6]);
-                end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[7]);
-            }
-            if (type == move.promotionPiece) {
+            if (type == PackedMove.promotionPiece(move)) {
                 board |= (1L << end);
             } else {
+                // removes the pawn from its own board and the captured piece (if any) from its board
                 board &= ~(1L << start);
                 board &= ~(1L << end);
             }
 
-        } else if (move.isEnPassant) {
-            // en passant
-            int start, end;
-            if (move.sourceRank == 3) {
-                // white
-                start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[3]);
-                end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[2]);
-                board &= ~(files[move.destFile] & ranks[3]);
-            } else {
-                start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[4]);
-                end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[5]);
-                board &= ~(files[move.destFile] & ranks[4]);
-            }
+        } else if (PackedMove.isEnPassant(move)) {
+            // en passant; the captured pawn is beside the source square
+            int captured = (start & ~7) | (end & 7);
+            board &= ~(1L << captured);
             if (((board >>> start) & 1) == 1) {
                 board &= ~(1L << start);
                 board |= (1L << end);
             }
+
         } else {
-            System.out.print("ERROR: Invalid move type");
+            // normal move
+            if (((board >>> start) & 1) == 1) {
+                board &= ~(1L << start);
+                board |= (1L << end);
+            } else {
+                board &= ~(1L << end);
+            }
+
+            // castling rook move
+            if (PackedMove.isCastling(move) && ((type == 'R' && end >= 56) || (type == 'r' && end < 8))) {
+                board = makeRookCastlingMove(board, move);
+            }
         }
         return board;
     }
@@ -77,45 +59,37 @@ public class MakeMove {
      * Makes a castling move on rook bitboard and returns the new bitboard.
      *
      * @param board the rook bitboard to make the move on
-     * @param move  the move to make
+     * @param move  the castling move to make
      * @return the new rook bitboard after the move has been made
      * @author Divy Patel
      */
-    private static long makeRookCastlingMove(long board, Move move) {
-        if (move.isKingSideCastling()) {
-            if (move.sourceRank == 7) {
-                // white king side castling
-                return makeMove(board, new Move(7, 7, 7, 5), 'R');
-            } else {
-                // black king side castling
-                return makeMove(board, new Move(0, 7, 0, 5), 'r');
-            }
+    private static long makeRookCastlingMove(long board, int move) {
+        int kingEnd = PackedMove.to(move);
+        int rookStart, rookEnd;
+        if (PackedMove.flags(move) == PackedMove.KING_CASTLE) {
+            // king side castling: h-file rook moves next to the king
+            rookStart = kingEnd + 1;
+            rookEnd = kingEnd - 1;
         } else {
-            if (move.sourceRank == 7) {
-                // white queen side castling
-                return makeMove(board, new Move(7, 0, 7, 3), 'R');
-            } else {
-                // black queen side castling
-                return makeMove(board, new Move(0, 0, 0, 3), 'r');
-            }
+            // queen side castling: a-file rook moves next to the king
+            rookStart = kingEnd - 2;
+            rookEnd = kingEnd + 1;
         }
+        board &= ~(1L << rookStart);
+        board |= (1L << rookEnd);
+        return board;
     }
 
     /**
-     * Makes En Passant moves on the given en passant bitboard.
+     * Finds the en passant bitboard after a move.
      *
-     * @param board the bitboard to make the move on;
-     *              should be (WP | BP)
-     * @param move  the move to make
-     * @return the new en passant bitboard after the move has been made
-     * @credit Logic Crazy Chess
+     * @param move the packed move to make
+     * @return the new en passant bitboard after the move has been made;
+     * the file of the pawn if it moved 2 squares, otherwise 0
      */
-    public static long makeMoveEP(long board, Move move) {
-        if (!move.isEnPassant && !move.isPromotion) {
-            int start = move.sourceRank * 8 + move.sourceFile;
-            if ((Math.abs(move.sourceRank - move.destRank) == 2) && (((board >>> start) & 1) == 1)) {
-                return files[move.sourceFile];
-            }
+    public static long makeMoveEP(int move) {
+        if (PackedMove.isDoublePawnPush(move)) {
+            return files[PackedMove.from(move) % 8];
         }
         return 0;
     }
@@ -1,7 +1,8 @@
 package chess.board;
 
 import chess.moves.Move;
-import chess.moves.MoveConversion;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
 import chess.moves.bestmove.MoveGeneration;
 import chess.moves.PossibleMoves;
 
@@ -49,6 +50,9 @@ public class Position {
      */
 
 
+    // a board per thread, that generateMoves() and isInCheck() load the position into instead of allocating one
+    private static final ThreadLocal<Board> BOARDS = new ThreadLocal<>();
+
     // keeping the fields public should not be a problem since
     // they are all primitive type and final
     // except the move counts, which are private and only accessible through getters
@@ -62,6 +66,9 @@ public class Position {
     // side to move
     public final boolean whiteToMove;
 
+    // 64-bit Zobrist key of this position, see Zobrist.java
+    public final long zobristKey;
+
     // half and full move counters
     public int halfMoveCount;
     public int fullMoveCount;
@@ -77,11 +84,25 @@ public class Position {
 
     /**
      * Creates a new position with bitboards and castling rights.
+     * The Zobrist key is computed from scratch.
      */
     public Position(long wp, long wn, long wb, long wr, long wq, long wk,
                     long bp, long bn, long bb, long br, long bq, long bk,
                     long ep, boolean cwk, boolean cwq, boolean cbk, boolean cbq,
                     boolean whiteToMove) {
+        this(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep, cwk, cwq, cbk, cbq, whiteToMove,
+                Zobrist.computeKey(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep,
+                        cwk, cwq, cbk, cbq, whiteToMove));
+    }
+
+    /**
+     * Creates a new position with bitboards, castling rights, and an already known Zobrist key.
+     * The key must match the rest of the state, so this is only used when the key was updated incrementally.
+     */
+    private Position(long wp, long wn, long wb, long wr, long wq, long wk,
+                     long bp, long bn, long bb, long br, long bq, long bk,
+                     long ep, boolean cwk, boolean cwq, boolean cbk, boolean cbq,
+                     boolean whiteToMove, long zobristKey) {
         this.wp = wp;
         this.wn = wn;
         this.wb = wb;
@@ -100,6 +121,7 @@ public class Position {
         this.cbk = cbk;
         this.cbq = cbq;
         this.whiteToMove = whiteToMove;
+        this.zobristKey = zobristKey;
         this.fullMoveCount = 0;
         this.halfMoveCount = 1;
 
@@ -146,6 +168,18 @@ public class Position {
      * @return the new position after the move.
      */
     public Position makeMove(Move move) {
+        return makeMove(PackedMove.fromMove(move, this));
+    }
+
+    /**
+     * Makes a packed move on the current position.
+     * Does not change this position object.
+     * Also changes the side to move.
+     *
+     * @param move the packed move to make (see PackedMove.java).
+     * @return the new position after the move.
+     */
+    public Position makeMove(int move) {
         long new_wp = MakeMove.makeMove(wp, move, 'P');
         long new_wn = MakeMove.makeMove(wn, move, 'N');
         long new_wb = MakeMove.makeMove(wb, move, 'B');
@@ -158,42 +192,58 @@ public class Position {
         long new_br = MakeMove.makeMove(br, move, 'r');
         long new_bq = MakeMove.makeMove(bq, move, 'q');
         long new_bk = MakeMove.makeMove(bk, move, 'k');
-        long new_ep = MakeMove.makeMoveEP(wp | bp, move);
-
-        boolean new_cwk = cwk;
-        boolean new_cwq = cwq;
-        boolean new_cbk = cbk;
-        boolean new_cbq = cbq;
+        long new_ep = MakeMove.makeMoveEP(move);
 
         // update castling rights
-        if (move.isKingSideCastling()) {
-            if (whiteToMove) {
-                // white king side castling
-                new_cwk = false;
-                new_cwq = false;
-            } else {
-                // black king side castling
-                new_cbk = false;
-                new_cbq = false;
-            }
-        } else if (move.isQueenSideCastling()) {
-            if (whiteToMove) {
-                // white queen side castling
-                new_cwk = false;
-                new_cwq = false;
-            } else {
-                // black queen side castling
-                new_cbk = false;
-                new_cbq = false;
-            }
-        }
-
-        return new Position(new_wp, new_wn, new_wb, new_wr, new_wq, new_wk,
+        // a right is lost once its king or rook moves, or something moves onto the rook's square
+        long touched = (1L << PackedMove.from(move)) | (1L << PackedMove.to(move));
+        boolean new_cwk = cwk && (touched & ((1L << 60) | (1L << CASTLE_ROOKS[0]))) == 0;
+        boolean new_cwq = cwq && (touched & ((1L << 60) | (1L << CASTLE_ROOKS[1]))) == 0;
+        boolean new_cbk = cbk && (touched & ((1L << 4) | (1L << CASTLE_ROOKS[2]))) == 0;
+        boolean new_cbq = cbq && (touched & ((1L << 4) | (1L << CASTLE_ROOKS[3]))) == 0;
+
+        return successor(new_wp, new_wn, new_wb, new_wr, new_wq, new_wk,
                 new_bp, new_bn, new_bb, new_br, new_bq, new_bk,
                 new_ep, new_cwk, new_cwq, new_cbk, new_cbq, !whiteToMove,
                 halfMoveCount + 1, fullMoveCount + 1);
     }
 
+    /**
+     * Creates the position that results from changing this position to the given state.
+     * Used after a move is made, so that the Zobrist key can be updated incrementally:
+     * only the squares, castling rights, en passant file and side that changed are hashed.
+     *
+     * @return the new position with the given state
+     */
+    public Position successor(long wp, long wn, long wb, long wr, long wq, long wk,
+                              long bp, long bn, long bb, long br, long bq, long bk,
+                              long ep, boolean cwk, boolean cwq, boolean cbk, boolean cbq,
+                              boolean whiteToMove, int halfMoveCount, int fullMoveCount) {
+        long key = zobristKey;
+
+        // only the squares that changed are hashed
+        key ^= Zobrist.pieceKey(0, this.wp ^ wp) ^ Zobrist.pieceKey(1, this.wn ^ wn)
+                ^ Zobrist.pieceKey(2, this.wb ^ wb) ^ Zobrist.pieceKey(3, this.wr ^ wr)
+                ^ Zobrist.pieceKey(4, this.wq ^ wq) ^ Zobrist.pieceKey(5, this.wk ^ wk)
+                ^ Zobrist.pieceKey(6, this.bp ^ bp) ^ Zobrist.pieceKey(7, this.bn ^ bn)
+                ^ Zobrist.pieceKey(8, this.bb ^ bb) ^ Zobrist.pieceKey(9, this.br ^ br)
+                ^ Zobrist.pieceKey(10, this.bq ^ bq) ^ Zobrist.pieceKey(11, this.bk ^ bk);
+
+        // swap out the old castling rights, en passant file, and side to move
+        key ^= Zobrist.castlingKey(this.cwk, this.cwq, this.cbk, this.cbq)
+                ^ Zobrist.castlingKey(cwk, cwq, cbk, cbq);
+        key ^= Zobrist.enPassantKey(this.ep) ^ Zobrist.enPassantKey(ep);
+        if (this.whiteToMove != whiteToMove) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+
+        Position position = new Position(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep,
+                cwk, cwq, cbk, cbq, whiteToMove, key);
+        position.halfMoveCount = halfMoveCount;
+        position.fullMoveCount = fullMoveCount;
+        return position;
+    }
+
     /**
      * Finds the best move for this position.
      * Time spent might vary depending on the position and algorithm used.
@@ -207,64 +257,104 @@ public class Position {
     /**
      * Finds all legal moves for this position.
      *
-     * @return a list of all legal moves for this position.
+     * @return a new list of all legal moves for this position, as packed moves.
+     */
+    public MoveList getLegalMoves() {
+        MoveList moves = new MoveList();
+        generateMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Returns all legal white moves for this position.
+     * Ignores this.whiteToMove.
+     *
+     * @return a new list of all legal white moves for this position, as packed moves.
+     * The moves are ordered best first, see MoveOrdering.java.
      */
-    public List<Move> getLegalMoves() {
-        return whiteToMove ? getLegalWhiteMoves() : getLegalBlackMoves();
+    public MoveList getLegalWhiteMoves() {
+        MoveList moves = new MoveList();
+        generateWhiteMoves(moves);
+        return moves;
     }
 
     /**
-     * Returns all possible white moves for this position.
+     * Returns all legal black moves for this position.
      * Ignores this.whiteToMove.
      *
-     * @return a list of all possible white moves for this position.
-     * The order of moves is: pawn, knight, bishop, rook, queen, king, castle
+     * @return a new list of all legal black moves for this position, as packed moves.
+     * The moves are ordered best first, see MoveOrdering.java.
+     */
+    public MoveList getLegalBlackMoves() {
+        MoveList moves = new MoveList();
+        generateBlackMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Writes all legal moves for the side to move into the given list.
+     * Used by the search with the lists from MoveBuffers.java, so that no lists are allocated.
+     * The moves are ordered best first, see MoveOrdering.java.
+     *
+     * @param moves the list to write the moves to; should be empty
      */
-    public List<Move> getLegalWhiteMoves() {
-        List<Move> move = new ArrayList<>();
-        move.addAll(possibleMoves.possibleWP(wp, bp, ep));
-        move.addAll(possibleMoves.possibleN(wn));
-        move.addAll(possibleMoves.possibleB(wb));
-        move.addAll(possibleMoves.possibleR(wr));
-        move.addAll(possibleMoves.possibleQ(wq));
-        move.addAll(possibleMoves.possibleK(this));
-        move.addAll(possibleMoves.possibleCW(this));
-
-        // sort moves by evaluation of position after move is applied
-        move.sort((m1, m2) -> {
-            Position p1 = makeMove(m1);
-            Position p2 = makeMove(m2);
-            return p2.getEvaluation() - p1.getEvaluation();
-        });
-
-        return move;
+    public void generateMoves(MoveList moves) {
+        // the checks and pins are worked out by the board
+        board().generateMoves(moves);
     }
 
     /**
-     * Returns all possible black moves for this position.
+     * Writes all legal white moves into the given list.
      * Ignores this.whiteToMove.
+     * The moves are ordered best first, see MoveOrdering.java.
      *
-     * @return a list of all possible black moves for this position.
-     * The order of moves is: pawn, knight, bishop, rook, queen, king, castle
+     * @param moves the list to write the moves to; should be empty
+     */
+    public void generateWhiteMoves(MoveList moves) {
+        withSideToMove(true).generateMoves(moves);
+    }
+
+    /**
+     * Writes all legal black moves into the given list.
+     * Ignores this.whiteToMove.
+     * The moves are ordered best first, see MoveOrdering.java.
+     *
+     * @param moves the list to write the moves to; should be empty
+     */
+    public void generateBlackMoves(MoveList moves) {
+        withSideToMove(false).generateMoves(moves);
+    }
+
+    /**
+     * @return whether the king of the side to move is attacked
+     */
+    public boolean isInCheck() {
+        return board().isInCheck();
+    }
+
+    /**
+     * @return the board of the calling thread, set to this position; only valid until the thread's next call
      */
-    public List<Move> getLegalBlackMoves() {
-        List<Move> move = new ArrayList<>();
-        move.addAll(possibleMoves.possibleBP(bp, wp, ep));
-        move.addAll(possibleMoves.possibleN(bn));
-        move.addAll(possibleMoves.possibleB(bb));
-        move.addAll(possibleMoves.possibleR(br));
-        move.addAll(possibleMoves.possibleQ(bq));
-        move.addAll(possibleMoves.possibleK(this));
-        move.addAll(possibleMoves.possibleCB(this));
-
-        // sort moves by evaluation of position after move is applied
-        move.sort((m1, m2) -> {
-            Position p1 = makeMove(m1);
-            Position p2 = makeMove(m2);
-            return p1.getEvaluation() - p2.getEvaluation();
-        });
-
-        return move;
+    private Board board() {
+        Board board = BOARDS.get();
+        if (board == null) {
+            board = new Board(this);
+            BOARDS.set(board);
+        } else {
+            board.set(this);
+        }
+        return board;
+    }
+
+    /**
+     * @return this position, or a copy of it with the other side to move
+     */
+    private Position withSideToMove(boolean white) {
+        if (white == whiteToMove) {
+            return this;
+        }
+        return new Position(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep, cwk, cwq, cbk, cbq,
+                white, halfMoveCount, fullMoveCount);
     }
 
     /**
@@ -275,14 +365,11 @@ public class Position {
      * @return the new position after applying all moves.
      */
     public Position applyMoves(List<Move> moves) {
-        // convert moves to algebraic notation
-        StringBuilder sb = new StringBuilder();
+        Position position = this;
         for (Move move : moves) {
-            sb.append(move.toAlgebraicNotation());
+            position = position.makeMove(move);
         }
-
-        // apply moves and return new position
-        return MoveConversion.applyAlgebraMoves(sb.toString(), getLegalMoves(), this);
+        return position;
     }
 
     /**
@@ -439,14 +526,12 @@ public class Position {
     }
 
     /**
-     * @return a hash code for this position based on:
+     * @return a hash code for this position based on its Zobrist key, which covers:
      * all 12 bitboards, en passant square, castling rights, and whose turn it is
      */
     @Override
     public int hashCode() {
-        return (int) (wp ^ wn ^ wb ^ wr ^ wq ^ wk ^ bp ^ bn ^ bb ^ br ^ bq ^ bk ^ ep
-                ^ (cwk ? 1 : 0) ^ (cwq ? 2 : 0) ^ (cbk ? 4 : 0) ^ (cbq ? 8 : 0)
-                ^ (whiteToMove ? 16 : 0));
+        return (int) (zobristKey ^ (zobristKey >>> 32));
     }
 
     /**
@@ -455,7 +540,7 @@ public class Position {
     @Override
     public Position clone() {
         return new Position(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep,
-                cwk, cwq, cbk, cbq, whiteToMove);
+                cwk, cwq, cbk, cbq, whiteToMove, zobristKey);
     }
 
     /**
@@ -0,0 +1,118 @@
+package chess.board;
+
+import java.util.Random;
+
+/**
+ * Random keys used to compute 64-bit <a href="https://www.chessprogramming.org/Zobrist_Hashing">Zobrist hashes</a>
+ * of positions.<p>
+ * A key is the XOR of one random number per (piece, square) pair on the board,
+ * one per castling right that is still available, one for the en passant file (if any),
+ * and one if it is black's turn to move.
+ * Since XOR is its own inverse, keys can be updated incrementally as moves are made.
+ */
+public final class Zobrist {
+
+    // fixed seed so that keys are reproducible between runs
+    private static final long SEED = 0x4861726943686573L;
+
+    /**
+     * Keys for pieces on squares, indexed by [piece][square].<br>
+     * The piece order is: wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk
+     */
+    public static final long[][] PIECES = new long[12][64];
+
+    /**
+     * Keys for the castling rights, in order: cwk, cwq, cbk, cbq
+     */
+    public static final long[] CASTLING = new long[4];
+
+    /**
+     * Keys for the en passant file, from A -> H
+     */
+    public static final long[] EN_PASSANT = new long[8];
+
+    /**
+     * Key that is XORed in when it is black's turn to move
+     */
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(SEED);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECES[piece][square] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < 8; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Computes the Zobrist key of a position from scratch.
+     * Should only be used when a position is created from nothing (start position, FEN, etc.),
+     * otherwise the key should be updated incrementally.
+     *
+     * @return the 64-bit Zobrist key of the given position state
+     */
+    public static long computeKey(long wp, long wn, long wb, long wr, long wq, long wk,
+                                  long bp, long bn, long bb, long br, long bq, long bk,
+                                  long ep, boolean cwk, boolean cwq, boolean cbk, boolean cbq,
+                                  boolean whiteToMove) {
+        long key = pieceKey(0, wp) ^ pieceKey(1, wn) ^ pieceKey(2, wb) ^ pieceKey(3, wr)
+                ^ pieceKey(4, wq) ^ pieceKey(5, wk) ^ pieceKey(6, bp) ^ pieceKey(7, bn)
+                ^ pieceKey(8, bb) ^ pieceKey(9, br) ^ pieceKey(10, bq) ^ pieceKey(11, bk);
+        key ^= castlingKey(cwk, cwq, cbk, cbq);
+        key ^= enPassantKey(ep);
+        if (!whiteToMove) {
+            key ^= BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the XOR of the keys of every square set in the given bitboard, for the given piece.<br>
+     * Passing (oldBitboard ^ newBitboard) gives the key difference of a move for that piece,
+     * which only loops over the (usually 1 or 2) squares that changed.
+     *
+     * @param piece    the index of the piece, see {@link #PIECES}
+     * @param bitboard the squares to hash
+     * @return the XOR of the keys of all squares in the bitboard
+     */
+    public static long pieceKey(int piece, long bitboard) {
+        long key = 0L;
+        while (bitboard != 0) {
+            key ^= PIECES[piece][Long.numberOfTrailingZeros(bitboard)];
+            bitboard &= bitboard - 1;
+        }
+        return key;
+    }
+
+    /**
+     * @return the XOR of the keys of all castling rights that are available
+     */
+    public static long castlingKey(boolean cwk, boolean cwq, boolean cbk, boolean cbq) {
+        long key = 0L;
+        if (cwk) key ^= CASTLING[0];
+        if (cwq) key ^= CASTLING[1];
+        if (cbk) key ^= CASTLING[2];
+        if (cbq) key ^= CASTLING[3];
+        return key;
+    }
+
+    /**
+     * @param ep en passant bitboard - has 1s on the file of the pawn that was moved 2 squares
+     * @return the key of the en passant file, or 0 if there is no en passant square
+     */
+    public static long enPassantKey(long ep) {
+        return ep == 0 ? 0L : EN_PASSANT[Long.numberOfTrailingZeros(ep) % 8];
+    }
+
+}
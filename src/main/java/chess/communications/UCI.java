@@ -2,66 +2,152 @@ package chess.communications;
 
 import chess.board.Position;
 import chess.engine.Hari;
-import chess.moves.Move;
+import chess.engine.Perft;
+import chess.engine.SearchComparison;
 import chess.moves.MoveConversion;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import chess.moves.bestmove.IterativeDeepening;
+import chess.moves.bestmove.MoveGeneration;
+import chess.moves.bestmove.SearchControl;
+import chess.moves.bestmove.SearchLimits;
+import chess.moves.bestmove.SearchPool;
+import chess.moves.bestmove.SearchResult;
+import chess.moves.bestmove.SearchStatistics;
+import chess.moves.bestmove.ThreadedMiniMax;
 
-import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static chess.Constants.*;
 
 public class UCI {
 
+    // runs the searches, so that commands are still read while the engine is searching
+    private static final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static Future<?> search = CompletableFuture.completedFuture(null);
+
     /**
      * This method is the primary method for communicating with the GUI.
-     * Follows the UCI protocol from <a href="http://wbec-ridderkerk.nl/html/UCIProtocol.html">here</a>.
+     * Follows the UCI protocol from <a href="http://wbec-ridderkerk.nl/html/UCIProtocol.html">here</a>.<p>
+     * The search runs on its own thread, so "stop", "ponderhit", "isready" and "quit" are answered while searching.
+     * Commands that change the engine's state wait for the search to finish first.
      */
     public static void uciCommunication() {
         Scanner input = new Scanner(System.in);
-        while (true) {
-            String thisLine = input.nextLine();
+        while (input.hasNextLine()) {
+            String thisLine = input.nextLine().trim();
             if ("uci".equals(thisLine)) {
                 inputUCI();
-            } else if (thisLine.startsWith("setoption")) {
-                inputSetOption(thisLine);
             } else if ("isready".equals(thisLine)) {
                 inputIsReady();
+            } else if ("stop".equals(thisLine)) {
+                inputStop();
+            } else if ("ponderhit".equals(thisLine)) {
+                inputPonderHit();
+            } else if (thisLine.equals("quit")) {
+                inputQuit();
+            } else if (thisLine.startsWith("setoption")) {
+                waitForSearch();
+                inputSetOption(thisLine);
             } else if ("ucinewgame".equals(thisLine)) {
+                waitForSearch();
                 inputUCINewGame();
             } else if (thisLine.startsWith("position")) {
+                waitForSearch();
                 inputPosition(thisLine);
             } else if (thisLine.startsWith("go")) {
-                inputGo();
-            } else if (thisLine.equals("quit")) {
-                inputQuit();
+                waitForSearch();
+                inputGo(thisLine);
+            } else if (thisLine.startsWith("perft") || thisLine.startsWith("divide")) {
+                waitForSearch();
+                inputPerft(thisLine);
+            } else if (thisLine.startsWith("compare")) {
+                waitForSearch();
+                inputCompare(thisLine);
             }
         }
+        inputQuit();
     }
 
     /**
-     * Registers the engine with the GUI.
-     * Options are not currently supported.
+     * Registers the engine with the GUI, along with the options it supports.
      */
     private static void inputUCI() {
         System.out.println("id name " + ENGINE_NAME);
         System.out.println("id author Divy");
-        // TODO (#5): Implement options
+        System.out.println("option name Hash type spin default " + DEFAULT_HASH_SIZE + " min 1 max " + MAX_HASH_SIZE);
+        System.out.println("option name Threads type spin default " + DEFAULT_THREADS + " min 1 max " + MAX_THREADS);
+        StringBuilder algorithms = new StringBuilder("option name Search type combo default ")
+                .append(MoveGeneration.Algorithm.LAZY_SMP.uciName);
+        for (MoveGeneration.Algorithm algorithm : MoveGeneration.Algorithm.values()) {
+            algorithms.append(" var ").append(algorithm.uciName);
+        }
+        System.out.println(algorithms);
+        System.out.println("option name SplitPolicy type combo default Adaptive var Adaptive var Fixed");
+        // tells the GUI the engine can ponder; the GUI decides when to send "go ponder"
+        System.out.println("option name Ponder type check default false");
         System.out.println("uciok");
     }
 
+    /**
+     * Sets an engine option.
+     * Expected format: "setoption name [id] value [x]".
+     * Unknown options and invalid values are ignored.
+     *
+     * @param inputString the input string from the GUI
+     */
     private static void inputSetOption(String inputString) {
-        // TODO (#5): Implement options
+        int nameIndex = inputString.indexOf("name ");
+        int valueIndex = inputString.indexOf(" value ");
+        if (nameIndex < 0 || valueIndex < 0) {
+            return;
+        }
+        String name = inputString.substring(nameIndex + 5, valueIndex).trim();
+        String value = inputString.substring(valueIndex + 7).trim();
+
+        try {
+            if ("Hash".equalsIgnoreCase(name)) {
+                int size = Math.max(1, Math.min(MAX_HASH_SIZE, Integer.parseInt(value)));
+                MoveGeneration.transpositionTable.resize(size);
+            } else if ("Threads".equalsIgnoreCase(name)) {
+                MoveGeneration.setThreads(Integer.parseInt(value));
+            } else if ("SplitPolicy".equalsIgnoreCase(name)) {
+                if ("Adaptive".equalsIgnoreCase(value)) {
+                    ThreadedMiniMax.setSplitPolicy(ThreadedMiniMax.SplitPolicy.ADAPTIVE);
+                } else if ("Fixed".equalsIgnoreCase(value)) {
+                    ThreadedMiniMax.setSplitPolicy(ThreadedMiniMax.SplitPolicy.FIXED);
+                }
+            } else if ("Search".equalsIgnoreCase(name)) {
+                MoveGeneration.Algorithm algorithm = MoveGeneration.Algorithm.fromUciName(value);
+                if (algorithm != null) {
+                    MoveGeneration.setAlgorithm(algorithm);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // ignore invalid values, as the GUI expects no response
+        }
     }
 
     private static void inputIsReady() {
         System.out.println("readyok");
     }
 
+    /**
+     * Prepares the engine for a new game.
+     * Results from the previous game are removed from the transposition table.
+     */
     private static void inputUCINewGame() {
         // expect a "position" command next
-        // TODO: decide what to do here
-        //  currently, it works fine without this,
-        //  but it might be useful in future
+        MoveGeneration.transpositionTable.clear();
     }
 
     /**
@@ -86,7 +172,7 @@ public class UCI {
             input = input.substring(input.indexOf("moves") + 6);
             while (input.length() > 0) {
                 // convert and apply moves
-                List<Move> moves = position.getLegalMoves();
+                MoveList moves = position.getLegalMoves();
                 position = MoveConversion.applyAlgebraMoves(input, moves, position);
                 input = input.substring(input.indexOf(' ') + 1);
             }
@@ -97,19 +183,139 @@ public class UCI {
     }
 
     /**
-     * Starts the search for the best move and prints the best move when found.
+     * Starts the search for the best move on the search thread, which prints the best move when found.
+     * Expected format:
+     * "go [ponder] [wtime x] [btime x] [winc x] [binc x] [movestogo x] [movetime x] [depth x] [infinite]",
+     * see SearchLimits.java.<p>
+     * With "ponder", the position is the one after the expected reply and the clock only starts at "ponderhit";
+     * the best move is printed after "ponderhit" or "stop", never before.
+     *
+     * @param inputString the input string from the GUI
+     */
+    private static void inputGo(String inputString) {
+        SearchLimits limits = SearchLimits.parse(inputString);
+        Position position = Hari.position;
+        SearchControl.start(limits.ponder);
+        search = searchExecutor.submit(() -> {
+            SearchResult result = MoveGeneration.search(position, limits);
+            if (limits.infinite) {
+                // the GUI expects the best move only after it sends "stop"
+                SearchControl.awaitStop();
+            } else {
+                SearchControl.awaitPonderhit();
+            }
+            System.out.println("info hashfull " + MoveGeneration.transpositionTable.hashfull());
+            System.out.println("info string " + SearchStatistics.summary());
+            if (SearchStatistics.activeThreads() > 1) {
+                System.out.println("info string " + SearchStatistics.threadSummary());
+            }
+            if (SearchStatistics.totalForks() > 0) {
+                System.out.println("info string " + SearchStatistics.forkSummary());
+            }
+            System.out.println(bestMove(result));
+        });
+    }
+
+    /**
+     * @return the "bestmove" command for a search result, with the expected reply to ponder on if it is known
+     */
+    private static String bestMove(SearchResult result) {
+        if (result.move == PackedMove.NONE) {
+            // no legal moves (checkmate or stalemate): UCI uses the null move
+            return "bestmove 0000";
+        }
+        String bestMove = "bestmove " + PackedMove.toAlgebraicNotation(result.move);
+        if (result.ponder != PackedMove.NONE) {
+            bestMove += " ponder " + PackedMove.toAlgebraicNotation(result.ponder);
+        }
+        return bestMove;
+    }
+
+    /**
+     * The opponent played the move the engine was pondering on: the search goes on as a normal timed search.
+     */
+    private static void inputPonderHit() {
+        SearchControl.ponderhit();
+    }
+
+    /**
+     * Stops the search; the search thread prints the best move found so far.
+     */
+    private static void inputStop() {
+        SearchControl.stop();
+    }
+
+    /**
+     * Waits for the running search, if any, to finish and print its best move.
+     */
+    private static void waitForSearch() {
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the search failed; report it and carry on with the next command
+            System.out.println("info string search failed: " + e.getCause());
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree of the current position, see Perft.java.
+     * Not part of the UCI protocol; used to test the move generator.
+     * Expected format: "perft [depth] [parallel] [hash [MB]]" or "divide [depth] [parallel] [hash [MB]]",
+     * where divide also prints the count of each root move.
+     *
+     * @param inputString the input string from the GUI
+     */
+    private static void inputPerft(String inputString) {
+        String[] tokens = inputString.trim().split("\\s+");
+        try {
+            int depth = Integer.parseInt(tokens[1]);
+            boolean parallel = false;
+            int hashSize = 0;
+            for (int i = 2; i < tokens.length; i++) {
+                if ("parallel".equals(tokens[i])) {
+                    parallel = true;
+                } else if ("hash".equals(tokens[i])) {
+                    hashSize = i + 1 < tokens.length ? Integer.parseInt(tokens[++i]) : DEFAULT_HASH_SIZE;
+                }
+            }
+            SearchPool.resize(MoveGeneration.getThreads());
+            new Perft(parallel, hashSize).run(Hari.position, depth, "divide".equals(tokens[0]));
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("usage: " + tokens[0] + " [depth] [parallel] [hash [MB]]");
+        }
+    }
+
+    /**
+     * Compares a parallel search with the sequential search on the current position, see SearchComparison.java.
+     * Not part of the UCI protocol; used to measure the parallel searches.
+     * Expected format: "compare [depth] [YBWC|RootSplit|ThreadedMiniMax]", YBWC by default.
+     *
+     * @param inputString the input string from the GUI
      */
-    private static void inputGo() {
-        Move bestMove = Hari.position.getBestMove();
-        System.out.println("bestmove " + bestMove.toAlgebraicNotation());
+    private static void inputCompare(String inputString) {
+        String[] tokens = inputString.trim().split("\\s+");
+        try {
+            int depth = Integer.parseInt(tokens[1]);
+            String name = tokens.length > 2 ? tokens[2] : MoveGeneration.Algorithm.YBWC.uciName;
+            IterativeDeepening.RootSearch parallel = SearchComparison.parallelSearch(name);
+            if (parallel != null) {
+                SearchComparison.compare(Hari.position, depth, name, parallel);
+                return;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            // fall through to the usage
+        }
+        System.out.println("usage: compare [depth] [YBWC|RootSplit|ThreadedMiniMax]");
     }
 
     /**
-     * Exits the program.
-     * This will only execute once the program is finished searching for the best move.
+     * Exits the program, stopping the search first if one is running.
      */
     private static void inputQuit() {
-        // TODO: parallelize the search so that this can be called at any time
+        SearchControl.stop();
+        waitForSearch();
         System.exit(0);
     }
 
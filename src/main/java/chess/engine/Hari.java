@@ -2,6 +2,7 @@ package chess.engine;
 
 import chess.board.Position;
 import chess.communications.UCI;
+import chess.moves.SliderAttacks;
 
 public class Hari {
 
@@ -13,6 +14,9 @@ public class Hari {
     public static Position position = Position.startingPosition();
 
     public static void main(String[] args) {
+        // make sure the slider attack tables are correct before playing with them
+        SliderAttacks.selfCheck();
+
         // start communication with GUI
         UCI.uciCommunication();
     }
@@ -0,0 +1,264 @@
+package chess.engine;
+
+import chess.board.Board;
+import chess.board.Position;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import chess.moves.bestmove.SearchPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <a href="https://www.chessprogramming.org/Perft">Perft</a>: counts the leaf nodes of the legal move tree
+ * to a fixed depth, to check the move generator against known node counts and to measure its speed.<p>
+ * Moves are counted in bulk at the last ply (the legal moves are counted instead of made).
+ * The count can be split at the root over SearchPool.java (on the number of threads of the UCI "Threads" option),
+ * and subtree counts can be cached by Zobrist key.<br>
+ * Used by the "perft" and "divide" UCI commands, and can be run on its own:<br>
+ * {@code java chess.engine.Perft <depth> [fen] [--divide] [--parallel] [--hash=<MB>]}
+ */
+public class Perft {
+
+    private final boolean parallel;
+    private final PerftHash hash;
+
+    /**
+     * @param parallel whether to count the root moves in parallel
+     * @param hashSize size of the subtree cache in MB, or 0 for no cache
+     */
+    public Perft(boolean parallel, int hashSize) {
+        this.parallel = parallel;
+        this.hash = hashSize > 0 ? new PerftHash(hashSize) : null;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree of a position.
+     *
+     * @param position the root position
+     * @param depth    the depth to count to
+     * @return the number of leaf nodes
+     */
+    public long perft(Position position, int depth) {
+        long nodes = 0;
+        for (long count : divide(position, depth)) {
+            nodes += count;
+        }
+        return depth <= 0 ? 1 : nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move.
+     *
+     * @param position the root position
+     * @param depth    the depth to count to, including the root move
+     * @return the number of leaf nodes for each move of {@link #rootMoves(Position)}, in the same order
+     */
+    public long[] divide(Position position, int depth) {
+        MoveList moves = rootMoves(position);
+        long[] counts = new long[moves.size()];
+        if (depth <= 0) {
+            return counts;
+        }
+
+        if (parallel) {
+            // one task per root move, all started before waiting for any of them
+            ForkJoinPool pool = SearchPool.get();
+            List<PerftTask> tasks = new ArrayList<>();
+            for (int i = 0; i < moves.size(); i++) {
+                PerftTask task = new PerftTask(position.makeMove(moves.get(i)), depth - 1);
+                tasks.add(task);
+                pool.execute(task);
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = tasks.get(i).join();
+            }
+        } else {
+            Board board = new Board(position);
+            MoveBuffers buffers = MoveBuffers.get();
+            for (int i = 0; i < moves.size(); i++) {
+                board.make(moves.get(i));
+                counts[i] = count(board, depth - 1, buffers);
+                board.unmake();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the legal moves of the position, in generation order
+     */
+    public static MoveList rootMoves(Position position) {
+        MoveList moves = new MoveList();
+        new Board(position).generateLegalMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Counts the leaf nodes below the board.
+     *
+     * @param board   the board, left unchanged when the method returns
+     * @param depth   the depth remaining
+     * @param buffers the move lists of the current thread
+     * @return the number of leaf nodes
+     */
+    private long count(Board board, int depth, MoveBuffers buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (hash != null && depth > 1) {
+            long cached = hash.probe(board.getZobristKey(), depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+
+        MoveList moves = buffers.push();
+        board.generateLegalMoves(moves);
+        long nodes = 0;
+        if (depth == 1) {
+            // bulk counting: at the last ply every legal move is one leaf
+            nodes = moves.size();
+        } else {
+            for (int i = 0; i < moves.size(); i++) {
+                board.make(moves.get(i));
+                nodes += count(board, depth - 1, buffers);
+                board.unmake();
+            }
+        }
+        buffers.pop();
+
+        if (hash != null && depth > 1) {
+            hash.store(board.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the subtree of one root move, on whichever worker thread runs it.
+     */
+    private class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        private final int depth;
+
+        PerftTask(Position position, int depth) {
+            this.position = position;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return count(new Board(position), depth, MoveBuffers.get());
+        }
+    }
+
+    /**
+     * Runs perft or divide and prints the counts, the time taken, and the nodes per second.
+     *
+     * @param position the root position
+     * @param depth    the depth to count to
+     * @param divide   whether to print the count of each root move
+     */
+    public void run(Position position, int depth, boolean divide) {
+        long start = System.nanoTime();
+        MoveList moves = rootMoves(position);
+        long[] counts = divide(position, depth);
+        long nodes = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (divide) {
+                System.out.println(PackedMove.toAlgebraicNotation(moves.get(i)) + ": " + counts[i]);
+            }
+            nodes += counts[i];
+        }
+        if (depth <= 0) {
+            nodes = 1;
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("nodes " + nodes + " time " + millis + " nps " + nodes * 1000 / millis);
+    }
+
+    /**
+     * Runs perft from the command line.
+     *
+     * @param args depth, then optionally a FEN string and the flags --divide, --parallel, and --hash=MB
+     */
+    public static void main(String[] args) {
+        int depth = -1;
+        boolean divide = false;
+        boolean parallel = false;
+        int hashSize = 0;
+        StringBuilder fen = new StringBuilder();
+        for (String arg : args) {
+            if ("--divide".equals(arg)) {
+                divide = true;
+            } else if ("--parallel".equals(arg)) {
+                parallel = true;
+            } else if (arg.startsWith("--hash=")) {
+                hashSize = Integer.parseInt(arg.substring(7));
+            } else if (depth < 0) {
+                depth = Integer.parseInt(arg);
+            } else {
+                fen.append(arg).append(' ');
+            }
+        }
+        if (depth < 0) {
+            System.out.println("usage: Perft <depth> [fen] [--divide] [--parallel] [--hash=MB]");
+            return;
+        }
+
+        Position position = fen.length() == 0 ? Position.startingPosition() :
+                Position.fenToPosition(fen.toString());
+        if (parallel) {
+            SearchPool.resize(Runtime.getRuntime().availableProcessors());
+        }
+        new Perft(parallel, hashSize).run(position, depth, divide);
+    }
+
+    /**
+     * Cache of subtree counts, indexed by Zobrist key and depth.
+     * Lock-free like the transposition table: each entry stores (key ^ count) and count,
+     * so an entry torn by two threads writing at once fails the check and is ignored.
+     */
+    private static class PerftHash {
+
+        private final long[] checks;
+        private final long[] counts;
+        private final int mask;
+
+        PerftHash(int sizeMB) {
+            // two longs per entry, rounded down to a power of 2
+            int entries = Integer.highestOneBit((int) Math.min(1 << 30, (long) sizeMB * 1024 * 1024 / 16));
+            checks = new long[entries];
+            counts = new long[entries];
+            mask = entries - 1;
+        }
+
+        /**
+         * @return the cached count, or -1 if there is none
+         */
+        long probe(long key, int depth) {
+            long hashKey = key ^ depthKey(depth);
+            int index = (int) hashKey & mask;
+            long count = counts[index];
+            return (checks[index] ^ count) == hashKey ? count : -1;
+        }
+
+        void store(long key, int depth, long count) {
+            long hashKey = key ^ depthKey(depth);
+            int index = (int) hashKey & mask;
+            counts[index] = count;
+            checks[index] = hashKey ^ count;
+        }
+
+        private static long depthKey(int depth) {
+            return depth * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+}
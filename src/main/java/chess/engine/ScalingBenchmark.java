@@ -0,0 +1,191 @@
+package chess.engine;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.PackedMove;
+import chess.moves.bestmove.IterativeDeepening;
+import chess.moves.bestmove.MoveGeneration;
+import chess.moves.bestmove.SearchControl;
+import chess.moves.bestmove.SearchLimits;
+import chess.moves.bestmove.SearchResult;
+import chess.moves.bestmove.SearchStatistics;
+import chess.moves.bestmove.SequentialAlphaBeta;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures how the parallel searches scale with the number of threads: each search is run on a fixed set of
+ * positions to a fixed depth with 1, 2, 4, ... up to the given number of threads, and compared with
+ * SequentialAlphaBeta.java on one thread.<p>
+ * Every search starts from an empty transposition table, and deepens one ply at a time like a "go depth" search.
+ * One CSV row is printed per search, position, and number of threads, so that the results of different builds
+ * can be charted:
+ * <ul>
+ *     <li>speedup: the time of the sequential search / the time of the search (time to depth)</li>
+ *     <li>scaling: the time of the same search on 1 thread / its time on this many threads</li>
+ *     <li>nps_per_thread: the nodes per second of the search, divided by the number of threads</li>
+ *     <li>overhead: the extra nodes the search needs compared with the sequential search, in percent</li>
+ *     <li>same_move, same_score: whether the result is the one of the sequential search;
+ *     mate scores are the same if they are mates in the same number of moves</li>
+ * </ul>
+ * Can be run on its own:<br>
+ * {@code java chess.engine.ScalingBenchmark <depth> [--threads=N] [--search=name,name,...]}
+ */
+public class ScalingBenchmark {
+
+    // the positions of the JMH benchmarks (BenchmarkPositions.java), the starting position,
+    // and a mate in 1 (Ra8), so that a search that scores mates differently shows up in same_score
+    public static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"
+    };
+
+    public static final String HEADER = "search,position,threads,depth,time_ms,nodes,nps,nps_per_thread,"
+            + "speedup,scaling,overhead,move,score,same_move,same_score";
+
+    private ScalingBenchmark() {
+    }
+
+    /**
+     * @param maxThreads the most threads to run with
+     * @return 1, 2, 4, ... up to maxThreads, and maxThreads itself
+     */
+    public static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(Math.max(1, maxThreads));
+        return counts;
+    }
+
+    /**
+     * Runs the benchmark and prints it as CSV, with a header line.
+     * The "Threads" and "Search" options are restored afterwards.
+     *
+     * @param csv        where to print the CSV
+     * @param depth      the depth to search to
+     * @param maxThreads the most threads to run with
+     * @param searches   the searches to measure
+     */
+    public static void run(PrintStream csv, int depth, int maxThreads, List<MoveGeneration.Algorithm> searches) {
+        int threads = MoveGeneration.getThreads();
+        MoveGeneration.Algorithm algorithm = MoveGeneration.getAlgorithm();
+        csv.println(HEADER);
+        try {
+            for (String fen : POSITIONS) {
+                Position position = Position.fenToPosition(fen);
+                // the first run of a position also warms up the JIT compiler; it isn't measured
+                search(position, depth, null);
+                SearchComparison.Run sequential = search(position, depth, null);
+                for (MoveGeneration.Algorithm search : searches) {
+                    SearchComparison.Run single = null;
+                    for (int count : threadCounts(maxThreads)) {
+                        MoveGeneration.setThreads(count);
+                        MoveGeneration.setAlgorithm(search);
+                        SearchComparison.Run run = search(position, depth, search);
+                        if (single == null) {
+                            single = run;
+                        }
+                        csv.println(row(search.uciName, fen, count, depth, run, sequential, single));
+                    }
+                }
+            }
+        } finally {
+            MoveGeneration.setThreads(threads);
+            MoveGeneration.setAlgorithm(algorithm);
+        }
+    }
+
+    /**
+     * Searches a position with the current "Threads" option, from an empty transposition table,
+     * without printing the "info" lines.
+     *
+     * @param search the search to run, or null for SequentialAlphaBeta.java on the calling thread
+     */
+    private static SearchComparison.Run search(Position position, int depth, MoveGeneration.Algorithm search) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            long start = System.nanoTime();
+            SearchResult result = search == null ?
+                    IterativeDeepening.search(position, SearchLimits.depth(depth), SequentialAlphaBeta::search) :
+                    MoveGeneration.search(position, SearchLimits.depth(depth));
+            return new SearchComparison.Run(System.nanoTime() - start, SearchStatistics.totalNodes(), result);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static String row(String name, String fen, int threads, int depth, SearchComparison.Run run,
+                              SearchComparison.Run sequential, SearchComparison.Run single) {
+        double seconds = Math.max(1, run.nanos) / 1e9;
+        return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%d,%.3f,%.3f,%.1f,%s,%d,%b,%b",
+                name, fen, threads, depth, run.nanos / 1_000_000, run.nodes,
+                (long) (run.nodes / seconds), (long) (run.nodes / seconds / threads),
+                (double) sequential.nanos / Math.max(1, run.nanos),
+                (double) single.nanos / Math.max(1, run.nanos),
+                100.0 * (run.nodes - sequential.nodes) / Math.max(1, sequential.nodes),
+                PackedMove.toAlgebraicNotation(run.result.move), run.result.score,
+                run.result.move == sequential.result.move, sameScore(run.result.score, sequential.result.score));
+    }
+
+    /**
+     * @return whether two scores from white's point of view are equal, or mates in the same number of moves
+     * for the same side
+     */
+    static boolean sameScore(int score, int other) {
+        if (Evaluation.isMate(score) || Evaluation.isMate(other)) {
+            return Evaluation.isMate(score) && Evaluation.isMate(other)
+                    && Evaluation.mateMoves(score) == Evaluation.mateMoves(other);
+        }
+        return score == other;
+    }
+
+    /**
+     * Runs the benchmark from the command line.
+     *
+     * @param args depth, then optionally --threads=N (the number of processors by default)
+     *             and --search=name,name,... (all the searches of the "Search" option by default)
+     */
+    public static void main(String[] args) {
+        int depth = -1;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        List<MoveGeneration.Algorithm> searches = new ArrayList<>(List.of(MoveGeneration.Algorithm.values()));
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    maxThreads = Integer.parseInt(arg.substring(10));
+                } else if (arg.startsWith("--search=")) {
+                    searches.clear();
+                    for (String name : arg.substring(9).split(",")) {
+                        MoveGeneration.Algorithm search = MoveGeneration.Algorithm.fromUciName(name);
+                        if (search == null) {
+                            throw new IllegalArgumentException(name);
+                        }
+                        searches.add(search);
+                    }
+                } else {
+                    depth = Integer.parseInt(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            depth = -1;
+        }
+        if (depth < 1 || maxThreads < 1) {
+            System.out.println("usage: ScalingBenchmark <depth> [--threads=N] [--search=name,name,...]");
+            return;
+        }
+        run(System.out, depth, maxThreads, searches);
+    }
+
+}
@@ -0,0 +1,139 @@
+package chess.engine;
+
+import chess.board.Position;
+import chess.moves.PackedMove;
+import chess.moves.bestmove.IterativeDeepening;
+import chess.moves.bestmove.MoveGeneration;
+import chess.moves.bestmove.RootSplit;
+import chess.moves.bestmove.SearchControl;
+import chess.moves.bestmove.SearchHistory;
+import chess.moves.bestmove.SearchPool;
+import chess.moves.bestmove.SearchResult;
+import chess.moves.bestmove.SearchStatistics;
+import chess.moves.bestmove.SequentialAlphaBeta;
+import chess.moves.bestmove.ThreadedMiniMax;
+import chess.moves.bestmove.YoungBrothersWait;
+
+import java.util.Locale;
+
+/**
+ * Compares a parallel search with SequentialAlphaBeta.java at equal depth:
+ * the speedup (sequential time / parallel time) and the search overhead (the extra nodes the parallel
+ * search needs, because its threads search with windows that aren't as narrow as the sequential search's).<p>
+ * Both searches deepen one ply at a time from an empty transposition table, like a "go depth" search.<br>
+ * Used by the "compare" UCI command, and can be run on its own:<br>
+ * {@code java chess.engine.SearchComparison <depth> [fen] [--search=YBWC|RootSplit|ThreadedMiniMax]}
+ */
+public class SearchComparison {
+
+    /**
+     * The time, the nodes, and the result of a search.
+     */
+    public static final class Run {
+        public final long nanos;
+        public final long nodes;
+        public final SearchResult result;
+
+        Run(long nanos, long nodes, SearchResult result) {
+            this.nanos = nanos;
+            this.nodes = nodes;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Searches a position with increasing depth, from an empty transposition table, without printing.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @param search   the search to run at each depth
+     * @return the time, the nodes, and the result of the deepest iteration
+     */
+    public static Run run(Position position, int depth, IterativeDeepening.RootSearch search) {
+        MoveGeneration.transpositionTable.clear();
+        SearchPool.resize(MoveGeneration.getThreads());
+        SearchControl.start();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+
+        long start = System.nanoTime();
+        SearchResult result = null;
+        for (int d = 1; d <= depth; d++) {
+            result = search.search(position, d);
+        }
+        return new Run(System.nanoTime() - start, SearchStatistics.totalNodes(), result);
+    }
+
+    /**
+     * Runs the sequential and the parallel search and prints both, the speedup, and the search overhead.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @param name     the name of the parallel search
+     * @param parallel the parallel search to compare
+     */
+    public static void compare(Position position, int depth, String name, IterativeDeepening.RootSearch parallel) {
+        Run sequential = run(position, depth, SequentialAlphaBeta::search);
+        Run split = run(position, depth, parallel);
+        print("SequentialAlphaBeta", sequential);
+        print(name, split);
+        if (SearchStatistics.totalForks() > 0) {
+            System.out.println(SearchStatistics.forkSummary());
+        }
+        System.out.println(String.format(Locale.ROOT, "speedup %.2f overhead %.1f%% same move %b",
+                (double) sequential.nanos / Math.max(1, split.nanos),
+                100.0 * (split.nodes - sequential.nodes) / Math.max(1, sequential.nodes),
+                sequential.result.move == split.result.move));
+    }
+
+    private static void print(String name, Run run) {
+        long millis = Math.max(1, run.nanos / 1_000_000);
+        System.out.println(name + " bestmove " + PackedMove.toAlgebraicNotation(run.result.move)
+                + " score " + run.result.score + " nodes " + run.nodes + " time " + millis
+                + " nps " + run.nodes * 1000 / millis);
+    }
+
+    /**
+     * @return the parallel search with the given name, ignoring case, or null if there is none
+     */
+    public static IterativeDeepening.RootSearch parallelSearch(String name) {
+        if (MoveGeneration.Algorithm.YBWC.uciName.equalsIgnoreCase(name)) {
+            return YoungBrothersWait::search;
+        } else if (MoveGeneration.Algorithm.ROOT_SPLIT.uciName.equalsIgnoreCase(name)) {
+            return RootSplit::search;
+        } else if (MoveGeneration.Algorithm.THREADED_MINIMAX.uciName.equalsIgnoreCase(name)) {
+            return ThreadedMiniMax::search;
+        }
+        return null;
+    }
+
+    /**
+     * Runs the comparison from the command line.
+     *
+     * @param args depth, then optionally a FEN string and the flag --search=name (YBWC by default)
+     */
+    public static void main(String[] args) {
+        int depth = -1;
+        String name = MoveGeneration.Algorithm.YBWC.uciName;
+        StringBuilder fen = new StringBuilder();
+        for (String arg : args) {
+            if (arg.startsWith("--search=")) {
+                name = arg.substring(9);
+            } else if (depth < 0) {
+                depth = Integer.parseInt(arg);
+            } else {
+                fen.append(arg).append(' ');
+            }
+        }
+        IterativeDeepening.RootSearch parallel = parallelSearch(name);
+        if (depth < 0 || parallel == null) {
+            System.out.println("usage: SearchComparison <depth> [fen] [--search=YBWC|RootSplit|ThreadedMiniMax]");
+            return;
+        }
+
+        Position position = fen.length() == 0 ? Position.startingPosition() :
+                Position.fenToPosition(fen.toString());
+        compare(position, depth, name, parallel);
+    }
+
+}
@@ -0,0 +1,99 @@
+package chess.moves;
+
+import static chess.Constants.*;
+
+/**
+ * Precomputed attack tables for the non-sliding pieces, and geometry masks for every pair of squares.
+ * Shared by the move generator, the attack maps, and anything else that needs the board geometry
+ * (pins, checks, exchanges, mobility).<br>
+ * Sliding attacks depend on the occupied squares, see SliderAttacks.java.
+ */
+public final class Attacks {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    /**
+     * Squares a knight attacks from each square
+     */
+    public static final long[] KNIGHT = new long[64];
+
+    /**
+     * Squares a king attacks from each square
+     */
+    public static final long[] KING = new long[64];
+
+    /**
+     * Squares a pawn attacks (captures on) from each square, indexed by [WHITE or BLACK][square]
+     */
+    public static final long[][] PAWN = new long[2][64];
+
+    /**
+     * Squares strictly between two squares on the same rank, file, or diagonal; 0 if they are not on one.
+     */
+    public static final long[][] BETWEEN = new long[64][64];
+
+    /**
+     * The whole rank, file, or diagonal through two squares (edge to edge); 0 if they are not on one.
+     */
+    public static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            // the spans are centred on square 18 (knight) and 9 (king), so shift them to the square
+            // and cut off what wrapped around to the other side of the board
+            long knight = square > 18 ? KNIGHT_SPAN << (square - 18) : KNIGHT_SPAN >> (18 - square);
+            long king = square > 9 ? KING_SPAN << (square - 9) : KING_SPAN >> (9 - square);
+            long wrapped = square % 8 < 4 ? FILE_GH : FILE_AB;
+            KNIGHT[square] = knight & ~wrapped;
+            KING[square] = king & ~wrapped;
+
+            // white pawns move up the board (to lower squares), black pawns move down
+            long bit = 1L << square;
+            PAWN[WHITE][square] = ((bit >>> 7) & ~FILE_A) | ((bit >>> 9) & ~FILE_H);
+            PAWN[BLACK][square] = ((bit << 7) & ~FILE_H) | ((bit << 9) & ~FILE_A);
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long bits = (1L << a) | (1L << b);
+                if ((SliderAttacks.rookAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = SliderAttacks.rookAttacks(a, 1L << b) & SliderAttacks.rookAttacks(b, 1L << a);
+                    LINE[a][b] = (SliderAttacks.rookAttacks(a, 0L) & SliderAttacks.rookAttacks(b, 0L)) | bits;
+                } else if ((SliderAttacks.bishopAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = SliderAttacks.bishopAttacks(a, 1L << b) & SliderAttacks.bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (SliderAttacks.bishopAttacks(a, 0L) & SliderAttacks.bishopAttacks(b, 0L)) | bits;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * Returns the squares attacked by a set of white pawns, all at once.
+     * Cheaper than looking up every pawn in {@link #PAWN}.
+     *
+     * @param wp white pawn bitboard
+     * @return the squares the white pawns attack
+     */
+    public static long whitePawnAttacks(long wp) {
+        return ((wp >>> 7) & ~FILE_A) | ((wp >>> 9) & ~FILE_H);
+    }
+
+    /**
+     * Returns the squares attacked by a set of black pawns, all at once.
+     * Cheaper than looking up every pawn in {@link #PAWN}.
+     *
+     * @param bp black pawn bitboard
+     * @return the squares the black pawns attack
+     */
+    public static long blackPawnAttacks(long bp) {
+        return ((bp << 7) & ~FILE_H) | ((bp << 9) & ~FILE_A);
+    }
+
+}
@@ -0,0 +1,57 @@
+package chess.moves;
+
+/**
+ * Preallocated move lists for the search, so that a whole search runs without allocating any lists.<p>
+ * Every thread has its own buffers (see {@link #get()}), so buffers are never shared between threads,
+ * including the ForkJoin workers. The buffers are used as a stack: each node of the search
+ * takes the next list with {@link #push()} and gives it back with {@link #pop()} before returning,
+ * so in a sequential search the list used at ply n is always the n-th list.<br>
+ * The stack (rather than indexing by the ply of a node) also keeps the lists safe
+ * when a ForkJoin worker runs another task in the middle of joining, since that task
+ * finishes before the worker goes back to the lists of the task it was running.
+ */
+public final class MoveBuffers {
+
+    // deepest stack of nodes a thread can search
+    public static final int MAX_PLY = 128;
+
+    private static final ThreadLocal<MoveBuffers> BUFFERS = ThreadLocal.withInitial(MoveBuffers::new);
+
+    private final MoveList[] lists = new MoveList[MAX_PLY];
+    private int ply;
+
+    private MoveBuffers() {
+    }
+
+    /**
+     * @return the move buffers of the current thread
+     */
+    public static MoveBuffers get() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * Takes the list for the next ply. The list is empty.
+     *
+     * @return the move list of the next ply
+     */
+    public MoveList push() {
+        MoveList list = lists[ply];
+        if (list == null) {
+            // lists are only created the first time a thread reaches a ply
+            list = new MoveList();
+            lists[ply] = list;
+        }
+        ply++;
+        list.clear();
+        return list;
+    }
+
+    /**
+     * Gives back the list of the current ply.
+     */
+    public void pop() {
+        ply--;
+    }
+
+}
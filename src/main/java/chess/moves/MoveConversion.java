@@ -1,9 +1,6 @@
 package chess.moves;
 
 import chess.board.Position;
-import chess.board.MakeMove;
-
-import java.util.List;
 
 import static chess.Constants.files;
 import static chess.Constants.ranks;
@@ -55,113 +52,37 @@ public class MoveConversion {
     }
 
     /**
-     * Parses algebraic moves and applies them to the given position.
+     * Parses the first algebraic move of the input and applies it to the given position.
      *
      * @param input         the input string from the GUI; the moves to be made
      * @param possibleMoves the list of possible moves from the current position
-     * @return the position after the moves have been applied to the position
+     * @return the position after the move has been applied to the position,
+     * or the same position if the move is not in the list of possible moves
      */
-    public static Position applyAlgebraMoves(String input, List<Move> possibleMoves, Position position) {
-        // copy position values from given position
-        long wp = position.wp;
-        long wn = position.wn;
-        long wb = position.wb;
-        long wr = position.wr;
-        long wq = position.wq;
-        long wk = position.wk;
-        long bp = position.bp;
-        long bn = position.bn;
-        long bb = position.bb;
-        long br = position.br;
-        long bq = position.bq;
-        long bk = position.bk;
-        long ep = position.ep;
-        boolean cwk = position.cwk;
-        boolean cwq = position.cwq;
-        boolean cbk = position.cbk;
-        boolean cbq = position.cbq;
-        boolean whiteToMove = position.whiteToMove;
-        int halfMoveCount = position.halfMoveCount;
-        int fullMoveCount = position.fullMoveCount;
-
+    public static Position applyAlgebraMoves(String input, MoveList possibleMoves, Position position) {
         // cells for input
         int sourceFile = input.charAt(0) - 'a';
         int sourceRank = '8' - input.charAt(1);
         int destFile = input.charAt(2) - 'a';
         int destRank = '8' - input.charAt(3);
 
-        int start = 0, end = 0;
         int from = (sourceFile) + (8 * (sourceRank));
         int to = (destFile) + (8 * (destRank));
+        char promotion = input.length() > 4 ? input.charAt(4) : ' ';
 
         // check if the given move is valid, if so make it
-        for (Move move : possibleMoves) {
-            if (!move.isEnPassant && !move.isPromotion) {
-                // normal move
-                start = move.sourceRank * 8 + move.sourceFile;
-                end = move.destRank * 8 + move.destFile;
-            } else if (move.isPromotion) {
-                // pawn promotion
-                if (Character.isUpperCase(move.promotionPiece)) {
-                    start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[1]);
-                    end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[0]);
-                } else {
-                    start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[6]);
-                    end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[7]);
-                }
-            } else if (move.isEnPassant) {
-                // en passant
-                if (move.sourceRank == 3) {
-                    // white
-                    start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[3]);
-                    end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[2]);
-                } else {
-                    start = Long.numberOfTrailingZeros(files[move.sourceFile] & ranks[4]);
-                    end = Long.numberOfTrailingZeros(files[move.destFile] & ranks[5]);
-                }
-            }
-            if ((start == from) && (end == to)) {
-                if ((input.charAt(4) == ' ') || (Character.toUpperCase(input.charAt(4)) == Character.toUpperCase(move.promotionPiece))) {
-                    if (!move.isEnPassant && !move.isPromotion) {
-                        // if normal move
-                        start = (move.sourceRank * 8) + (move.sourceFile);
-                        if (((1L << start) & wk) != 0) {
-                            cwk = false;
-                            cwq = false;
-                        } else if (((1L << start) & bk) != 0) {
-                            cbk = false;
-                            cbq = false;
-                        } else if (((1L << start) & wr & (1L << 63)) != 0) {
-                            cwk = false;
-                        } else if (((1L << start) & wr & (1L << 56)) != 0) {
-                            cwq = false;
-                        } else if (((1L << start) & br & (1L << 7)) != 0) {
-                            cbk = false;
-                        } else if (((1L << start) & br & 1L) != 0) {
-                            cbq = false;
-                        }
-                    }
-                    ep = MakeMove.makeMoveEP(wp | bp, move);
-                    wp = MakeMove.makeMove(wp, move, 'P');
-                    wn = MakeMove.makeMove(wn, move, 'N');
-                    wb = MakeMove.makeMove(wb, move, 'B');
-                    wr = MakeMove.makeMove(wr, move, 'R');
-                    wq = MakeMove.makeMove(wq, move, 'Q');
-                    wk = MakeMove.makeMove(wk, move, 'K');
-                    bp = MakeMove.makeMove(bp, move, 'p');
-                    bn = MakeMove.makeMove(bn, move, 'n');
-                    bb = MakeMove.makeMove(bb, move, 'b');
-                    br = MakeMove.makeMove(br, move, 'r');
-                    bq = MakeMove.makeMove(bq, move, 'q');
-                    bk = MakeMove.makeMove(bk, move, 'k');
-                    whiteToMove = !whiteToMove;
-                    break;
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            int move = possibleMoves.get(i);
+            if (PackedMove.from(move) == from && PackedMove.to(move) == to) {
+                if ((promotion == ' ') || !PackedMove.isPromotion(move)
+                        || (Character.toUpperCase(promotion) == Character.toUpperCase(PackedMove.promotionPiece(move)))) {
+                    // castling rights, en passant and the Zobrist key are all updated by makeMove
+                    return position.makeMove(move);
                 }
             }
         }
 
-        return new Position(wp, wn, wb, wr, wq, wk, bp, bn, bb, br, bq, bk, ep,
-                cwk, cwq, cbk, cbq, whiteToMove, halfMoveCount, fullMoveCount);
+        return position;
     }
 
 }
@@ -0,0 +1,198 @@
+package chess.moves;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A list of packed moves (see PackedMove.java) backed by a fixed-size int array,
+ * with a parallel array of scores used for move ordering.
+ * No position has more than 218 legal moves, so the arrays never need to grow.<br>
+ * The search reuses the same lists for every node, see MoveBuffers.java.
+ */
+public class MoveList {
+
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves = new int[MAX_MOVES];
+    private final int[] scores = new int[MAX_MOVES];
+    private int size;
+
+    /**
+     * Adds a move to the end of the list.
+     *
+     * @param move the packed move to add
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * @return the move at the given index
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the move at the given index.
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * @return the ordering score of the move at the given index
+     */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Sets the ordering score of the move at the given index.
+     */
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    /**
+     * Sorts the moves by their scores, highest score first.
+     * Uses an insertion sort, which is stable and fast for lists this small.
+     */
+    public void sortByScore() {
+        sortByScore(0);
+    }
+
+    /**
+     * Sorts the moves from the given index on by their scores, highest score first.
+     * The moves before the index are left where they are.
+     *
+     * @param start the index of the first move to sort
+     */
+    public void sortByScore(int start) {
+        for (int i = start + 1; i < size; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= start && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * One step of a selection sort: finds the highest scored move from the given index on,
+     * swaps it to the index, and returns it.
+     * Picking the moves in order this way only sorts as far as the search gets before a cutoff;
+     * ties keep the order they were added in, as long as nothing before them was swapped out.
+     *
+     * @param index the index to put the best remaining move at
+     * @return the best remaining move
+     */
+    public int pickBest(int index) {
+        int best = index;
+        for (int i = index + 1; i < size; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        int score = scores[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        scores[index] = score;
+        return move;
+    }
+
+    /**
+     * @return the number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keeps the first moves of the list and removes the rest.
+     *
+     * @param size the number of moves to keep, at most size()
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Removes all moves from the list.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return whether the list contains the given move
+     */
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    /**
+     * @return the index of the given move, or -1 if it is not in the list
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the given move to the front of the list, keeping the order of the other moves.
+     * Does nothing if the move is not in the list.
+     *
+     * @param move the move to try first
+     */
+    public void moveToFront(int move) {
+        int index = indexOf(move);
+        if (index > 0) {
+            int score = scores[index];
+            System.arraycopy(moves, 0, moves, 1, index);
+            System.arraycopy(scores, 0, scores, 1, index);
+            moves[0] = move;
+            scores[0] = score;
+        }
+    }
+
+    /**
+     * Converts the list to Move objects, to be used at the boundaries of the engine (UCI, tests).
+     *
+     * @return a new list with a Move object for each move, in the same order
+     */
+    public List<Move> toMoves() {
+        List<Move> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(PackedMove.toMove(moves[i]));
+        }
+        return list;
+    }
+
+    /**
+     * @return the moves in algebraic notation
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(PackedMove.toAlgebraicNotation(moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+}
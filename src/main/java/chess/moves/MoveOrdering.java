@@ -0,0 +1,71 @@
+package chess.moves;
+
+import chess.board.Board;
+
+import static chess.Constants.*;
+
+/**
+ * Scores moves for move ordering without making them.<p>
+ * Captures are ordered by <a href="https://www.chessprogramming.org/MVV-LVA">MVV-LVA</a>
+ * (most valuable victim, then least valuable attacker), promotions by the piece promoted to,
+ * and all of them come before the quiet moves.<br>
+ * The search doesn't score its own moves (hash move, killers, counter move) here: MovePicker.java tries them
+ * in stages of their own, around the captures scored here, and orders the quiet moves by their history.
+ */
+public final class MoveOrdering {
+
+    public static final int CAPTURE_SCORE = 1 << 24;
+    public static final int QUIET_SCORE = 0;
+
+    // value of each kind of piece (pawn to king), same order as the Board piece indices
+    private static final int[] VALUE = {PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE, KING_VALUE};
+
+    private MoveOrdering() {
+    }
+
+    /**
+     * Scores the moves of a list from the given index on: captures and promotions with
+     * {@link #scoreNoisy(Board, int)}, everything else with QUIET_SCORE.
+     *
+     * @param board the board the moves are for
+     * @param moves the moves to score
+     * @param start the index of the first move to score
+     */
+    public static void scoreMoves(Board board, MoveList moves, int start) {
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean noisy = PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+            moves.setScore(i, noisy ? scoreNoisy(board, move) : QUIET_SCORE);
+        }
+    }
+
+    /**
+     * Scores a capture or promotion.
+     *
+     * @param board the board the move is for, before the move is made
+     * @param move  the packed move
+     * @return a score above CAPTURE_SCORE, higher for better captures
+     */
+    public static int scoreNoisy(Board board, int move) {
+        int score = CAPTURE_SCORE;
+        int attacker = board.pieceAt(PackedMove.from(move)) % 6;
+        if (PackedMove.isCapture(move)) {
+            // en passant takes a pawn from a square that isn't the to square
+            int victim = PackedMove.isEnPassant(move) ? Board.WP : board.pieceAt(PackedMove.to(move)) % 6;
+            score += VALUE[victim] * 8 - attacker;
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += VALUE[promotedPiece(move)] - PAWN_VALUE;
+        }
+        return score;
+    }
+
+    /**
+     * @return the kind of piece a promotion promotes to, from knight (1) to queen (4)
+     */
+    private static int promotedPiece(int move) {
+        // the promotion flags are knight, bishop, rook, queen in the low two bits
+        return (PackedMove.flags(move) & 3) + 1;
+    }
+
+}
@@ -0,0 +1,203 @@
+package chess.moves;
+
+import chess.board.Position;
+
+/**
+ * Static helpers for moves packed into a primitive int, which is how moves are represented
+ * by the move generator and the search (the Move class is only used at the boundaries, like UCI).<p>
+ * Bits 0-5 hold the source square, bits 6-11 the destination square, and bits 12-15 the flags below
+ * (<a href="https://www.chessprogramming.org/Encoding_Moves#From-To_Based">from-to based encoding</a>).<br>
+ * Squares are numbered like the bitboards: 0 = a8, 7 = h8, ..., 56 = a1, 63 = h1,
+ * so square = rank * 8 + file, using the rank and file numbering of the Move class.
+ */
+public final class PackedMove {
+
+    // not a move; a8 to a8 can never be played
+    public static final int NONE = 0;
+
+    // flags
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION_KNIGHT = 8;
+    public static final int PROMOTION_BISHOP = 9;
+    public static final int PROMOTION_ROOK = 10;
+    public static final int PROMOTION_QUEEN = 11;
+    // a promotion that also captures is (PROMOTION_x | CAPTURE)
+
+    private static final int CAPTURE_BIT = 4;
+    private static final int PROMOTION_BIT = 8;
+
+    private PackedMove() {
+    }
+
+    /**
+     * Packs a move into an int.
+     *
+     * @param from  the source square
+     * @param to    the destination square
+     * @param flags one of the flags of this class
+     * @return the packed move
+     */
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * @return the source square of the move
+     */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * @return the destination square of the move
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the flags of the move
+     */
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    /**
+     * @return whether the move captures a piece, including en passant and capturing promotions
+     */
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE_BIT) != 0;
+    }
+
+    /**
+     * @return whether the move is a promotion
+     */
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION_BIT) != 0;
+    }
+
+    /**
+     * @return whether the move is an en passant capture
+     */
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    /**
+     * @return whether the move is king side or queen side castling
+     */
+    public static boolean isCastling(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * @return whether the move is a pawn moving 2 squares
+     */
+    public static boolean isDoublePawnPush(int move) {
+        return flags(move) == DOUBLE_PAWN_PUSH;
+    }
+
+    /**
+     * Returns the piece a pawn is promoted to.
+     * The side is decided by the destination rank: white promotes on rank 8, black on rank 1.
+     *
+     * @param move a promotion move
+     * @return the promotion piece (Q, R, B, N for white and q, r, b, n for black)
+     */
+    public static char promotionPiece(int move) {
+        char piece = switch (flags(move) & 0x3) {
+            case 0 -> 'N';
+            case 1 -> 'B';
+            case 2 -> 'R';
+            default -> 'Q';
+        };
+        return to(move) < 8 ? piece : Character.toLowerCase(piece);
+    }
+
+    /**
+     * Returns the promotion flag (without the capture bit) for a promotion piece.
+     *
+     * @param piece the promotion piece, either case
+     * @return one of the PROMOTION_x flags
+     */
+    public static int promotionFlag(char piece) {
+        return switch (Character.toUpperCase(piece)) {
+            case 'N' -> PROMOTION_KNIGHT;
+            case 'B' -> PROMOTION_BISHOP;
+            case 'R' -> PROMOTION_ROOK;
+            default -> PROMOTION_QUEEN;
+        };
+    }
+
+    /**
+     * Converts a packed move to a Move object.
+     *
+     * @param move the packed move
+     * @return an equal Move object
+     */
+    public static Move toMove(int move) {
+        int from = from(move);
+        int to = to(move);
+        if (isPromotion(move)) {
+            return new Move(from / 8, from % 8, to / 8, to % 8, promotionPiece(move));
+        } else if (isEnPassant(move)) {
+            return new Move(from / 8, from % 8, to / 8, to % 8, true);
+        }
+        return new Move(from / 8, from % 8, to / 8, to % 8);
+    }
+
+    /**
+     * Converts a Move object to a packed move.
+     * The position is needed to find the flags that Move does not have (captures, castling, etc.).
+     *
+     * @param move     the move to convert
+     * @param position the position the move is played in
+     * @return the packed move
+     */
+    public static int fromMove(Move move, Position position) {
+        int from = move.sourceRank * 8 + move.sourceFile;
+        int to = move.destRank * 8 + move.destFile;
+        long occupied = position.wp | position.wn | position.wb | position.wr | position.wq | position.wk
+                | position.bp | position.bn | position.bb | position.br | position.bq | position.bk;
+        boolean capture = ((occupied >>> to) & 1) == 1;
+        long fromBit = 1L << from;
+
+        if (move.isPromotion) {
+            return of(from, to, promotionFlag(move.promotionPiece) | (capture ? CAPTURE : 0));
+        } else if (move.isEnPassant) {
+            return of(from, to, EN_PASSANT);
+        } else if (((position.wk | position.bk) & fromBit) != 0 && Math.abs(to - from) == 2) {
+            return of(from, to, to > from ? KING_CASTLE : QUEEN_CASTLE);
+        } else if (((position.wp | position.bp) & fromBit) != 0 && Math.abs(to - from) == 16) {
+            return of(from, to, DOUBLE_PAWN_PUSH);
+        }
+        return of(from, to, capture ? CAPTURE : QUIET);
+    }
+
+    /**
+     * Converts a packed move to algebraic notation, e.g. "e2e4" or "a7a8q".
+     *
+     * @param move the packed move
+     * @return the move in algebraic notation
+     */
+    public static String toAlgebraicNotation(int move) {
+        int from = from(move);
+        int to = to(move);
+        StringBuilder sb = new StringBuilder(5);
+        sb.append((char) ('a' + (from % 8)));
+        sb.append((char) ('8' - (from / 8)));
+        sb.append((char) ('a' + (to % 8)));
+        sb.append((char) ('8' - (to / 8)));
+        if (isPromotion(move)) {
+            sb.append(Character.toLowerCase(promotionPiece(move)));
+        }
+        return sb.toString();
+    }
+
+}
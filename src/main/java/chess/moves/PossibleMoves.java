@@ -2,7 +2,6 @@ package chess.moves;
 
 import chess.board.Position;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static chess.Constants.*;
@@ -13,12 +12,21 @@ public class PossibleMoves {
     // docs are ours
 
     // useful trackers
-    private final long notMyPieces; // every square except my pieces + opponent's king
-    private final long myPieces; // squares with my pieces - my king
-    private final long occupiedSquares; // squares with pieces
-    private final long emptySquares; // squares without any pieces
+    // not final so that a mutable Board can reuse one object for every node, see setSquares
+    private long notMyPieces; // every square except my pieces + opponent's king
+    private long myPieces; // squares with my pieces - my king
+    private long occupiedSquares; // squares with pieces
+    private long emptySquares; // squares without any pieces
 
     public PossibleMoves(long notMyPieces, long myPieces, long occupiedSquares, long emptySquares) {
+        setSquares(notMyPieces, myPieces, occupiedSquares, emptySquares);
+    }
+
+    /**
+     * Replaces the trackers, so that this object can generate moves for another position.
+     * Used by Board.java, which changes in place instead of creating a new position for every move.
+     */
+    public void setSquares(long notMyPieces, long myPieces, long occupiedSquares, long emptySquares) {
         this.notMyPieces = notMyPieces;
         this.myPieces = myPieces;
         this.occupiedSquares = occupiedSquares;
@@ -37,6 +45,21 @@ public class PossibleMoves {
      * - Promotion moves are sorted by piece type: queen, rook, bishop, knight.
      */
     public List<Move> possibleWP(long wp, long bp, long ep) {
+        MoveList moves = new MoveList();
+        possibleWP(wp, bp, ep, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible pawn moves for white to the given list, as packed moves.
+     * The moves are added in the same order as {@link #possibleWP(long, long, long)}.
+     *
+     * @param wp    white pawn bitboard
+     * @param bp    black pawn bitboard
+     * @param ep    en passant bitboard - has 1 for pawn that was moved 2 squares
+     * @param moves the list to add the moves to
+     */
+    public void possibleWP(long wp, long bp, long ep, MoveList moves) {
         /*
          * moves: stores all moves to be returned
          *
@@ -45,7 +68,6 @@ public class PossibleMoves {
          * possibility = 0, when there are no possible moves for the current condition
          */
 
-        List<Move> moves = new ArrayList<>();
         long pawnMoves, possibility;
 
         // Single push
@@ -53,7 +75,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos + 8, currPos, PackedMove.QUIET));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -63,7 +85,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 2, currPos % 8, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos + 16, currPos, PackedMove.DOUBLE_PAWN_PUSH));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -73,7 +95,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 - 1, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos + 7, currPos, PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -83,7 +105,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 + 1, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos + 9, currPos, PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -93,10 +115,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8, currPos / 8, currPos % 8, 'Q'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8, currPos / 8, currPos % 8, 'R'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8, currPos / 8, currPos % 8, 'B'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8, currPos / 8, currPos % 8, 'N'));
+            moves.add(PackedMove.of(currPos + 8, currPos, PackedMove.PROMOTION_QUEEN));
+            moves.add(PackedMove.of(currPos + 8, currPos, PackedMove.PROMOTION_ROOK));
+            moves.add(PackedMove.of(currPos + 8, currPos, PackedMove.PROMOTION_BISHOP));
+            moves.add(PackedMove.of(currPos + 8, currPos, PackedMove.PROMOTION_KNIGHT));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -106,10 +128,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'Q'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'R'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'B'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'N'));
+            moves.add(PackedMove.of(currPos + 7, currPos, PackedMove.PROMOTION_QUEEN | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 7, currPos, PackedMove.PROMOTION_ROOK | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 7, currPos, PackedMove.PROMOTION_BISHOP | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 7, currPos, PackedMove.PROMOTION_KNIGHT | PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -119,10 +141,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'Q'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'R'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'B'));
-            moves.add(new Move(currPos / 8 + 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'N'));
+            moves.add(PackedMove.of(currPos + 9, currPos, PackedMove.PROMOTION_QUEEN | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 9, currPos, PackedMove.PROMOTION_ROOK | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 9, currPos, PackedMove.PROMOTION_BISHOP | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos + 9, currPos, PackedMove.PROMOTION_KNIGHT | PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -131,17 +153,15 @@ public class PossibleMoves {
         possibility = (wp << 1) & bp & RANK_5 & ~FILE_A & ep;
         if (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8, currPos % 8 - 1, currPos / 8 - 1, currPos % 8, true));
+            moves.add(PackedMove.of(currPos - 1, currPos - 8, PackedMove.EN_PASSANT));
         }
 
         // En passant capture left
         possibility = (wp >> 1) & bp & RANK_5 & ~FILE_H & ep;
         if (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8, currPos % 8 + 1, currPos / 8 - 1, currPos % 8, true));
+            moves.add(PackedMove.of(currPos + 1, currPos - 8, PackedMove.EN_PASSANT));
         }
-
-        return moves;
     }
 
     /**
@@ -156,9 +176,23 @@ public class PossibleMoves {
      * - Promotion moves are sorted by piece type: queen, rook, bishop, knight.<br>
      */
     public List<Move> possibleBP(long bp, long wp, long ep) {
+        MoveList moves = new MoveList();
+        possibleBP(bp, wp, ep, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible pawn moves for black to the given list, as packed moves.
+     * The moves are added in the same order as {@link #possibleBP(long, long, long)}.
+     *
+     * @param bp    black pawn bitboard
+     * @param wp    white pawn bitboard
+     * @param ep    en passant bitboard - has 1 for pawn that was moved 2 squares
+     * @param moves the list to add the moves to
+     */
+    public void possibleBP(long bp, long wp, long ep, MoveList moves) {
         // similar to possibleWP, but with black pieces
 
-        List<Move> moves = new ArrayList<>();
         long pawnMoves, possibility;
 
         // Single push
@@ -166,7 +200,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos - 8, currPos, PackedMove.QUIET));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -176,7 +210,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 2, currPos % 8, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos - 16, currPos, PackedMove.DOUBLE_PAWN_PUSH));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -186,7 +220,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 + 1, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos - 7, currPos, PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -196,7 +230,7 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 - 1, currPos / 8, currPos % 8));
+            moves.add(PackedMove.of(currPos - 9, currPos, PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -206,10 +240,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8, currPos / 8, currPos % 8, 'q'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8, currPos / 8, currPos % 8, 'r'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8, currPos / 8, currPos % 8, 'b'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8, currPos / 8, currPos % 8, 'n'));
+            moves.add(PackedMove.of(currPos - 8, currPos, PackedMove.PROMOTION_QUEEN));
+            moves.add(PackedMove.of(currPos - 8, currPos, PackedMove.PROMOTION_ROOK));
+            moves.add(PackedMove.of(currPos - 8, currPos, PackedMove.PROMOTION_BISHOP));
+            moves.add(PackedMove.of(currPos - 8, currPos, PackedMove.PROMOTION_KNIGHT));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -219,10 +253,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'q'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'r'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'b'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 + 1, currPos / 8, currPos % 8, 'n'));
+            moves.add(PackedMove.of(currPos - 7, currPos, PackedMove.PROMOTION_QUEEN | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 7, currPos, PackedMove.PROMOTION_ROOK | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 7, currPos, PackedMove.PROMOTION_BISHOP | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 7, currPos, PackedMove.PROMOTION_KNIGHT | PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -232,10 +266,10 @@ public class PossibleMoves {
         possibility = pawnMoves & -pawnMoves;
         while (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'q'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'r'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'b'));
-            moves.add(new Move(currPos / 8 - 1, currPos % 8 - 1, currPos / 8, currPos % 8, 'n'));
+            moves.add(PackedMove.of(currPos - 9, currPos, PackedMove.PROMOTION_QUEEN | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 9, currPos, PackedMove.PROMOTION_ROOK | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 9, currPos, PackedMove.PROMOTION_BISHOP | PackedMove.CAPTURE));
+            moves.add(PackedMove.of(currPos - 9, currPos, PackedMove.PROMOTION_KNIGHT | PackedMove.CAPTURE));
             pawnMoves &= ~possibility;
             possibility = pawnMoves & -pawnMoves;
         }
@@ -244,17 +278,15 @@ public class PossibleMoves {
         possibility = (bp << 1) & wp & RANK_4 & ~FILE_A & ep;
         if (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8, currPos % 8 - 1, currPos / 8 + 1, currPos % 8, true));
+            moves.add(PackedMove.of(currPos - 1, currPos + 8, PackedMove.EN_PASSANT));
         }
 
         // En passant capture left
         possibility = (bp >> 1) & wp & RANK_4 & ~FILE_H & ep;
         if (possibility != 0) {
             int currPos = Long.numberOfTrailingZeros(possibility);
-            moves.add(new Move(currPos / 8, currPos % 8 + 1, currPos / 8 + 1, currPos % 8, true));
+            moves.add(PackedMove.of(currPos + 1, currPos + 8, PackedMove.EN_PASSANT));
         }
-
-        return moves;
     }
 
     /**
@@ -265,36 +297,27 @@ public class PossibleMoves {
      * The moves are sorted from top to bottom and left to right.
      */
     public List<Move> possibleN(long knight) {
-        List<Move> moves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        possibleN(knight, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible knight moves to the given list, as packed moves.
+     *
+     * @param knight the knight bitboard
+     * @param moves  the list to add the moves to
+     */
+    public void possibleN(long knight, MoveList moves) {
         long i = knight & -knight;
-        long possibility;
 
         // accounting for all both knights on the board
         while (i != 0) {
             int currPos = Long.numberOfTrailingZeros(i);
-            if (currPos > 18) {
-                possibility = KNIGHT_SPAN << (currPos - 18);
-            } else {
-                possibility = KNIGHT_SPAN >> (18 - currPos);
-            }
-            if (currPos % 8 < 4) {
-                possibility &= ~FILE_GH & notMyPieces;
-            } else {
-                possibility &= ~FILE_AB & notMyPieces;
-            }
-
-            long j = possibility & -possibility;
-            while (j != 0) {
-                int index = Long.numberOfTrailingZeros(j);
-                moves.add(new Move(currPos / 8, currPos % 8, index / 8, index % 8));
-                possibility &= ~j;
-                j = possibility & -possibility;
-            }
+            addMoves(currPos, Attacks.KNIGHT[currPos] & notMyPieces, moves);
             knight &= ~i;
             i = knight & -knight;
         }
-
-        return moves;
     }
 
     /**
@@ -305,25 +328,28 @@ public class PossibleMoves {
      * The moves are sorted from top to bottom and left to right.
      */
     public List<Move> possibleB(long bishop) {
-        List<Move> moves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        possibleB(bishop, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible bishop moves to the given list, as packed moves.
+     *
+     * @param bishop the bishop bitboard
+     * @param moves  the list to add the moves to
+     */
+    public void possibleB(long bishop, MoveList moves) {
         long i = bishop & -bishop;
         long possibility;
 
         while (i != 0) {
             int currPos = Long.numberOfTrailingZeros(i);
             possibility = diagonalMoves(currPos) & notMyPieces;
-            long j = possibility & -possibility;
-            while (j != 0) {
-                int index = Long.numberOfTrailingZeros(j);
-                moves.add(new Move(currPos / 8, currPos % 8, index / 8, index % 8));
-                possibility &= ~j;
-                j = possibility & -possibility;
-            }
+            addMoves(currPos, possibility, moves);
             bishop &= ~i;
             i = bishop & -bishop;
         }
-
-        return moves;
     }
 
     /**
@@ -334,25 +360,28 @@ public class PossibleMoves {
      * The moves are sorted from top to bottom and left to right.
      */
     public List<Move> possibleR(long rook) {
-        List<Move> moves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        possibleR(rook, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible rook moves to the given list, as packed moves.
+     *
+     * @param rook  the rook bitboard
+     * @param moves the list to add the moves to
+     */
+    public void possibleR(long rook, MoveList moves) {
         long i = rook & -rook;
         long possibility;
 
         while (i != 0) {
             int currPos = Long.numberOfTrailingZeros(i);
             possibility = horizontalAndVerticalMoves(currPos) & notMyPieces;
-            long j = possibility & -possibility;
-            while (j != 0) {
-                int index = Long.numberOfTrailingZeros(j);
-                moves.add(new Move(currPos / 8, currPos % 8, index / 8, index % 8));
-                possibility &= ~j;
-                j = possibility & -possibility;
-            }
+            addMoves(currPos, possibility, moves);
             rook &= ~i;
             i = rook & -rook;
         }
-
-        return moves;
     }
 
     /**
@@ -364,9 +393,20 @@ public class PossibleMoves {
      * The moves are further sorted from top to bottom and left to right.
      */
     public List<Move> possibleQ(long queen) {
-        List<Move> moves = possibleB(queen);
-        moves.addAll(possibleR(queen));
-        return moves;
+        MoveList moves = new MoveList();
+        possibleQ(queen, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible queen moves to the given list, as packed moves.
+     *
+     * @param queen the queen bitboard
+     * @param moves the list to add the moves to
+     */
+    public void possibleQ(long queen, MoveList moves) {
+        possibleB(queen, moves);
+        possibleR(queen, moves);
     }
 
     /**
@@ -378,35 +418,42 @@ public class PossibleMoves {
      * - Castling moves are not included.
      */
     public List<Move> possibleK(Position position) {
-        List<Move> moves = new ArrayList<>();
-        long possibility;
-        long unsafe = position.whiteToMove ? unsafeForWhite(position) : unsafeForBlack(position);
+        MoveList moves = new MoveList();
+        possibleK(position, moves);
+        return moves.toMoves();
+    }
 
-        int currPos = position.whiteToMove ? Long.numberOfTrailingZeros(position.wk) :
-                Long.numberOfTrailingZeros(position.bk);
-        if (currPos > 9) {
-            // if not in the 8th rank
-            possibility = KING_SPAN << (currPos - 9);
-        } else {
-            possibility = KING_SPAN >> (9 - currPos);
-        }
-        if (currPos % 8 < 4) {
-            possibility &= ~FILE_GH & notMyPieces;
+    /**
+     * Adds all possible non-castling king moves to the given list, as packed moves.
+     *
+     * @param position the current position
+     * @param moves    the list to add the moves to
+     */
+    public void possibleK(Position position, MoveList moves) {
+        if (position.whiteToMove) {
+            possibleK(position.wk, unsafeForWhite(position.bp, position.bn, position.bb, position.br,
+                    position.bq, position.bk), moves);
         } else {
-            possibility &= ~FILE_AB & notMyPieces;
+            possibleK(position.bk, unsafeForBlack(position.wp, position.wn, position.wb, position.wr,
+                    position.wq, position.wk), moves);
         }
+    }
 
-        possibility &= ~unsafe;
-
-        long j = possibility & -possibility;
-        while (j != 0) {
-            int index = Long.numberOfTrailingZeros(j);
-            moves.add(new Move(currPos / 8, currPos % 8, index / 8, index % 8));
-            possibility &= ~j;
-            j = possibility & -possibility;
+    /**
+     * Adds all possible non-castling king moves to the given list, as packed moves.
+     * Does nothing if there is no king on the board.
+     *
+     * @param king   the king bitboard of the side to move
+     * @param unsafe the squares attacked by the opponent, see {@link #unsafeForWhite} and {@link #unsafeForBlack}
+     * @param moves  the list to add the moves to
+     */
+    public void possibleK(long king, long unsafe, MoveList moves) {
+        if (king == 0) {
+            // the king was captured deeper in the search
+            return;
         }
-
-        return moves;
+        int currPos = Long.numberOfTrailingZeros(king);
+        addMoves(currPos, Attacks.KING[currPos] & notMyPieces & ~unsafe, moves);
     }
 
     /**
@@ -418,27 +465,48 @@ public class PossibleMoves {
      * The list will at most contain two moves.
      */
     public List<Move> possibleCW(Position position) {
-        // TODO: change the parameter to not take Position object
-        List<Move> moves = new ArrayList<>();
-        long unsafe = unsafeForWhite(position);
+        MoveList moves = new MoveList();
+        possibleCW(position, moves);
+        return moves.toMoves();
+    }
 
-        if ((unsafe & position.wk) == 0) {
+    /**
+     * Adds all possible castling moves for white to the given list, as packed moves.
+     *
+     * @param position the current position
+     * @param moves    the list to add the moves to
+     */
+    public void possibleCW(Position position, MoveList moves) {
+        possibleCW(position.wk, position.wr, position.cwk, position.cwq,
+                unsafeForWhite(position.bp, position.bn, position.bb, position.br, position.bq, position.bk), moves);
+    }
+
+    /**
+     * Adds all possible castling moves for white to the given list, as packed moves.
+     *
+     * @param wk     white king bitboard
+     * @param wr     white rook bitboard
+     * @param cwk    white king side castling right
+     * @param cwq    white queen side castling right
+     * @param unsafe the squares attacked by black, see {@link #unsafeForWhite}
+     * @param moves  the list to add the moves to
+     */
+    public void possibleCW(long wk, long wr, boolean cwk, boolean cwq, long unsafe, MoveList moves) {
+        if ((unsafe & wk) == 0) {
             // king-side castle
-            if (position.cwk && (((1L << CASTLE_ROOKS[0]) & position.wr) != 0)) {
+            if (cwk && (((1L << CASTLE_ROOKS[0]) & wr) != 0)) {
                 if (((occupiedSquares | unsafe) & ((1L << 61) | (1L << 62))) == 0) {
-                    moves.add(new Move(7, 4, 7, 6));
+                    moves.add(PackedMove.of(60, 62, PackedMove.KING_CASTLE));
                 }
             }
 
             // queen-side castle
-            if (position.cwq && (((1L << CASTLE_ROOKS[1]) & position.wr) != 0)) {
+            if (cwq && (((1L << CASTLE_ROOKS[1]) & wr) != 0)) {
                 if (((occupiedSquares | (unsafe & ~(1L << 57))) & ((1L << 57) | (1L << 58) | (1L << 59))) == 0) {
-                    moves.add(new Move(7, 4, 7, 2));
+                    moves.add(PackedMove.of(60, 58, PackedMove.QUEEN_CASTLE));
                 }
             }
         }
-
-        return moves;
     }
 
     /**
@@ -450,27 +518,67 @@ public class PossibleMoves {
      * The list will at most contain two moves.
      */
     public List<Move> possibleCB(Position position) {
-        // TODO: change the parameter to not take Position object
-        List<Move> moves = new ArrayList<>();
-        long unsafe = unsafeForBlack(position);
+        MoveList moves = new MoveList();
+        possibleCB(position, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Adds all possible castling moves for black to the given list, as packed moves.
+     *
+     * @param position the current position
+     * @param moves    the list to add the moves to
+     */
+    public void possibleCB(Position position, MoveList moves) {
+        possibleCB(position.bk, position.br, position.cbk, position.cbq,
+                unsafeForBlack(position.wp, position.wn, position.wb, position.wr, position.wq, position.wk), moves);
+    }
 
-        if ((unsafe & position.bk) == 0) {
+    /**
+     * Adds all possible castling moves for black to the given list, as packed moves.
+     *
+     * @param bk     black king bitboard
+     * @param br     black rook bitboard
+     * @param cbk    black king side castling right
+     * @param cbq    black queen side castling right
+     * @param unsafe the squares attacked by white, see {@link #unsafeForBlack}
+     * @param moves  the list to add the moves to
+     */
+    public void possibleCB(long bk, long br, boolean cbk, boolean cbq, long unsafe, MoveList moves) {
+        if ((unsafe & bk) == 0) {
             // king-side castle
-            if (position.cbk && (((1L << CASTLE_ROOKS[2]) & position.br) != 0)) {
+            if (cbk && (((1L << CASTLE_ROOKS[2]) & br) != 0)) {
                 if (((occupiedSquares | unsafe) & ((1L << 5) | (1L << 6))) == 0) {
-                    moves.add(new Move(0, 4, 0, 6));
+                    moves.add(PackedMove.of(4, 6, PackedMove.KING_CASTLE));
                 }
             }
 
             // queen-side castle
-            if (position.cbq && (((1L << CASTLE_ROOKS[3]) & position.br) != 0)) {
+            if (cbq && (((1L << CASTLE_ROOKS[3]) & br) != 0)) {
                 if (((occupiedSquares | (unsafe & ~(1L << 1))) & ((1L << 1) | (1L << 2) | (1L << 3))) == 0) {
-                    moves.add(new Move(0, 4, 0, 2));
+                    moves.add(PackedMove.of(4, 2, PackedMove.QUEEN_CASTLE));
                 }
             }
         }
+    }
 
-        return moves;
+    /**
+     * Adds a move from the given square to each destination square in the given bitboard.
+     * Moves to occupied squares are flagged as captures.
+     *
+     * @param from         the square the piece moves from
+     * @param destinations bitboard of the squares the piece can move to
+     * @param moves        the list to add the moves to
+     */
+    private void addMoves(int from, long destinations, MoveList moves) {
+        long j = destinations & -destinations;
+        while (j != 0) {
+            int index = Long.numberOfTrailingZeros(j);
+            int flags = (occupiedSquares & j) != 0 ? PackedMove.CAPTURE : PackedMove.QUIET;
+            moves.add(PackedMove.of(from, index, flags));
+            destinations &= ~j;
+            j = destinations & -destinations;
+        }
     }
 
     /**
@@ -479,15 +587,9 @@ public class PossibleMoves {
      * @param s the square to move from
      * @return bitboard of all possible vertical and horizontal moves from the square,
      * the destination squares are marked with a 1
-     * @credit Jonathan Warkentin
      */
     private long horizontalAndVerticalMoves(int s) {
-        long binaryS = 1L << s;
-        long possibilitiesHorizontal = (occupiedSquares - 2 * binaryS) ^
-                Long.reverse(Long.reverse(occupiedSquares) - 2 * Long.reverse(binaryS));
-        long possibilitiesVertical = ((occupiedSquares & files[s % 8]) - (2 * binaryS)) ^
-                Long.reverse(Long.reverse(occupiedSquares & files[s % 8]) - (2 * Long.reverse(binaryS)));
-        return (possibilitiesHorizontal & ranks[s / 8]) | (possibilitiesVertical & files[s % 8]);
+        return SliderAttacks.rookAttacks(s, occupiedSquares);
     }
 
     /**
@@ -495,162 +597,101 @@ public class PossibleMoves {
      *
      * @param s the square to move from
      * @return bitboard of all possible diagonal moves from the square, the destination squares are marked with a 1
-     * @credit Jonathan Warkentin
      */
     private long diagonalMoves(int s) {
-        long binaryS = 1L << s;
-        long possibilitiesDiagonal = ((occupiedSquares & diagonals[(s / 8) + (s % 8)]) - (2 * binaryS)) ^
-                Long.reverse(Long.reverse(occupiedSquares & diagonals[(s / 8) + (s % 8)]) - (2 * Long.reverse(binaryS)));
-        long possibilitiesAntiDiagonal = ((occupiedSquares & antiDiagonals[(s / 8) + 7 - (s % 8)]) - (2 * binaryS)) ^
-                Long.reverse(Long.reverse(occupiedSquares & antiDiagonals[(s / 8) + 7 - (s % 8)]) - (2 * Long.reverse(binaryS)));
-        return (possibilitiesDiagonal & diagonals[(s / 8) + (s % 8)]) |
-                (possibilitiesAntiDiagonal & antiDiagonals[(s / 8) + 7 - (s % 8)]);
+        return SliderAttacks.bishopAttacks(s, occupiedSquares);
     }
 
     /**
      * Calculates the bitboard of all squares that are unsafe for the white king.
+     * Sliding attacks are blocked by the occupied squares of this object.
      *
-     * @param position the current position
      * @return the bitboard of all squares that are unsafe for the white king.
      * @credit Jonathan Warkentin
      */
-    private long unsafeForWhite(Position position) {
+    public long unsafeForWhite(long bp, long bn, long bb, long br, long bq, long bk) {
         long unsafe;
-        long possibility;
 
         // pawn
-        unsafe = ((position.bp << 7) & ~FILE_H); // pawn capture right
-        unsafe |= ((position.bp << 9) & ~FILE_A); // pawn capture left
+        unsafe = Attacks.blackPawnAttacks(bp);
 
         // knight
-        long bn = position.bn;
         long i = bn & -bn;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            if (index > 18) {
-                possibility = KNIGHT_SPAN << (index - 18);
-            } else {
-                possibility = KNIGHT_SPAN >> (18 - index);
-            }
-            if (index % 8 < 4) {
-                possibility &= ~FILE_GH;
-            } else {
-                possibility &= ~FILE_AB;
-            }
-            unsafe |= possibility;
+            unsafe |= Attacks.KNIGHT[Long.numberOfTrailingZeros(i)];
             bn &= ~i;
             i = bn & -bn;
         }
 
         // bishop and queen diagonal
-        long qb = position.bq | position.bb;
+        long qb = bq | bb;
         i = qb & -qb;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            possibility = diagonalMoves(index);
-            unsafe |= possibility;
+            unsafe |= diagonalMoves(Long.numberOfTrailingZeros(i));
             qb &= ~i;
             i = qb & -qb;
         }
 
         // rook and queen h/v moves
-        long qr = position.bq | position.br;
+        long qr = bq | br;
         i = qr & -qr;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            possibility = horizontalAndVerticalMoves(index);
-            unsafe |= possibility;
+            unsafe |= horizontalAndVerticalMoves(Long.numberOfTrailingZeros(i));
             qr &= ~i;
             i = qr & -qr;
         }
 
         // king
-        int index = Long.numberOfTrailingZeros(position.bk);
-        if (index > 9) {
-            possibility = KING_SPAN << (index - 9);
-        } else {
-            possibility = KING_SPAN >> (9 - index);
+        if (bk != 0) {
+            unsafe |= Attacks.KING[Long.numberOfTrailingZeros(bk)];
         }
-        if (index % 8 < 4) {
-            possibility &= ~FILE_GH;
-        } else {
-            possibility &= ~FILE_AB;
-        }
-        unsafe |= possibility;
 
         return unsafe;
     }
 
     /**
      * Calculates the bitboard of all squares that are unsafe for the black king.
+     * Sliding attacks are blocked by the occupied squares of this object.
      *
-     * @param position the current position
      * @return the bitboard of all squares that are unsafe for the black king.
      * @credit Jonathan Warkentin
      */
-    private long unsafeForBlack(Position position) {
+    public long unsafeForBlack(long wp, long wn, long wb, long wr, long wq, long wk) {
         long unsafe;
-        long possibility;
 
         // pawn
-        unsafe = ((position.wp >>> 7) & ~FILE_A); // pawn capture right
-        unsafe |= ((position.wp >>> 9) & ~FILE_H); // pawn capture left
+        unsafe = Attacks.whitePawnAttacks(wp);
 
         // knight
-        long wn = position.wn;
         long i = wn & -wn;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            if (index > 18) {
-                possibility = KNIGHT_SPAN << (index - 18);
-            } else {
-                possibility = KNIGHT_SPAN >> (18 - index);
-            }
-            if (index % 8 < 4) {
-                possibility &= ~FILE_GH;
-            } else {
-                possibility &= ~FILE_AB;
-            }
-            unsafe |= possibility;
+            unsafe |= Attacks.KNIGHT[Long.numberOfTrailingZeros(i)];
             wn &= ~i;
             i = wn & -wn;
         }
 
         // bishop and queen diagonal
-        long qb = position.wq | position.wb;
+        long qb = wq | wb;
         i = qb & -qb;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            possibility = diagonalMoves(index);
-            unsafe |= possibility;
+            unsafe |= diagonalMoves(Long.numberOfTrailingZeros(i));
             qb &= ~i;
             i = qb & -qb;
         }
 
         // rook and queen h/v moves
-        long qr = position.wq | position.wr;
+        long qr = wq | wr;
         i = qr & -qr;
         while (i != 0) {
-            int index = Long.numberOfTrailingZeros(i);
-            possibility = horizontalAndVerticalMoves(index);
-            unsafe |= possibility;
+            unsafe |= horizontalAndVerticalMoves(Long.numberOfTrailingZeros(i));
             qr &= ~i;
             i = qr & -qr;
         }
 
         // king
-        int index = Long.numberOfTrailingZeros(position.wk);
-        if (index > 9) {
-            possibility = KING_SPAN << (index - 9);
-        } else {
-            possibility = KING_SPAN >> (9 - index);
-        }
-        if (index % 8 < 4) {
-            possibility &= ~FILE_GH;
-        } else {
-            possibility &= ~FILE_AB;
+        if (wk != 0) {
+            unsafe |= Attacks.KING[Long.numberOfTrailingZeros(wk)];
         }
-        unsafe |= possibility;
 
         return unsafe;
     }
@@ -0,0 +1,348 @@
+package chess.moves;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static chess.Constants.*;
+
+/**
+ * Table-driven attacks for the sliding pieces (bishops, rooks, and queens).<p>
+ * For every square, the attacks only depend on the occupied squares of the "relevant mask":
+ * the rays from the square, without the square at the end of each ray.
+ * The attacks for every subset of each mask are computed once, and looked up with one of two backends:
+ * <ul>
+ *     <li>MAGIC - <a href="https://www.chessprogramming.org/Magic_Bitboards#Fancy">fancy magic bitboards</a>:
+ *     (occupied & mask) * magic >>> shift gives the index. This is the default.</li>
+ *     <li>PEXT - the index is Long.compress(occupied, mask), which the JIT turns into the BMI2 PEXT instruction
+ *     on x86 (Java 19+). On older JVMs Long.compress does not exist, so a plain Java version is used,
+ *     which is correct but slower than MAGIC.</li>
+ * </ul>
+ * The backend is chosen at startup with the system property {@value #BACKEND_PROPERTY}
+ * (e.g. -Dhari.sliders=pext).<br>
+ * {@link #selfCheck()} compares both backends with the original ray arithmetic for every occupancy.
+ */
+public final class SliderAttacks {
+
+    public enum Backend {MAGIC, PEXT}
+
+    public static final String BACKEND_PROPERTY = "hari.sliders";
+
+    /**
+     * The backend used by {@link #rookAttacks} and {@link #bishopAttacks}.
+     * Final, so the JIT removes the check between the two.
+     */
+    public static final Backend BACKEND =
+            "pext".equalsIgnoreCase(System.getProperty(BACKEND_PROPERTY)) ? Backend.PEXT : Backend.MAGIC;
+
+    // (rank, file) steps of each ray
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // relevant occupancy masks, indexed by square
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+
+    // magic backend: magic number, shift, and start of the square's entries in the shared table
+    // the magics were found with a random search of sparse numbers (see initSquare for the check they pass)
+    private static final long[] ROOK_MAGICS = {
+            0x0480004000288014L, 0x50C0005000402000L, 0x208010008020000CL, 0x5080100004800800L,
+            0x0200020010082004L, 0x0100040008020100L, 0x8200120001208448L, 0xA080003046800100L,
+            0x0400800020804000L, 0x4106004102008024L, 0x0011002000104102L, 0x2882002008420010L,
+            0x1001801401800800L, 0xA082000402001009L, 0x0221000422004100L, 0x021600008A010044L,
+            0x04A0208000804000L, 0x0920008040008024L, 0x0030008016802000L, 0x8000828048003000L,
+            0x1000808004000800L, 0x2412010100040008L, 0x6400040081025008L, 0x0040020001004894L,
+            0x0240004080102080L, 0x8002008200210041L, 0x4020008180300020L, 0x5210008080080010L,
+            0x1020340280180080L, 0x0002010200100408L, 0x00210204001008B1L, 0x0001802080005100L,
+            0x8001400082800069L, 0x0010884001002100L, 0x0420002080801004L, 0x1802000912002240L,
+            0x0000800800800401L, 0x0404008044800200L, 0x0C00010804001002L, 0x0500348902000044L,
+            0x0040102040808000L, 0x00C4201005454004L, 0x0002008010420020L, 0x0241002010010008L,
+            0x0CC8810040100220L, 0x4400020004008080L, 0x5110080210140051L, 0x1021000080490012L,
+            0x1020410082003200L, 0x8440810040002100L, 0x0020004800100040L, 0x050013C008220200L,
+            0x0004800800040080L, 0x1000020080040080L, 0x0206000108040200L, 0x4019800041000080L,
+            0x0008408004241101L, 0x0108814001031421L, 0x0004090190200041L, 0x0902004008200412L,
+            0x0082000420118802L, 0x0041000400080201L, 0x0C40080081021004L, 0x18000F2401008042L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x0110503480808208L, 0x2120040940410800L, 0x0042040046821000L, 0x0A04404080004018L,
+            0x0202021021000001L, 0x00020A1006000800L, 0x2000A21010040800L, 0x0020120490080880L,
+            0x028020042400C400L, 0xC200210200810308L, 0x4018102400444402L, 0x4000310400860023L,
+            0x000A6202100490C0L, 0x0020021802080000L, 0x0084210108A00428L, 0x1000004424880850L,
+            0x0068003020082080L, 0x0804001050820840L, 0x8422045002941101L, 0xA088200404001001L,
+            0x8006020402110208L, 0xA002000222100204L, 0x00020814A2101211L, 0x8000200101080220L,
+            0x0120040021480200L, 0x24315040A0420208L, 0xC604020010208014L, 0xC808480020820140L,
+            0x88060010A2005000L, 0x0100484102011000L, 0x00488101A2081204L, 0x09004240010D0800L,
+            0x8002202000040880L, 0x0904022001080100L, 0x0032002200042800L, 0x1002004040040100L,
+            0x2004040400001100L, 0x000218004142004CL, 0x04116111020A0800L, 0x8040840100004900L,
+            0x0001108844022000L, 0x0002020221510200L, 0x4009010082004041L, 0x0002202088010510L,
+            0x2240012011000200L, 0x0210600081022020L, 0x0010020800420914L, 0x1910810E00880020L,
+            0x0C42089208C00100L, 0x0102490090100404L, 0x4800008400A20400L, 0x6000000020880204L,
+            0x840E02400501000AL, 0x0002201490022404L, 0x0008880118020024L, 0x4020085101002880L,
+            0x0002008054300403L, 0x2120005A00900804L, 0x1403100104014420L, 0x001080A020208803L,
+            0x0420038088102408L, 0x800000C085040420L, 0x1900042002021201L, 0x3020240888111220L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_MAGIC_TABLE;
+    private static final long[] BISHOP_MAGIC_TABLE;
+
+    // PEXT backend: same offsets as the magic backend, but the entries are in Long.compress order
+    private static final long[] ROOK_PEXT_TABLE;
+    private static final long[] BISHOP_PEXT_TABLE;
+
+    // Long.compress, if this JVM has it
+    private static final MethodHandle COMPRESS = findCompress();
+
+    static {
+        int rookSize = 0;
+        int bishopSize = 0;
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = rookMask(square);
+            BISHOP_MASKS[square] = bishopMask(square);
+            ROOK_OFFSETS[square] = rookSize;
+            BISHOP_OFFSETS[square] = bishopSize;
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            rookSize += 1 << Long.bitCount(ROOK_MASKS[square]);
+            bishopSize += 1 << Long.bitCount(BISHOP_MASKS[square]);
+        }
+        ROOK_MAGIC_TABLE = new long[rookSize];
+        BISHOP_MAGIC_TABLE = new long[bishopSize];
+        ROOK_PEXT_TABLE = new long[rookSize];
+        BISHOP_PEXT_TABLE = new long[bishopSize];
+
+        for (int square = 0; square < 64; square++) {
+            initSquare(square, true, ROOK_MASKS[square], ROOK_MAGICS[square], ROOK_SHIFTS[square],
+                    ROOK_OFFSETS[square], ROOK_MAGIC_TABLE, ROOK_PEXT_TABLE);
+            initSquare(square, false, BISHOP_MASKS[square], BISHOP_MAGICS[square], BISHOP_SHIFTS[square],
+                    BISHOP_OFFSETS[square], BISHOP_MAGIC_TABLE, BISHOP_PEXT_TABLE);
+        }
+    }
+
+    private SliderAttacks() {
+    }
+
+    /**
+     * Returns the squares a rook attacks, including the first blocker in each direction (of either side).
+     *
+     * @param square   the square of the rook
+     * @param occupied the occupied squares
+     * @return bitboard of the attacked squares
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return BACKEND == Backend.MAGIC ? magicRookAttacks(square, occupied) : pextRookAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares a bishop attacks, including the first blocker in each direction (of either side).
+     *
+     * @param square   the square of the bishop
+     * @param occupied the occupied squares
+     * @return bitboard of the attacked squares
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BACKEND == Backend.MAGIC ? magicBishopAttacks(square, occupied) : pextBishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares a queen attacks; the union of rook and bishop attacks
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    static long magicRookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_MAGIC_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    static long magicBishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_MAGIC_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    static long pextRookAttacks(int square, long occupied) {
+        return ROOK_PEXT_TABLE[ROOK_OFFSETS[square] + (int) compress(occupied, ROOK_MASKS[square])];
+    }
+
+    static long pextBishopAttacks(int square, long occupied) {
+        return BISHOP_PEXT_TABLE[BISHOP_OFFSETS[square] + (int) compress(occupied, BISHOP_MASKS[square])];
+    }
+
+    /**
+     * Checks that both backends give the same attacks as {@link #classicRookAttacks} and
+     * {@link #classicBishopAttacks} for every square and every occupancy of the relevant squares,
+     * with the squares outside the mask both empty and full.
+     *
+     * @throws IllegalStateException if any attacks differ
+     */
+    public static void selfCheck() {
+        for (int square = 0; square < 64; square++) {
+            checkSquare(square, true, ROOK_MASKS[square]);
+            checkSquare(square, false, BISHOP_MASKS[square]);
+        }
+    }
+
+    private static void checkSquare(int square, boolean rook, long mask) {
+        long outside = ~mask & ~(1L << square);
+        long subset = 0L;
+        do {
+            for (long occupied : new long[]{subset, subset | outside}) {
+                long expected = rook ? classicRookAttacks(square, occupied) : classicBishopAttacks(square, occupied);
+                long magic = rook ? magicRookAttacks(square, occupied) : magicBishopAttacks(square, occupied);
+                long pext = rook ? pextRookAttacks(square, occupied) : pextBishopAttacks(square, occupied);
+                if (magic != expected || pext != expected) {
+                    throw new IllegalStateException((rook ? "rook" : "bishop") + " attacks differ on square "
+                            + square + " with occupancy " + Long.toHexString(occupied));
+                }
+            }
+            // next subset of the mask (Carry-Rippler)
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+    }
+
+    /**
+     * Calculates the horizontal and vertical moves for a given square with ray arithmetic
+     * (<a href="https://www.chessprogramming.org/Hyperbola_Quintessence">o^(o-2r)</a>).
+     * Used to check the tables.
+     *
+     * @param s        the square to move from
+     * @param occupied the occupied squares
+     * @return bitboard of all possible vertical and horizontal moves from the square,
+     * the destination squares are marked with a 1
+     * @credit Jonathan Warkentin
+     */
+    public static long classicRookAttacks(int s, long occupied) {
+        long binaryS = 1L << s;
+        long possibilitiesHorizontal = (occupied - 2 * binaryS) ^
+                Long.reverse(Long.reverse(occupied) - 2 * Long.reverse(binaryS));
+        long possibilitiesVertical = ((occupied & files[s % 8]) - (2 * binaryS)) ^
+                Long.reverse(Long.reverse(occupied & files[s % 8]) - (2 * Long.reverse(binaryS)));
+        return (possibilitiesHorizontal & ranks[s / 8]) | (possibilitiesVertical & files[s % 8]);
+    }
+
+    /**
+     * Calculates the diagonal moves for a given square with ray arithmetic
+     * (<a href="https://www.chessprogramming.org/Hyperbola_Quintessence">o^(o-2r)</a>).
+     * Used to check the tables.
+     *
+     * @param s        the square to move from
+     * @param occupied the occupied squares
+     * @return bitboard of all possible diagonal moves from the square, the destination squares are marked with a 1
+     * @credit Jonathan Warkentin
+     */
+    public static long classicBishopAttacks(int s, long occupied) {
+        long binaryS = 1L << s;
+        long possibilitiesDiagonal = ((occupied & diagonals[(s / 8) + (s % 8)]) - (2 * binaryS)) ^
+                Long.reverse(Long.reverse(occupied & diagonals[(s / 8) + (s % 8)]) - (2 * Long.reverse(binaryS)));
+        long possibilitiesAntiDiagonal = ((occupied & antiDiagonals[(s / 8) + 7 - (s % 8)]) - (2 * binaryS)) ^
+                Long.reverse(Long.reverse(occupied & antiDiagonals[(s / 8) + 7 - (s % 8)]) - (2 * Long.reverse(binaryS)));
+        return (possibilitiesDiagonal & diagonals[(s / 8) + (s % 8)]) |
+                (possibilitiesAntiDiagonal & antiDiagonals[(s / 8) + 7 - (s % 8)]);
+    }
+
+    /**
+     * Fills the table entries of one square for both backends.
+     * Two occupancies may share a magic index only if they have the same attacks.
+     *
+     * @throws IllegalStateException if the magic maps two occupancies with different attacks to the same index
+     */
+    private static void initSquare(int square, boolean rook, long mask, long magic, int shift, int offset,
+                                   long[] magicTable, long[] pextTable) {
+        int size = 1 << Long.bitCount(mask);
+        boolean[] used = new boolean[size];
+
+        // walk the rays once for every subset of the mask
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            long attacks = slidingAttacks(square, subset, rook);
+            pextTable[offset + (int) compress(subset, mask)] = attacks;
+
+            int index = (int) ((subset * magic) >>> shift);
+            if (used[index] && magicTable[offset + index] != attacks) {
+                throw new IllegalStateException("bad " + (rook ? "rook" : "bishop") + " magic for square " + square);
+            }
+            used[index] = true;
+            magicTable[offset + index] = attacks;
+            subset = (subset - mask) & mask;
+        }
+    }
+
+    /**
+     * Walks the rays from a square one step at a time. Only used to fill the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, boolean rook) {
+        long attacks = 0L;
+        for (int[] direction : rook ? ROOK_DIRECTIONS : BISHOP_DIRECTIONS) {
+            int rank = square / 8 + direction[0];
+            int file = square % 8 + direction[1];
+            while (rank >= 0 && rank < 8 && file >= 0 && file < 8) {
+                long bit = 1L << (rank * 8 + file);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                rank += direction[0];
+                file += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * @return the squares whose occupancy changes the rook attacks from the square
+     */
+    private static long rookMask(int square) {
+        long rank = ranks[square / 8] & ~(FILE_A | FILE_H);
+        long file = files[square % 8] & ~(RANK_1 | RANK_8);
+        return (rank | file) & ~(1L << square);
+    }
+
+    /**
+     * @return the squares whose occupancy changes the bishop attacks from the square
+     */
+    private static long bishopMask(int square) {
+        long edges = FILE_A | FILE_H | RANK_1 | RANK_8;
+        return slidingAttacks(square, 0L, false) & ~edges;
+    }
+
+    /**
+     * Gathers the bits of value selected by mask into the low bits of the result.
+     * Uses Long.compress (PEXT) when the JVM has it.
+     */
+    private static long compress(long value, long mask) {
+        if (COMPRESS != null) {
+            try {
+                return (long) COMPRESS.invokeExact(value, mask);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        long result = 0L;
+        long bit = 1L;
+        while (mask != 0) {
+            long lowest = mask & -mask;
+            if ((value & lowest) != 0) {
+                result |= bit;
+            }
+            bit <<= 1;
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return a handle to Long.compress (Java 19+), or null if this JVM does not have it
+     */
+    private static MethodHandle findCompress() {
+        try {
+            return MethodHandles.lookup().findStatic(Long.class, "compress",
+                    MethodType.methodType(long.class, long.class, long.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.jetbrains.annotations.NotNull;
+
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
+
+/**
+ * <a href="https://www.chessprogramming.org/ABDADA">ABDADA</a> (Alpha-Beta Distribue avec Droit d'Ainesse):
+ * every thread searches the whole tree to the same depth, like LazySMP.java, but the threads mark
+ * the nodes they are searching in the transposition table so that they don't all search the same moves.<p>
+ * At each node the first move (the eldest son) is always searched. A later move whose node is marked as
+ * being searched by another thread is deferred: the thread searches the other moves first, and comes back
+ * to the deferred moves at the end, when the other thread has usually stored their result in the table.
+ * Only nodes with at least DEFER_DEPTH plies left are marked, since marking small subtrees costs more
+ * than searching them twice.<br>
+ * Apart from the deferring, it is a plain alpha-beta search with scores from white's point of view, using the same
+ * transposition table, move picker and move ordering tables as PrincipalVariationSearch.java.
+ * Like it, each thread collects its own principal variation in a PvTable.java, and the best move comes from there:
+ * the root entry of the shared table may have been stored by another thread, at another depth.
+ * Each thread counts its nodes and deferred moves, see SearchStatistics.threadSummary().
+ */
+public class Abdada {
+
+    // nodes with at least this many plies left are marked as busy, and their moves can be deferred
+    public static final int DEFER_DEPTH = 3;
+
+    private Abdada() {
+    }
+
+    /**
+     * Searches with increasing depth within the given limits, on the given number of threads.
+     * Call SearchControl.start() before, on the thread that can stop the search.
+     *
+     * @param position the position to search
+     * @param limits   the depth and time limits, see SearchLimits.java
+     * @param threads  the number of threads to search on, including the calling thread
+     * @return the result of the last iteration completed by the calling thread
+     */
+    public static SearchResult search(Position position, SearchLimits limits, int threads) {
+        return LazySMP.search(position, limits, threads, Abdada::search, false);
+    }
+
+    /**
+     * Searches the position to a fixed depth on the calling thread, as one iteration of IterativeDeepening.java.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move and its score; not valid if the search was stopped
+     */
+    public static SearchResult search(@NotNull Position position, int depth) {
+        Board board = new Board(position);
+        PvTable pv = PvTable.get();
+        int score = search(board, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, MoveBuffers.get(),
+                SearchHistory.get());
+        // this thread's own best move, which goes with its score
+        int[] line = pv.line(0);
+        if (line.length > 0) {
+            return new SearchResult(line[0], score, line);
+        }
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        if (moves.size() == 0) {
+            return new SearchResult(PackedMove.NONE, score);
+        }
+        // stopped before any move was searched: the first move is better than no move
+        return new SearchResult(moves.get(0), position.makeMove(moves.get(0)).getEvaluation());
+    }
+
+    /**
+     * Searches a node with alpha-beta, deferring the moves other threads are searching.
+     * Scores are from white's point of view: white maximizes and black minimizes.
+     *
+     * @param board   the board to search, left unchanged when the method returns
+     * @param depth   the depth remaining to search
+     * @param buffers the move lists of the thread running the search
+     * @param history the killer and history tables of the thread running the search
+     * @return the score of the node
+     */
+    static int search(Board board, int depth, int alpha, int beta, MoveBuffers buffers, SearchHistory history) {
+        int ply = board.getPly();
+        PvTable pv = PvTable.get();
+        pv.clear(ply);
+        SearchStatistics statistics = SearchStatistics.get();
+        if (SearchControl.poll(statistics.node())) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return board.getEvaluation();
+        }
+
+        // use the stored result if it is good enough, otherwise try its best move first;
+        // the root always searches, so that it finds its own best move; its hash move only comes first
+        long entry = transpositionTable.probe(board.getZobristKey());
+        if (ply > 0 && TranspositionTable.isCutoff(entry, ply, depth, alpha, beta)) {
+            return TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        boolean maximizing = board.isWhiteToMove();
+        boolean mayDefer = depth >= DEFER_DEPTH;
+
+        int bestScore = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = PackedMove.NONE;
+        MovePicker picker = new MovePicker(board, buffers.push(), TranspositionTable.move(entry), ply,
+                history);
+        MoveList deferred = buffers.push();
+        int revisited = 0;
+        boolean revisiting = false;
+        int moveCount = 0;
+        history.startNode(ply);
+
+        while (true) {
+            // all moves from the move picker first, then the deferred moves
+            int move;
+            if (!revisiting) {
+                move = picker.next();
+                if (move == PackedMove.NONE) {
+                    revisiting = true;
+                    continue;
+                }
+            } else if (revisited < deferred.size()) {
+                move = deferred.get(revisited++);
+            } else {
+                break;
+            }
+
+            board.make(move);
+            long child = board.getZobristKey();
+            if (mayDefer && !revisiting && moveCount > 0 && transpositionTable.isBusy(child)) {
+                // another thread is searching this move: come back to it later
+                board.unmake();
+                deferred.add(move);
+                statistics.defer();
+                continue;
+            }
+
+            moveCount++;
+            history.searched(ply, move);
+            if (mayDefer) {
+                transpositionTable.markBusy(child);
+            }
+            int score = search(board, depth - 1, alpha, beta, buffers, history);
+            if (mayDefer) {
+                transpositionTable.clearBusy(child);
+            }
+            board.unmake();
+            if (SearchControl.isStopped()) {
+                buffers.pop();
+                buffers.pop();
+                return 0;
+            }
+
+            if (maximizing ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (maximizing ? score > alpha : score < beta) {
+                pv.update(ply, move);
+            }
+            if (maximizing) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (beta <= alpha) {
+                history.cutoff(board, ply, depth, move);
+                // a deferred move has left the move picker, so it can't say where the move came from
+                if (!revisiting) {
+                    statistics.cutoff(picker.source(), moveCount);
+                }
+                break;
+            }
+        }
+        buffers.pop();
+        buffers.pop();
+        if (moveCount == 0) {
+            int score = board.isInCheck() ? Evaluation.mated(ply) : 0;
+            return maximizing ? score : -score;
+        }
+
+        SequentialAlphaBeta.storeResult(board.getZobristKey(), ply, depth, bestScore, alphaOrig, betaOrig,
+                bestMove);
+        return bestScore;
+    }
+
+}
@@ -0,0 +1,133 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.Move;
+import chess.moves.PackedMove;
+
+/**
+ * <a href="https://www.chessprogramming.org/Iterative_Deepening">Iterative deepening</a>:
+ * searches the root position to depth 1, 2, 3, ... until the time or depth runs out.<p>
+ * Each iteration stores its best moves in the transposition table, so the next iteration searches them
+ * first and costs little more than searching the deepest depth straight away.
+ * A search stopped in the middle of an iteration throws that iteration away, so the move returned is
+ * the best move of the last completed depth. The exception is depth 1, which is kept even if a "stop" cuts it
+ * short, so that there is always a move: the best of the root moves it got to search, or the first legal move
+ * if it searched none. The score of a cut-short depth 1 is not a search result (the first move is scored
+ * with the static evaluation of the position after it).
+ * After each iteration an "info" line is printed for the GUI, with the principal variation
+ * if the search collects it (see PrincipalVariationSearch.java) and mate scores as "score mate".<br>
+ * The result also holds the expected reply to the best move, which the GUI sends back with "go ponder":
+ * the second move of the principal variation, or else the best move stored for the position after the best move.
+ */
+public class IterativeDeepening {
+
+    /**
+     * A search of the root position to a fixed depth, e.g. SequentialAlphaBeta::search.
+     */
+    public interface RootSearch {
+        SearchResult search(Position position, int depth);
+    }
+
+    /**
+     * Searches with increasing depth within the given limits.
+     * Call SearchControl.start() before, on the thread that can stop the search.
+     *
+     * @param position the position to search
+     * @param limits   the depth and time limits, see SearchLimits.java
+     * @param search   the search to run at each depth
+     * @return the result of the last completed iteration
+     */
+    public static SearchResult search(Position position, SearchLimits limits, RootSearch search) {
+        prepare();
+        return iterate(position, limits, search);
+    }
+
+    /**
+     * Resets the deadline, the move ordering tables and the counters before a search.
+     * Called before any thread of the search starts.
+     */
+    static void prepare() {
+        SearchControl.clearDeadline();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+    }
+
+    /**
+     * Runs the iterations of a search prepared with prepare(), on the calling thread.
+     *
+     * @return the result of the last completed iteration
+     */
+    static SearchResult iterate(Position position, SearchLimits limits, RootSearch search) {
+        TimeManager time = new TimeManager(limits, position.whiteToMove);
+        SearchResult best = null;
+        for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+            SearchResult result = search.search(position, depth);
+            if (SearchControl.isStopped() && best != null) {
+                break;
+            }
+            printInfo(depth, result, position.whiteToMove, time.elapsed());
+
+            if (best != null) {
+                time.update(result.move != best.move, sideToMoveScore(best, position.whiteToMove),
+                        sideToMoveScore(result, position.whiteToMove));
+            }
+            best = result;
+            if (depth == 1 && time.isTimed()) {
+                // from here on there is a move to play, so the search may be stopped at any time
+                SearchControl.armDeadline(time.getHardLimit() * 1_000_000);
+            }
+            if (result.move == PackedMove.NONE || !time.shouldStartIteration()) {
+                break;
+            }
+        }
+        if (best == null || best.move == PackedMove.NONE || best.ponder != PackedMove.NONE) {
+            return best;
+        }
+        return new SearchResult(best.move, best.score, ponderMove(position, best.move));
+    }
+
+    /**
+     * Searches with increasing depth within the given limits.
+     *
+     * @return the best move of the last completed iteration, or null if there are no legal moves
+     */
+    public static Move find(Position position, SearchLimits limits, RootSearch search) {
+        return search(position, limits, search).toMove();
+    }
+
+    /**
+     * Finds the expected reply to the best move, to ponder on while the opponent thinks:
+     * the best move stored in the transposition table for the position after the best move.
+     *
+     * @return the expected reply, or PackedMove.NONE if it isn't known
+     */
+    static int ponderMove(Position position, int bestMove) {
+        Position next = position.makeMove(bestMove);
+        int reply = TranspositionTable.move(MoveGeneration.transpositionTable.probe(next.zobristKey));
+        return reply != PackedMove.NONE && new Board(next).isLegal(reply) ? reply : PackedMove.NONE;
+    }
+
+    private static int sideToMoveScore(SearchResult result, boolean whiteToMove) {
+        return whiteToMove ? result.score : -result.score;
+    }
+
+    private static void printInfo(int depth, SearchResult result, boolean whiteToMove, long elapsed) {
+        long nodes = SearchStatistics.totalNodes();
+        int score = sideToMoveScore(result, whiteToMove);
+        StringBuilder info = new StringBuilder("info depth ").append(depth)
+                .append(Evaluation.isMate(score) ? " score mate " + Evaluation.mateMoves(score) : " score cp " + score)
+                .append(" nodes ").append(nodes)
+                .append(" time ").append(elapsed)
+                .append(" nps ").append(nodes * 1000 / Math.max(1, elapsed));
+        if (result.pv.length > 0) {
+            info.append(" pv");
+            for (int move : result.pv) {
+                info.append(' ').append(PackedMove.toAlgebraicNotation(move));
+            }
+        }
+        System.out.println(info);
+    }
+
+}
@@ -0,0 +1,85 @@
+package chess.moves.bestmove;
+
+import chess.board.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <a href="https://www.chessprogramming.org/Lazy_SMP">Lazy SMP</a>: a parallel search in which every thread
+ * runs its own iterative deepening alpha-beta search of the whole tree, and the threads share nothing
+ * but the transposition table.<p>
+ * The main thread (the caller) runs IterativeDeepening.java with PrincipalVariationSearch.java,
+ * prints the "info" lines and returns its result. The helper threads search the same position silently;
+ * every other helper starts one ply deeper, and each has its own killer and history tables
+ * (see SearchHistory.java), so the threads soon search the tree in different orders.
+ * What a helper stores in the transposition table gives the main thread cutoffs and better hash moves,
+ * which is where the speedup comes from.<br>
+ * Unlike ThreadedMiniMax.java, no node waits for the results of other threads, so alpha-beta prunes as well
+ * on every thread as in the sequential search.<p>
+ * Abdada.java runs on the same threads, with its own search and without the staggered depths.<br>
+ * The helpers stop as soon as the main thread has its result. They run on the threads of SearchPool.java,
+ * which are kept between searches.
+ */
+public final class LazySMP {
+
+    private LazySMP() {
+    }
+
+    /**
+     * Searches with increasing depth within the given limits, on the given number of threads.
+     * Call SearchControl.start() before, on the thread that can stop the search.
+     *
+     * @param position the position to search
+     * @param limits   the depth and time limits, see SearchLimits.java
+     * @param threads  the number of threads to search on, including the calling thread
+     * @return the result of the last iteration completed by the main thread
+     */
+    public static SearchResult search(Position position, SearchLimits limits, int threads) {
+        return search(position, limits, threads, PrincipalVariationSearch::search, true);
+    }
+
+    /**
+     * Runs a search on the main thread and the same search on the helper threads.
+     *
+     * @param rootSearch    the search every thread runs at each depth
+     * @param staggerDepths whether every other helper starts one ply deeper
+     */
+    static SearchResult search(Position position, SearchLimits limits, int threads,
+                               IterativeDeepening.RootSearch rootSearch, boolean staggerDepths) {
+        IterativeDeepening.prepare();
+        int maxDepth = limits.maxDepth();
+        ForkJoinPool pool = SearchPool.helpers(threads - 1);
+        List<Future<?>> running = new ArrayList<>();
+        // on one thread there is no pool, and the main thread searches alone
+        if (pool != null) {
+            for (int i = 1; i < threads; i++) {
+                int firstDepth = staggerDepths ? 1 + (i & 1) : 1;
+                running.add(pool.submit(() -> help(position, rootSearch, firstDepth, maxDepth)));
+            }
+        }
+
+        try {
+            return IterativeDeepening.iterate(position, limits, rootSearch);
+        } finally {
+            SearchControl.finish();
+            for (Future<?> helper : running) {
+                SearchPool.await(helper);
+            }
+        }
+    }
+
+    /**
+     * Searches the position with increasing depth until the search is stopped. The results aren't used;
+     * they are only stored in the transposition table.
+     */
+    private static void help(Position position, IterativeDeepening.RootSearch rootSearch, int firstDepth,
+                             int maxDepth) {
+        for (int depth = firstDepth; depth <= maxDepth && !SearchControl.isStopped(); depth++) {
+            rootSearch.search(position, depth);
+        }
+    }
+
+}
@@ -8,6 +8,47 @@ import chess.moves.Move;
 
 public class MoveGeneration {
 
+    /**
+     * The parallel search algorithms, selected by the UCI "Search" option.
+     */
+    public enum Algorithm {
+        LAZY_SMP("LazySMP"),
+        YBWC("YBWC"),
+        ABDADA("ABDADA"),
+        ROOT_SPLIT("RootSplit"),
+        THREADED_MINIMAX("ThreadedMiniMax");
+
+        // the name of the algorithm in the UCI option
+        public final String uciName;
+
+        Algorithm(String uciName) {
+            this.uciName = uciName;
+        }
+
+        /**
+         * @return the algorithm with the given UCI name, ignoring case, or null if there is none
+         */
+        public static Algorithm fromUciName(String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.uciName.equalsIgnoreCase(name)) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Transposition table shared by all searches and search threads.
+     * Resized by the UCI "Hash" option.
+     */
+    public static final TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_HASH_SIZE);
+
+    // the number of threads to search on, set by the UCI "Threads" option
+    private static volatile int threads = DEFAULT_THREADS;
+    // the search algorithm, set by the UCI "Search" option
+    private static volatile Algorithm algorithm = Algorithm.LAZY_SMP;
+
     /**
      * Calculates the best move for the current position.
      *
@@ -15,18 +56,82 @@ public class MoveGeneration {
      * @return the best move
      */
     public static Move getBestMove(Position position) {
+        SearchControl.start();
+        return getBestMove(position, SearchLimits.depth(MAX_DEPTH));
+    }
+
+    /**
+     * Calculates the best move for the current position within the limits of a UCI "go" command,
+     * deepening the search one ply at a time until the time or depth runs out.
+     * Call SearchControl.start() before, on the thread that can stop the search.
+     *
+     * @param position the position to calculate the best move for
+     * @param limits   the depth and time limits of the search
+     * @return the best move, or null if there are no legal moves
+     */
+    public static Move getBestMove(Position position, SearchLimits limits) {
+        return search(position, limits).toMove();
+    }
+
+    /**
+     * Searches the current position within the limits of a UCI "go" command, like getBestMove(),
+     * and also returns the score and the expected reply to ponder on.
+     * Call SearchControl.start() before, on the thread that can stop the search.
+     *
+     * @param position the position to search
+     * @param limits   the depth and time limits of the search
+     * @return the result of the search; its move is PackedMove.NONE if there are no legal moves
+     */
+    public static SearchResult search(Position position, SearchLimits limits) {
         /*
-         * Call the find() method from any of the classes in the chess.moves.bestmove package.
-         * The find() method will return the best move for the given position,
-         * using the algorithm implemented in that class.
-         * You can change the algorithm used by changing the class called here.
-         * You can also change the depth of the search by changing the depth parameter here,
-         * or in CONSTANTS.java if you want teh change to be permanent.
+         * By default the search runs as Lazy SMP on the number of threads of the "Threads" option,
+         * see LazySMP.java; with 1 thread it is the sequential principal variation search.
+         * ABDADA and RootSplit use the same threads; YBWC and ThreadedMiniMax split the tree over them.
+         * They are all the threads of SearchPool.java, sized here.
+         * The search() method of the algorithms other than LazySMP and ABDADA searches
+         * the given position to one depth, and IterativeDeepening.java calls it with increasing depths.
+         * The depth of a "go" command without limits is MAX_DEPTH in CONSTANTS.java.
          * Typically, the higher the depth, the longer the search will take.
-         * Do not set the depth to a value too high, as the search will take too long.
          */
-        int depth = MAX_DEPTH;
-        return ThreadedMiniMax.find(position, depth);
+        transpositionTable.newSearch();
+        SearchPool.resize(threads);
+        return switch (algorithm) {
+            case LAZY_SMP -> LazySMP.search(position, limits, threads);
+            case YBWC -> IterativeDeepening.search(position, limits, YoungBrothersWait::search);
+            case ABDADA -> Abdada.search(position, limits, threads);
+            case ROOT_SPLIT -> IterativeDeepening.search(position, limits, RootSplit::search);
+            case THREADED_MINIMAX -> IterativeDeepening.search(position, limits, ThreadedMiniMax::search);
+        };
+    }
+
+    /**
+     * Sets the number of threads to search on, from the next search.
+     *
+     * @param count the number of threads, clamped to 1..MAX_THREADS
+     */
+    public static void setThreads(int count) {
+        threads = Math.max(1, Math.min(MAX_THREADS, count));
+    }
+
+    /**
+     * @return the number of threads to search on
+     */
+    public static int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the search algorithm, from the next search.
+     */
+    public static void setAlgorithm(Algorithm searchAlgorithm) {
+        algorithm = searchAlgorithm;
+    }
+
+    /**
+     * @return the search algorithm
+     */
+    public static Algorithm getAlgorithm() {
+        return algorithm;
     }
 
 }
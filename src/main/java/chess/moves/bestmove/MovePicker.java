@@ -0,0 +1,199 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.moves.MoveList;
+import chess.moves.MoveOrdering;
+import chess.moves.PackedMove;
+
+/**
+ * Hands out the legal moves of a node one at a time, generating them in stages:
+ * <ol>
+ *     <li>the move from the transposition table, without generating anything</li>
+ *     <li>captures and promotions, best first by MVV-LVA</li>
+ *     <li>the killer moves</li>
+ *     <li>the counter move: the quiet move that last refuted the opponent's previous move</li>
+ *     <li>the quiet moves, best history score first, which are only generated if none of the moves
+ *     before caused a cutoff</li>
+ * </ol>
+ * Most cutoffs come from the hash move or a capture, so at those nodes the quiet moves,
+ * usually the bulk of the moves, are never generated.<br>
+ * Within a stage the moves are scored without making them (see MoveOrdering.java) and picked
+ * with one selection sort step at a time, so a cutoff also saves the rest of the sorting.
+ *
+ * @see <a href="https://www.chessprogramming.org/Move_Generation#Staged_Move_Generation">
+ * Staged move generation</a>
+ */
+public class MovePicker {
+
+    // where a move came from, see source()
+    public static final int HASH_MOVE = 0;
+    public static final int NOISY = 1;
+    public static final int KILLER = 2;
+    public static final int COUNTER_MOVE = 3;
+    public static final int QUIET = 4;
+    public static final int SOURCES = 5;
+
+    // stages of next()
+    private static final int PICK_HASH_MOVE = 0;
+    private static final int GENERATE_NOISY = 1;
+    private static final int PICK_NOISY = 2;
+    private static final int PICK_KILLER_1 = 3;
+    private static final int PICK_KILLER_2 = 4;
+    private static final int PICK_COUNTER_MOVE = 5;
+    private static final int GENERATE_QUIET = 6;
+    private static final int PICK_QUIET = 7;
+    private static final int DONE = 8;
+
+    private final Board board;
+    private final MoveList moves;
+    private final int hashMove;
+    private final int killer1;
+    private final int killer2;
+    private final int counterMove;
+    private final SearchHistory history;
+
+    private int stage = PICK_HASH_MOVE;
+    private int source;
+    private int index;
+
+    /**
+     * @param board    the board to pick moves for; must not change between calls to next()
+     * @param moves    an empty list to generate the moves into, e.g. from MoveBuffers
+     * @param hashMove the best move stored in the transposition table, or PackedMove.NONE
+     * @param killer1  a quiet move that caused a cutoff in a sibling node, or PackedMove.NONE
+     * @param killer2  another killer move, or PackedMove.NONE
+     */
+    public MovePicker(Board board, MoveList moves, int hashMove, int killer1, int killer2) {
+        this.board = board;
+        this.moves = moves;
+        this.hashMove = hashMove;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.counterMove = PackedMove.NONE;
+        this.history = null;
+    }
+
+    /**
+     * Creates a picker that takes the killer moves of the node's ply and the counter move to the
+     * last move from the given tables, and orders the quiet moves by their history scores.
+     *
+     * @param board    the board to pick moves for; must not change between calls to next()
+     * @param moves    an empty list to generate the moves into, e.g. from MoveBuffers
+     * @param hashMove the best move stored in the transposition table, or PackedMove.NONE
+     * @param ply      the number of plies from the root of the search to the node; not board.getPly()
+     *                 when the board was created for a node below the root
+     * @param history  the killer and history tables of the thread running the search
+     */
+    public MovePicker(Board board, MoveList moves, int hashMove, int ply, SearchHistory history) {
+        this.board = board;
+        this.moves = moves;
+        this.hashMove = hashMove;
+        this.killer1 = history.killer1(ply);
+        this.killer2 = history.killer2(ply);
+        this.counterMove = history.counterMove(board);
+        this.history = history;
+    }
+
+    /**
+     * @return the next legal move, or PackedMove.NONE when there are no moves left
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case PICK_HASH_MOVE -> {
+                    stage = GENERATE_NOISY;
+                    if (board.isLegal(hashMove)) {
+                        source = HASH_MOVE;
+                        return hashMove;
+                    }
+                }
+                case GENERATE_NOISY -> {
+                    board.generateLegalMoves(moves, Board.NOISY_MOVES);
+                    MoveOrdering.scoreMoves(board, moves, 0);
+                    index = 0;
+                    stage = PICK_NOISY;
+                }
+                case PICK_NOISY -> {
+                    if (index < moves.size()) {
+                        int move = moves.pickBest(index++);
+                        if (move != hashMove) {
+                            source = NOISY;
+                            return move;
+                        }
+                    } else {
+                        stage = PICK_KILLER_1;
+                    }
+                }
+                case PICK_KILLER_1 -> {
+                    stage = PICK_KILLER_2;
+                    if (isNewQuietMove(killer1)) {
+                        source = KILLER;
+                        return killer1;
+                    }
+                }
+                case PICK_KILLER_2 -> {
+                    stage = PICK_COUNTER_MOVE;
+                    if (killer2 != killer1 && isNewQuietMove(killer2)) {
+                        source = KILLER;
+                        return killer2;
+                    }
+                }
+                case PICK_COUNTER_MOVE -> {
+                    stage = GENERATE_QUIET;
+                    if (counterMove != killer1 && counterMove != killer2 && isNewQuietMove(counterMove)) {
+                        source = COUNTER_MOVE;
+                        return counterMove;
+                    }
+                }
+                case GENERATE_QUIET -> {
+                    index = moves.size();
+                    board.generateLegalMoves(moves, Board.QUIET_MOVES);
+                    scoreQuiets();
+                    stage = PICK_QUIET;
+                }
+                case PICK_QUIET -> {
+                    if (index < moves.size()) {
+                        int move = moves.pickBest(index++);
+                        if (move != hashMove && move != killer1 && move != killer2 && move != counterMove) {
+                            source = QUIET;
+                            return move;
+                        }
+                    } else {
+                        stage = DONE;
+                    }
+                }
+                default -> {
+                    return PackedMove.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the stage the last move from next() came from: HASH_MOVE, NOISY, KILLER, COUNTER_MOVE, or QUIET
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Scores the quiet moves by their history, if there are history tables.
+     */
+    private void scoreQuiets() {
+        for (int i = index; i < moves.size(); i++) {
+            moves.setScore(i, history == null ? MoveOrdering.QUIET_SCORE : history.score(board, moves.get(i)));
+        }
+    }
+
+    /**
+     * Killers and counter moves are only tried in their own stage if they are legal quiet moves
+     * that haven't been tried already; they come from other positions, so they may be neither.
+     */
+    private boolean isNewQuietMove(int move) {
+        if (move == PackedMove.NONE || move == hashMove) {
+            return false;
+        }
+        return !PackedMove.isCapture(move) && !PackedMove.isPromotion(move) && board.isLegal(move);
+    }
+
+}
@@ -0,0 +1,241 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.Move;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.jetbrains.annotations.NotNull;
+
+import static chess.Constants.*;
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
+
+/**
+ * <a href="https://www.chessprogramming.org/Principal_Variation_Search">Principal variation search</a>
+ * in <a href="https://www.chessprogramming.org/Negamax">negamax</a> form: the core of the sequential search.<p>
+ * Scores are from the point of view of the side to move, so one method searches the nodes of both sides.
+ * At each node the first move, which with good move ordering is usually the best, is searched with the full
+ * window. Every later move only has to be proven worse than it, which a zero window (alpha, alpha + 1) does
+ * with far fewer nodes. A move that fails high is better after all, and is searched again with the full window
+ * for its exact score; that only happens at PV nodes, since the window of every other node is already zero.
+ * PV nodes don't take cutoffs from the transposition table, so that their line is always complete.<p>
+ * Mate scores count the plies from the root (see Evaluation.mated()), so a quicker mate scores higher.
+ * The transposition table keeps scores from white's point of view like the other searches,
+ * and mate scores counted from the node, so that a mate found at one ply is still right at another.<br>
+ * The principal variation is collected in a PvTable.java and returned with the result;
+ * its second move is the move to ponder on.<p>
+ * SequentialAlphaBeta.java runs this search, and the parallel searches use it below their split nodes,
+ * see {@link #search(Board, int, int, int, int, MoveBuffers, SearchHistory)}.
+ */
+public class PrincipalVariationSearch {
+
+    // beyond any score, unlike Integer.MIN_VALUE it can be negated
+    public static final int INFINITY = 2 * MATE_VALUE;
+
+    private PrincipalVariationSearch() {
+    }
+
+    /**
+     * Calculates the best move for given position.
+     *
+     * @param position the position to calculate the best move for
+     * @param depth    the depth to search to
+     * @return the best move, or null if there are no legal moves
+     */
+    public static Move find(@NotNull Position position, int depth) {
+        SearchControl.start();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+        return search(position, depth).toMove();
+    }
+
+    /**
+     * Searches the position to a fixed depth, as one iteration of IterativeDeepening.java.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move, its score from white's point of view, and the principal variation;
+     * not valid if the search was stopped
+     */
+    public static SearchResult search(@NotNull Position position, int depth) {
+        Board board = new Board(position);
+        PvTable pv = PvTable.get();
+        int score = search(board, 0, depth, -INFINITY, INFINITY, MoveBuffers.get(), SearchHistory.get(), pv);
+        int[] line = pv.line(0);
+        if (line.length > 0) {
+            return new SearchResult(line[0], whiteScore(board, score), line);
+        }
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        if (moves.size() == 0) {
+            return new SearchResult(PackedMove.NONE, whiteScore(board, score));
+        }
+        // stopped before any move was searched: the first move is better than no move
+        return new SearchResult(moves.get(0), position.makeMove(moves.get(0)).getEvaluation());
+    }
+
+    /**
+     * Searches a node with a window and a score from white's point of view, for the searches that keep
+     * scores from white's point of view, like the split nodes of the parallel searches.
+     *
+     * @param board   the board to search, left unchanged when the method returns
+     * @param ply     the number of plies from the root of the search to the board, which mate scores count;
+     *                not board.getPly() when the board was created for a node below the root
+     * @param depth   the depth remaining to search
+     * @param alpha   the alpha value, from white's point of view; Integer.MIN_VALUE for none
+     * @param beta    the beta value, from white's point of view; Integer.MAX_VALUE for none
+     * @param buffers the move lists of the thread running the search
+     * @param history the killer and history tables of the thread running the search
+     * @return the score of the node, from white's point of view
+     */
+    static int search(Board board, int ply, int depth, int alpha, int beta, MoveBuffers buffers,
+                      SearchHistory history) {
+        alpha = Math.max(alpha, -INFINITY);
+        beta = Math.min(beta, INFINITY);
+        PvTable pv = PvTable.get();
+        return board.isWhiteToMove() ? search(board, ply, depth, alpha, beta, buffers, history, pv) :
+                -search(board, ply, depth, -beta, -alpha, buffers, history, pv);
+    }
+
+    /**
+     * Searches a node with principal variation search.
+     *
+     * @param board   the board to search, left unchanged when the method returns
+     * @param ply     the number of plies from the root to the board
+     * @param depth   the depth remaining to search
+     * @param alpha   the alpha value, from the side to move's point of view
+     * @param beta    the beta value, from the side to move's point of view
+     * @param buffers the move lists of the thread running the search
+     * @param history the killer and history tables of the thread running the search
+     * @param pv      the PV table of the thread running the search
+     * @return the score of the node, from the side to move's point of view
+     */
+    private static int search(Board board, int ply, int depth, int alpha, int beta, MoveBuffers buffers,
+                              SearchHistory history, PvTable pv) {
+        pv.clear(ply);
+        SearchStatistics statistics = SearchStatistics.get();
+        if (SearchControl.poll(statistics.node())) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return board.isWhiteToMove() ? board.getEvaluation() : -board.getEvaluation();
+        }
+
+        // use the stored result if it is good enough, otherwise try its best move first
+        boolean pvNode = beta - alpha > 1;
+        long entry = transpositionTable.probe(board.getZobristKey());
+        if (!pvNode && isCutoff(board, ply, entry, depth, alpha, beta)) {
+            return tableScore(board, ply, entry);
+        }
+        int alphaOrig = alpha;
+
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        // pick the moves one at a time, generating them only when needed
+        MovePicker picker = new MovePicker(board, buffers.push(), TranspositionTable.move(entry), ply, history);
+        int moveCount = 0;
+        history.startNode(ply);
+
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            moveCount++;
+            history.searched(ply, move);
+            board.make(move);
+            int score;
+            if (moveCount == 1) {
+                score = -search(board, ply + 1, depth - 1, -beta, -alpha, buffers, history, pv);
+            } else {
+                // a zero window proves cheaply that the move is no better than the best so far
+                score = -search(board, ply + 1, depth - 1, -alpha - 1, -alpha, buffers, history, pv);
+                if (score > alpha && score < beta) {
+                    // it is better: search it again for its exact score
+                    score = -search(board, ply + 1, depth - 1, -beta, -alpha, buffers, history, pv);
+                }
+            }
+            board.unmake();
+            if (SearchControl.isStopped()) {
+                buffers.pop();
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    pv.update(ply, move);
+                }
+            }
+            if (alpha >= beta) {
+                history.cutoff(board, ply, depth, move);
+                statistics.cutoff(picker.source(), moveCount);
+                break;
+            }
+        }
+        buffers.pop();
+        if (moveCount == 0) {
+            return board.isInCheck() ? Evaluation.mated(ply) : 0;
+        }
+
+        store(board, ply, depth, bestScore, alphaOrig, beta, bestMove);
+        return bestScore;
+    }
+
+    /**
+     * @return the score from white's point of view, given the score from the side to move's point of view
+     */
+    private static int whiteScore(Board board, int score) {
+        return board.isWhiteToMove() ? score : -score;
+    }
+
+    /**
+     * @return whether the table entry decides the node for the window, from the side to move's point of view
+     */
+    private static boolean isCutoff(Board board, int ply, long entry, int depth, int alpha, int beta) {
+        if (entry == TranspositionTable.NO_ENTRY || TranspositionTable.depth(entry) < depth) {
+            return false;
+        }
+        int score = tableScore(board, ply, entry);
+        return switch (bound(board, TranspositionTable.bound(entry))) {
+            case TranspositionTable.EXACT -> true;
+            case TranspositionTable.LOWER_BOUND -> score >= beta;
+            case TranspositionTable.UPPER_BOUND -> score <= alpha;
+            default -> false;
+        };
+    }
+
+    /**
+     * @return the score of a table entry, from the side to move's point of view and with mates counted from the root
+     */
+    private static int tableScore(Board board, int ply, long entry) {
+        return TranspositionTable.fromTable(whiteScore(board, TranspositionTable.score(entry)), ply);
+    }
+
+    /**
+     * Stores the result of a node, from white's point of view and with mates counted from the node.
+     *
+     * @param score     the score of the node, from the side to move's point of view
+     * @param alphaOrig the alpha value the node started with
+     * @param beta      the beta value of the node
+     */
+    private static void store(Board board, int ply, int depth, int score, int alphaOrig, int beta, int bestMove) {
+        int bound = bound(board, TranspositionTable.boundOf(score, alphaOrig, beta));
+        transpositionTable.store(board.getZobristKey(), depth, bound,
+                whiteScore(board, TranspositionTable.toTable(score, ply)), bestMove);
+    }
+
+    /**
+     * Converts a bound type between white's and the side to move's point of view (the conversion is its own
+     * inverse): a lower bound for black is an upper bound for white.
+     */
+    private static int bound(Board board, int bound) {
+        if (board.isWhiteToMove() || bound == TranspositionTable.EXACT) {
+            return bound;
+        }
+        return bound == TranspositionTable.LOWER_BOUND ? TranspositionTable.UPPER_BOUND :
+                TranspositionTable.LOWER_BOUND;
+    }
+
+}
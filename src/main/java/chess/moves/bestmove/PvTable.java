@@ -0,0 +1,64 @@
+package chess.moves.bestmove;
+
+import chess.moves.MoveBuffers;
+
+import java.util.Arrays;
+
+/**
+ * A <a href="https://www.chessprogramming.org/Triangular_PV-Table">triangular PV table</a>: collects the
+ * principal variation (the line of best moves the search expects) while searching.<p>
+ * Each ply has its own row, holding the best line found so far from a node at that ply. A node clears its row
+ * when it starts; when a move raises alpha, the row becomes that move followed by the row of the child,
+ * so at the end of the search the row of the root holds the whole variation. Row n only uses the entries
+ * from n on, hence the triangle.<br>
+ * Like SearchHistory.java, each thread has its own table; use {@link #get()}.
+ */
+final class PvTable {
+
+    private static final ThreadLocal<PvTable> TABLES = ThreadLocal.withInitial(PvTable::new);
+
+    // one more row than plies, for the children of the deepest nodes
+    private final int[][] moves = new int[MoveBuffers.MAX_PLY + 1][MoveBuffers.MAX_PLY + 1];
+    // the end of the line of each row, exclusive: the row of ply n holds moves[n][n .. end[n] - 1]
+    private final int[] end = new int[MoveBuffers.MAX_PLY + 1];
+
+    private PvTable() {
+    }
+
+    /**
+     * @return the table of the current thread
+     */
+    static PvTable get() {
+        return TABLES.get();
+    }
+
+    /**
+     * Empties the line of a ply, when a node at that ply starts.
+     */
+    void clear(int ply) {
+        end[ply] = ply;
+    }
+
+    /**
+     * Sets the line of a ply to the move followed by the line of the next ply.
+     *
+     * @param ply  the ply of the node
+     * @param move the move that raised alpha
+     */
+    void update(int ply, int move) {
+        int[] row = moves[ply];
+        row[ply] = move;
+        // the child cleared its line when it started, so its line is the one below this move
+        int childEnd = Math.max(end[ply + 1], ply + 1);
+        System.arraycopy(moves[ply + 1], ply + 1, row, ply + 1, childEnd - ply - 1);
+        end[ply] = childEnd;
+    }
+
+    /**
+     * @return the line of the given ply, the best move at that ply first
+     */
+    int[] line(int ply) {
+        return Arrays.copyOfRange(moves[ply], ply, end[ply]);
+    }
+
+}
@@ -0,0 +1,171 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.Move;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
+
+/**
+ * A parallel search that only splits the root: the root moves are handed out to the threads one at a time,
+ * and each thread searches its moves with PrincipalVariationSearch.java.<p>
+ * The first move (the hash move of the last iteration, usually the best) is searched alone with a full window,
+ * to get a score to beat. The threads then share the best score so far through an atomic, and test each move
+ * with a zero window around it: most moves fail low, which a zero-window search proves with far fewer nodes.
+ * A move that fails high beats the best score, and is searched again with a window above the best score,
+ * to get its exact score.<br>
+ * The number of threads is the UCI "Threads" option; the calling thread is one of them.
+ */
+public class RootSplit {
+
+    private RootSplit() {
+    }
+
+    /**
+     * Calculates the best move for given position.
+     *
+     * @param position the position to calculate the best move for
+     * @param depth    the depth to search to
+     * @return the best move, or null if there are no legal moves
+     */
+    public static Move find(@NotNull Position position, int depth) {
+        SearchControl.start();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+        return search(position, depth).toMove();
+    }
+
+    /**
+     * Searches the position to a fixed depth, as one iteration of IterativeDeepening.java.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move and its score; not valid if the search was stopped
+     */
+    public static SearchResult search(@NotNull Position position, int depth) {
+        MoveList moves = new MoveList();
+        position.generateMoves(moves);
+        if (moves.size() == 0) {
+            int score = position.isInCheck() ? Evaluation.mated(0) : 0;
+            return new SearchResult(PackedMove.NONE, position.whiteToMove ? score : -score);
+        }
+        SequentialAlphaBeta.orderHashMove(moves, transpositionTable.probe(position.zobristKey));
+
+        // the eldest move sets the score to beat
+        int first = moves.get(0);
+        int firstScore = searchMove(position, first, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (SearchControl.isStopped()) {
+            return new SearchResult(first, position.makeMove(first).getEvaluation());
+        }
+        AtomicLong best = new AtomicLong(pack(firstScore, first));
+
+        // the other moves go to whichever thread is free next
+        AtomicInteger next = new AtomicInteger(1);
+        int threads = Math.min(MoveGeneration.getThreads(), moves.size() - 1);
+        ForkJoinPool pool = SearchPool.helpers(MoveGeneration.getThreads() - 1);
+        List<Future<?>> running = new ArrayList<>();
+        // on one thread there is no pool, and the calling thread searches every move
+        if (pool != null) {
+            for (int i = 1; i < threads; i++) {
+                running.add(pool.submit(() -> searchMoves(position, moves, depth, next, best)));
+            }
+        }
+        searchMoves(position, moves, depth, next, best);
+        for (Future<?> helper : running) {
+            SearchPool.await(helper);
+        }
+
+        long result = best.get();
+        if (!SearchControl.isStopped()) {
+            transpositionTable.store(position.zobristKey, depth, TranspositionTable.EXACT, score(result),
+                    move(result));
+        }
+        return new SearchResult(move(result), score(result));
+    }
+
+    /**
+     * Takes root moves from the queue and searches them until there are none left.
+     *
+     * @param next the index of the next move to search
+     * @param best the best score and move so far, see pack()
+     */
+    private static void searchMoves(Position position, MoveList moves, int depth, AtomicInteger next,
+                                    AtomicLong best) {
+        boolean white = position.whiteToMove;
+        for (int i = next.getAndIncrement(); i < moves.size(); i = next.getAndIncrement()) {
+            int move = moves.get(i);
+            int bestScore = score(best.get());
+            // can the move beat the best score? most moves can't, and a zero window proves it cheaply
+            int score = white ? searchMove(position, move, depth, bestScore, bestScore + 1) :
+                    searchMove(position, move, depth, bestScore - 1, bestScore);
+            if (SearchControl.isStopped()) {
+                return;
+            }
+            if (white ? score <= bestScore : score >= bestScore) {
+                continue;
+            }
+
+            // it can: search it again for its exact score, above the best score at the time
+            bestScore = score(best.get());
+            score = white ? searchMove(position, move, depth, bestScore, Integer.MAX_VALUE) :
+                    searchMove(position, move, depth, Integer.MIN_VALUE, bestScore);
+            if (SearchControl.isStopped()) {
+                return;
+            }
+            update(best, score, move, white);
+        }
+    }
+
+    /**
+     * Searches a root move on the calling thread with the given window.
+     *
+     * @return the score of the position after the move
+     */
+    private static int searchMove(Position position, int move, int depth, int alpha, int beta) {
+        Board board = new Board(position);
+        board.make(move);
+        return PrincipalVariationSearch.search(board, board.getPly(), depth - 1, alpha, beta, MoveBuffers.get(),
+                SearchHistory.get());
+    }
+
+    /**
+     * Replaces the best score and move if the score is better, atomically.
+     */
+    private static void update(AtomicLong best, int score, int move, boolean white) {
+        long current = best.get();
+        while (white ? score > score(current) : score < score(current)) {
+            if (best.compareAndSet(current, pack(score, move))) {
+                return;
+            }
+            current = best.get();
+        }
+    }
+
+    /**
+     * @return the score in the upper 32 bits and the packed move in the lower 32 bits
+     */
+    private static long pack(int score, int move) {
+        return ((long) score << 32) | (move & 0xFFFFFFFFL);
+    }
+
+    private static int score(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int move(long packed) {
+        return (int) packed;
+    }
+
+}
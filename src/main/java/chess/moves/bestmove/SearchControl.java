@@ -0,0 +1,196 @@
+package chess.moves.bestmove;
+
+/**
+ * Tells the running search when to stop: when the hard time limit has passed, or when it is stopped
+ * from outside.<p>
+ * The search calls {@link #poll(long)} at every node; the clock is only read every
+ * {@link #CHECK_INTERVAL} nodes, since reading it is much slower than searching a node.
+ * Once stopped, every node returns straight away and the result of the unfinished iteration is thrown away.<br>
+ * The flag itself is checked at every node, so a "stop" from the GUI ends the search within a few milliseconds.<p>
+ * While pondering ("go ponder") the clock doesn't run: the search goes on until "ponderhit" starts the clock,
+ * which arms the hard limit the search has already asked for, or until "stop".
+ */
+public final class SearchControl {
+
+    // nodes between reads of the clock, a power of 2
+    public static final int CHECK_INTERVAL = 1024;
+
+    private static final Object STOP_LOCK = new Object();
+    private static volatile boolean stopped;
+    // set by stop(), i.e. by the GUI; unlike stopped it isn't set when the search ends by itself
+    private static volatile boolean stopRequested;
+    private static volatile boolean timed;
+    private static volatile long deadline;
+    private static volatile boolean pondering;
+    // when the clock started, as a System.nanoTime() value: at "go", or at "ponderhit" when pondering
+    private static volatile long clockStart = System.nanoTime();
+    // the hard limit asked for by armDeadline(), in nanoseconds after clockStart; -1 if none
+    private static long hardLimit = -1;
+
+    private SearchControl() {
+    }
+
+    /**
+     * Clears the stop flag and the deadline before a new search.
+     * Called by the thread that starts the search, before it starts, so that a "stop" that comes
+     * straight after "go" isn't lost.
+     */
+    public static void start() {
+        start(false);
+    }
+
+    /**
+     * Clears the stop flag and the deadline before a new search, and starts the clock unless pondering.
+     *
+     * @param ponder whether the search is a "go ponder" search, whose clock starts at ponderhit()
+     */
+    public static void start(boolean ponder) {
+        synchronized (STOP_LOCK) {
+            timed = false;
+            hardLimit = -1;
+            pondering = ponder;
+            clockStart = System.nanoTime();
+            stopRequested = false;
+            stopped = false;
+        }
+    }
+
+    /**
+     * Removes the deadline, leaving the stop flag as it is.
+     */
+    public static void clearDeadline() {
+        timed = false;
+    }
+
+    /**
+     * Sets the time at which the search stops by itself.
+     *
+     * @param nanoTime the deadline, as a System.nanoTime() value
+     */
+    public static void setDeadline(long nanoTime) {
+        deadline = nanoTime;
+        timed = true;
+    }
+
+    /**
+     * Sets the hard limit of the search, counted from the start of the clock.
+     * While pondering the clock hasn't started yet, so the deadline is only set at ponderhit().
+     *
+     * @param nanos the hard limit in nanoseconds
+     */
+    public static void armDeadline(long nanos) {
+        synchronized (STOP_LOCK) {
+            hardLimit = nanos;
+            if (!pondering) {
+                setDeadline(clockStart + nanos);
+            }
+        }
+    }
+
+    /**
+     * The opponent played the expected move: the pondering search becomes a normal timed search.
+     * The clock starts now, and the search carries on from where it is.
+     * Ignored when not pondering.
+     */
+    public static void ponderhit() {
+        synchronized (STOP_LOCK) {
+            if (!pondering) {
+                return;
+            }
+            clockStart = System.nanoTime();
+            pondering = false;
+            if (hardLimit >= 0) {
+                setDeadline(clockStart + hardLimit);
+            }
+            STOP_LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * @return whether the search is pondering, i.e. neither "ponderhit" nor "stop" has come yet
+     */
+    public static boolean isPondering() {
+        return pondering && !stopRequested;
+    }
+
+    /**
+     * @return when the clock of the search started, as a System.nanoTime() value
+     */
+    public static long clockStart() {
+        return clockStart;
+    }
+
+    /**
+     * Stops the running search.
+     */
+    public static void stop() {
+        synchronized (STOP_LOCK) {
+            stopRequested = true;
+            stopped = true;
+            STOP_LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the threads still searching once the main search has its result, e.g. the helper threads of LazySMP.java.
+     * Unlike stop(), this doesn't end the wait of awaitStop() or awaitPonderhit(), since the GUI hasn't sent "stop".
+     */
+    public static void finish() {
+        stopped = true;
+    }
+
+    /**
+     * Waits until the search is stopped from outside, e.g. after an infinite search has reached its
+     * deepest iteration: the GUI expects no "bestmove" before it sends "stop".
+     */
+    public static void awaitStop() {
+        synchronized (STOP_LOCK) {
+            while (!stopRequested) {
+                try {
+                    STOP_LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits while the search is pondering: the GUI expects no "bestmove" before "ponderhit" or "stop",
+     * even if the search has already reached its deepest iteration.
+     */
+    public static void awaitPonderhit() {
+        synchronized (STOP_LOCK) {
+            while (pondering && !stopRequested) {
+                try {
+                    STOP_LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the search has been stopped
+     */
+    public static boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Checks whether the search should stop, reading the clock every CHECK_INTERVAL nodes.
+     *
+     * @param nodes the number of nodes searched so far by the calling thread
+     * @return whether the search has been stopped
+     */
+    public static boolean poll(long nodes) {
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && timed && System.nanoTime() - deadline >= 0) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+}
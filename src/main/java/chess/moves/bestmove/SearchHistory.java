@@ -0,0 +1,227 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Move ordering tables for quiet moves, learnt from the beta cutoffs of the search:
+ * <ul>
+ *     <li><a href="https://www.chessprogramming.org/Killer_Heuristic">killer moves</a>:
+ *     the last two quiet moves that caused a cutoff at each ply, which often refute the sibling nodes too</li>
+ *     <li>the <a href="https://www.chessprogramming.org/History_Heuristic">history heuristic</a>:
+ *     a butterfly table (side, from, to) raised for the quiet move that caused a cutoff
+ *     and lowered for the quiet moves tried before it</li>
+ *     <li><a href="https://www.chessprogramming.org/Countermove_Heuristic">counter moves</a>:
+ *     the quiet move that last refuted each previous move, indexed by the piece that moved and its square</li>
+ *     <li>continuation history: like the butterfly table, but indexed by the previous move (piece, to square)
+ *     and the current move (piece, to square), so it learns which replies work against which moves</li>
+ * </ul>
+ * History scores use "gravity": every update also pulls the score towards 0 in proportion to how large
+ * it already is, so scores stay within +-MAX_HISTORY and recent results count more than old ones.<br>
+ * Like MoveBuffers.java, each thread has its own tables so that threads don't contend on them;
+ * use {@link #get()}. Call {@link #newSearch()} before each search to age the tables of every thread.
+ */
+public final class SearchHistory {
+
+    public static final int MAX_HISTORY = 16384;
+
+    private static final ThreadLocal<SearchHistory> HISTORY = ThreadLocal.withInitial(SearchHistory::new);
+    private static volatile int generation;
+
+    // two killer slots per ply, the most recent first
+    private final int[][] killers = new int[MoveBuffers.MAX_PLY][2];
+    // indexed by [0 for white, 1 for black][from][to]
+    private final int[][][] history = new int[2][64][64];
+    // indexed by the piece and to square of the previous move, as piece * 64 + to
+    private final int[] counterMoves = new int[12 * 64];
+    // indexed by [previous piece * 64 + to][piece * 64 + to]
+    private final int[][] continuation = new int[12 * 64][12 * 64];
+    // quiet moves searched at each ply of the current path, to lower their history on a cutoff
+    private final int[][] quiets = new int[MoveBuffers.MAX_PLY][MoveList.MAX_MOVES];
+    private final int[] quietCount = new int[MoveBuffers.MAX_PLY];
+    private int seenGeneration = generation;
+
+    private SearchHistory() {
+    }
+
+    /**
+     * @return the tables of the current thread, aged if a new search has started since they were last used
+     */
+    public static SearchHistory get() {
+        SearchHistory tables = HISTORY.get();
+        if (tables.seenGeneration != generation) {
+            tables.seenGeneration = generation;
+            tables.age();
+        }
+        return tables;
+    }
+
+    /**
+     * Marks the start of a new search. Each thread ages its tables the next time it gets them.
+     */
+    public static void newSearch() {
+        generation++;
+    }
+
+    /**
+     * @return the most recent killer move at the ply, or PackedMove.NONE
+     */
+    public int killer1(int ply) {
+        return killers[ply][0];
+    }
+
+    /**
+     * @return the second killer move at the ply, or PackedMove.NONE
+     */
+    public int killer2(int ply) {
+        return killers[ply][1];
+    }
+
+    /**
+     * @param white true if the move is a white move
+     * @param move  the packed move
+     * @return the history score of the move, between -MAX_HISTORY and MAX_HISTORY
+     */
+    public int score(boolean white, int move) {
+        return history[white ? 0 : 1][PackedMove.from(move)][PackedMove.to(move)];
+    }
+
+    /**
+     * Scores a quiet move for move ordering: its butterfly history plus its continuation history
+     * after the last move made on the board.
+     *
+     * @param board the board the move is for, before the move is made
+     * @param move  the packed move
+     * @return the history score of the move, between -2 * MAX_HISTORY and 2 * MAX_HISTORY
+     */
+    public int score(Board board, int move) {
+        int score = score(board.isWhiteToMove(), move);
+        int previous = previousIndex(board);
+        if (previous >= 0) {
+            score += continuation[previous][pieceIndex(board, move)];
+        }
+        return score;
+    }
+
+    /**
+     * @return the quiet move that last refuted the last move made on the board, or PackedMove.NONE
+     */
+    public int counterMove(Board board) {
+        int previous = previousIndex(board);
+        return previous < 0 ? PackedMove.NONE : counterMoves[previous];
+    }
+
+    /**
+     * Starts a node at the given ply; forgets the quiet moves of the last node at that ply.
+     */
+    public void startNode(int ply) {
+        quietCount[ply] = 0;
+    }
+
+    /**
+     * Records that a move is about to be searched at the ply. Only quiet moves are kept.
+     */
+    public void searched(int ply, int move) {
+        if (isQuiet(move)) {
+            quiets[ply][quietCount[ply]++] = move;
+        }
+    }
+
+    /**
+     * Updates the tables after a move caused a beta cutoff. Captures and promotions are ordered
+     * by MVV-LVA already, so only quiet moves are learnt from.
+     *
+     * @param board the board of the node, with the move taken back
+     * @param ply   the number of plies from the root of the search to the node, as given to startNode()
+     * @param depth the depth remaining at the node; deeper cutoffs count more
+     * @param move  the move that caused the cutoff
+     */
+    public void cutoff(Board board, int ply, int depth, int move) {
+        if (!isQuiet(move)) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int previous = previousIndex(board);
+        if (previous >= 0) {
+            counterMoves[previous] = move;
+        }
+
+        int bonus = Math.min(depth * depth, MAX_HISTORY);
+        int[][] table = history[board.isWhiteToMove() ? 0 : 1];
+        for (int i = 0; i < quietCount[ply]; i++) {
+            int quiet = quiets[ply][i];
+            int quietBonus = quiet == move ? bonus : -bonus;
+            update(table, quiet, quietBonus);
+            if (previous >= 0) {
+                int[] row = continuation[previous];
+                int current = pieceIndex(board, quiet);
+                row[current] += quietBonus - row[current] * Math.abs(quietBonus) / MAX_HISTORY;
+            }
+        }
+    }
+
+    /**
+     * Adds a bonus (or penalty) to the history score of a move, with gravity.
+     */
+    private static void update(int[][] table, int move, int bonus) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        table[from][to] += bonus - table[from][to] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    /**
+     * @return the index of the piece that made the last move and its to square, or -1 if there is no last move
+     */
+    private static int previousIndex(Board board) {
+        int last = board.getLastMove();
+        if (last == PackedMove.NONE) {
+            return -1;
+        }
+        // the piece is on the to square now (the promoted piece after a promotion)
+        return board.pieceAt(PackedMove.to(last)) * 64 + PackedMove.to(last);
+    }
+
+    /**
+     * @return the index of the piece that makes the move and its to square, for a move not made yet
+     */
+    private static int pieceIndex(Board board, int move) {
+        return board.pieceAt(PackedMove.from(move)) * 64 + PackedMove.to(move);
+    }
+
+    /**
+     * Halves the history scores and clears the killer and counter moves,
+     * which belong to the positions of the old search.
+     */
+    private void age() {
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                for (int to = 0; to < 64; to++) {
+                    from[to] /= 2;
+                }
+            }
+        }
+        for (int[] row : continuation) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] /= 2;
+            }
+        }
+        Arrays.fill(counterMoves, PackedMove.NONE);
+        for (int[] slots : killers) {
+            slots[0] = PackedMove.NONE;
+            slots[1] = PackedMove.NONE;
+        }
+    }
+
+    private static boolean isQuiet(int move) {
+        return !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+    }
+
+}
@@ -0,0 +1,97 @@
+package chess.moves.bestmove;
+
+import static chess.Constants.*;
+
+/**
+ * The limits of a search, as given by the UCI "go" command:
+ * the clocks and increments of both sides, the moves to the next time control,
+ * a fixed time per move, a maximum depth, and whether to search until "stop" or ponder.<br>
+ * Times are in milliseconds; -1 means not given.
+ */
+public final class SearchLimits {
+
+    public long whiteTime = -1;
+    public long blackTime = -1;
+    public long whiteIncrement;
+    public long blackIncrement;
+    public int movesToGo;
+    public long moveTime = -1;
+    public int depth = -1;
+    public boolean infinite;
+    // "go ponder": the clock only starts at "ponderhit", see SearchControl.java
+    public boolean ponder;
+
+    /**
+     * Parses the parameters of a "go" command, e.g. "go wtime 60000 btime 60000 winc 1000 binc 1000".
+     * Unknown parameters and invalid values are ignored.
+     *
+     * @param command the go command from the GUI
+     * @return the limits of the command
+     */
+    public static SearchLimits parse(String command) {
+        SearchLimits limits = new SearchLimits();
+        String[] tokens = command.trim().split("\\s+");
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            if ("infinite".equals(token)) {
+                limits.infinite = true;
+                continue;
+            }
+            if ("ponder".equals(token)) {
+                limits.ponder = true;
+                continue;
+            }
+            if (i + 1 >= tokens.length) {
+                break;
+            }
+            try {
+                long value = Long.parseLong(tokens[i + 1]);
+                switch (token) {
+                    case "wtime" -> limits.whiteTime = value;
+                    case "btime" -> limits.blackTime = value;
+                    case "winc" -> limits.whiteIncrement = value;
+                    case "binc" -> limits.blackIncrement = value;
+                    case "movestogo" -> limits.movesToGo = (int) value;
+                    case "movetime" -> limits.moveTime = value;
+                    case "depth" -> limits.depth = (int) value;
+                    default -> {
+                        continue;
+                    }
+                }
+                i++;
+            } catch (NumberFormatException e) {
+                // ignore invalid values, as the GUI expects no response
+            }
+        }
+        return limits;
+    }
+
+    /**
+     * @param depth the depth to search to
+     * @return limits for a search to a fixed depth, without a clock
+     */
+    public static SearchLimits depth(int depth) {
+        SearchLimits limits = new SearchLimits();
+        limits.depth = depth;
+        return limits;
+    }
+
+    /**
+     * @return whether the search has a time limit
+     */
+    public boolean isTimed() {
+        return !infinite && (moveTime >= 0 || whiteTime >= 0 || blackTime >= 0);
+    }
+
+    /**
+     * @return the deepest iteration to search: the given depth, MAX_SEARCH_DEPTH for a timed or infinite
+     * search, or MAX_DEPTH when there are no limits at all
+     */
+    public int maxDepth() {
+        if (depth > 0) {
+            return Math.min(depth, MAX_SEARCH_DEPTH);
+        }
+        return isTimed() || infinite ? MAX_SEARCH_DEPTH : MAX_DEPTH;
+    }
+
+}
@@ -0,0 +1,104 @@
+package chess.moves.bestmove;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+import static chess.Constants.DEFAULT_THREADS;
+
+/**
+ * The ForkJoin pool of the engine: the one set of search threads, used by the searches that split the tree
+ * into tasks (YoungBrothersWait.java and ThreadedMiniMax.java), by the helpers of the searches that give each
+ * thread a search of its own (LazySMP.java, Abdada.java and RootSplit.java, see {@link #helpers(int)}),
+ * and by the parallel Perft.java.<p>
+ * The engine doesn't use ForkJoinPool.commonPool(), which is shared with everything else in the JVM
+ * (parallel streams, CompletableFuture) and can only be sized by system properties: work from outside
+ * the engine would take CPU from the search, and the search from it.
+ * The pool is sized by the UCI "Threads" option, and replaced by a pool of the new size at the start of
+ * the next search, see MoveGeneration.search(). Its threads are named "search-N", and a thread that dies
+ * of an uncaught exception is reported to the GUI. The pool starts its threads when it is given work,
+ * so a thread the search doesn't need is never started, and the threads are kept between searches,
+ * so that their move lists and history tables are only allocated once.
+ */
+public final class SearchPool {
+
+    private static volatile ForkJoinPool pool = create(DEFAULT_THREADS);
+
+    private SearchPool() {
+    }
+
+    /**
+     * @return the pool, of the size given by the last resize
+     */
+    public static ForkJoinPool get() {
+        return pool;
+    }
+
+    /**
+     * Replaces the pool by a pool with the given number of threads, if its size is different.
+     * Call between searches: the old pool finishes the tasks it has, but takes no new ones.
+     *
+     * @param threads the number of threads of the pool
+     */
+    public static synchronized void resize(int threads) {
+        if (pool.getParallelism() != threads) {
+            ForkJoinPool old = pool;
+            pool = create(threads);
+            old.shutdown();
+        }
+    }
+
+    /**
+     * Gets the pool for the helper threads of a search, which run on its workers; the calling thread,
+     * outside the pool, is the other search thread. Resizes the pool if it has fewer threads than the search,
+     * so call at the start of a search.
+     *
+     * @param count the number of helper threads needed
+     * @return the pool; null if no helpers are needed (one search thread)
+     */
+    static ForkJoinPool helpers(int count) {
+        if (count <= 0) {
+            return null;
+        }
+        if (pool.getParallelism() < count + 1) {
+            resize(count + 1);
+        }
+        return pool;
+    }
+
+    /**
+     * Waits for a helper to finish.
+     * A failed helper is reported to the GUI; it only costs speed,
+     * since the result of the calling thread is still good.
+     */
+    static void await(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("info string helper failed: " + e.getCause());
+        }
+    }
+
+    private static ForkJoinPool create(int threads) {
+        return new ForkJoinPool(Math.max(1, threads), SearchPool::newThread, SearchPool::uncaughtException, false);
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("search-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Reports a worker thread that died; the pool replaces it.
+     * Exceptions thrown by the tasks themselves are rethrown to the thread that joins them.
+     */
+    private static void uncaughtException(Thread thread, Throwable e) {
+        System.out.println("info string " + thread.getName() + " failed: " + e);
+    }
+
+}
@@ -0,0 +1,61 @@
+package chess.moves.bestmove;
+
+import chess.moves.Move;
+import chess.moves.PackedMove;
+
+/**
+ * The result of a search of the root position to a fixed depth.
+ */
+public final class SearchResult {
+
+    /**
+     * The best move, as a packed move; PackedMove.NONE if there are no legal moves
+     */
+    public final int move;
+
+    /**
+     * The score of the best move. Positive values are good for white, negative values are good for black.
+     */
+    public final int score;
+
+    /**
+     * The expected reply to the best move, to ponder on; PackedMove.NONE if it isn't known
+     */
+    public final int ponder;
+
+    /**
+     * The principal variation: the best move and the moves the search expects to follow it.
+     * Only the best move if the search doesn't collect the variation. Not to be modified.
+     */
+    public final int[] pv;
+
+    public SearchResult(int move, int score) {
+        this(move, score, PackedMove.NONE);
+    }
+
+    public SearchResult(int move, int score, int ponder) {
+        this(move, score, ponder, move == PackedMove.NONE ? new int[0] : new int[]{move});
+    }
+
+    /**
+     * @param pv the principal variation, starting with the best move; its second move is the move to ponder on
+     */
+    public SearchResult(int move, int score, int[] pv) {
+        this(move, score, pv.length > 1 ? pv[1] : PackedMove.NONE, pv);
+    }
+
+    private SearchResult(int move, int score, int ponder, int[] pv) {
+        this.move = move;
+        this.score = score;
+        this.ponder = ponder;
+        this.pv = pv;
+    }
+
+    /**
+     * @return the best move, or null if there are no legal moves
+     */
+    public Move toMove() {
+        return move == PackedMove.NONE ? null : PackedMove.toMove(move);
+    }
+
+}
@@ -0,0 +1,224 @@
+package chess.moves.bestmove;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counters of the search, to see how well the moves are ordered:
+ * the nodes searched, the beta cutoffs, how many of them came from the first move searched,
+ * and which stage of the move picker (hash move, captures, killers, counter move, quiet moves)
+ * each cutoff move came from.<p>
+ * Each thread counts into its own counters (use {@link #get()}); {@link #summary()} adds them up,
+ * and {@link #threadSummary()} shows the nodes and the moves deferred by Abdada.java of each thread.<br>
+ * {@link #forkSummary()} shows how ThreadedMiniMax.java used the ForkJoin pool: the tasks it forked,
+ * the nodes it searched on one thread instead of splitting them, and the tasks stolen by other workers.
+ * The counters are plain fields, so totals read while a search is running are only approximate.<br>
+ * The counters of a thread that has ended (a worker of a pool replaced by SearchPool.resize(), or one the pool
+ * let go when idle) are dropped at the next reset, so that they don't pile up over a long game.
+ */
+public final class SearchStatistics {
+
+    private static final List<SearchStatistics> ALL = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<SearchStatistics> STATISTICS = ThreadLocal.withInitial(() -> {
+        SearchStatistics statistics = new SearchStatistics(Thread.currentThread());
+        ALL.add(statistics);
+        return statistics;
+    });
+
+    private static final String[] SOURCE_NAMES = {"hash", "captures", "killers", "counter", "quiets"};
+
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long deferred;
+    private long forks;
+    private long inlined;
+    // the ForkJoin pool and its steal count at the last reset
+    private static volatile ForkJoinPool stealPool;
+    private static volatile long stealBaseline;
+    private final long[] sourceCutoffs = new long[MovePicker.SOURCES];
+    // the thread counting into these counters
+    private final Thread owner;
+
+    private SearchStatistics(Thread owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return the counters of the current thread
+     */
+    public static SearchStatistics get() {
+        return STATISTICS.get();
+    }
+
+    /**
+     * Sets the counters of every thread back to 0, and forgets the threads that have ended.
+     * Call before a search, while no thread is searching.
+     */
+    public static void reset() {
+        ALL.removeIf(statistics -> !statistics.owner.isAlive());
+        for (SearchStatistics statistics : ALL) {
+            statistics.nodes = 0;
+            statistics.cutoffs = 0;
+            statistics.firstMoveCutoffs = 0;
+            statistics.deferred = 0;
+            statistics.forks = 0;
+            statistics.inlined = 0;
+            Arrays.fill(statistics.sourceCutoffs, 0);
+        }
+        stealPool = SearchPool.get();
+        stealBaseline = stealPool.getStealCount();
+    }
+
+    /**
+     * Counts a node.
+     *
+     * @return the nodes counted by this thread since the last reset, including this one
+     */
+    public long node() {
+        return ++nodes;
+    }
+
+    /**
+     * Counts a beta cutoff.
+     *
+     * @param source    the move picker stage the cutoff move came from, see MovePicker.source()
+     * @param moveCount the number of moves searched at the node, including the cutoff move
+     */
+    public void cutoff(int source, int moveCount) {
+        cutoffs++;
+        sourceCutoffs[source]++;
+        if (moveCount == 1) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Counts a move that was put off because another thread was searching it.
+     */
+    public void defer() {
+        deferred++;
+    }
+
+    /**
+     * Counts the tasks forked by a node that was split between threads.
+     */
+    public void fork(int tasks) {
+        forks += tasks;
+    }
+
+    /**
+     * Counts a node that could have been split between threads but was searched on one thread.
+     */
+    public void inline() {
+        inlined++;
+    }
+
+    /**
+     * @return the nodes searched by all threads since the last reset
+     */
+    public static long totalNodes() {
+        long total = 0;
+        for (SearchStatistics statistics : ALL) {
+            total += statistics.nodes;
+        }
+        return total;
+    }
+
+    /**
+     * @return the counters of all threads added up, e.g.
+     * "nodes 52310 cutoffs 8120 first 91.3% hash 30.2% captures 41.0% killers 12.5% counter 3.1% quiets 13.2%"
+     */
+    public static String summary() {
+        long cutoffs = 0;
+        long firstMoveCutoffs = 0;
+        long[] sourceCutoffs = new long[MovePicker.SOURCES];
+        for (SearchStatistics statistics : ALL) {
+            cutoffs += statistics.cutoffs;
+            firstMoveCutoffs += statistics.firstMoveCutoffs;
+            for (int i = 0; i < sourceCutoffs.length; i++) {
+                sourceCutoffs[i] += statistics.sourceCutoffs[i];
+            }
+        }
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("nodes ").append(totalNodes()).append(" cutoffs ").append(cutoffs);
+        summary.append(" first ").append(percent(firstMoveCutoffs, cutoffs));
+        for (int i = 0; i < sourceCutoffs.length; i++) {
+            summary.append(' ').append(SOURCE_NAMES[i]).append(' ').append(percent(sourceCutoffs[i], cutoffs));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return the number of threads that have searched a node since the last reset
+     */
+    public static int activeThreads() {
+        int count = 0;
+        for (SearchStatistics statistics : ALL) {
+            if (statistics.nodes > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the nodes and deferred moves of each thread that has searched since the last reset, e.g.
+     * "threads 2 nodes 52310 48122 deferred 0 153"
+     */
+    public static String threadSummary() {
+        StringBuilder nodes = new StringBuilder();
+        StringBuilder deferred = new StringBuilder();
+        for (SearchStatistics statistics : ALL) {
+            if (statistics.nodes > 0) {
+                nodes.append(' ').append(statistics.nodes);
+                deferred.append(' ').append(statistics.deferred);
+            }
+        }
+        return "threads " + activeThreads() + " nodes" + nodes + " deferred" + deferred;
+    }
+
+    /**
+     * @return the tasks forked by all threads since the last reset
+     */
+    public static long totalForks() {
+        long total = 0;
+        for (SearchStatistics statistics : ALL) {
+            total += statistics.forks;
+        }
+        return total;
+    }
+
+    /**
+     * @return the split policy of ThreadedMiniMax.java and its use of the ForkJoin pool since the last reset,
+     * e.g. "split adaptive forks 1520 inlined 310 steals 402"
+     */
+    public static String forkSummary() {
+        long inlined = 0;
+        for (SearchStatistics statistics : ALL) {
+            inlined += statistics.inlined;
+        }
+        // a pool resized since the reset has only stolen tasks since
+        ForkJoinPool pool = SearchPool.get();
+        long steals = pool == stealPool ? pool.getStealCount() - stealBaseline : pool.getStealCount();
+        return "split " + ThreadedMiniMax.getSplitPolicy().name().toLowerCase(Locale.ROOT)
+                + " forks " + totalForks() + " inlined " + inlined
+                + " steals " + steals;
+    }
+
+    /**
+     * @return the number of threads whose counters are kept
+     */
+    static int registeredThreads() {
+        return ALL.size();
+    }
+
+    private static String percent(long part, long total) {
+        return String.format(Locale.ROOT, "%.1f%%", total == 0 ? 0.0 : 100.0 * part / total);
+    }
+
+}
@@ -2,124 +2,65 @@ package chess.moves.bestmove;
 
 import chess.board.Position;
 import chess.moves.Move;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
 
 public class SequentialAlphaBeta {
 
     /**
      * Calculates the best move for given position.
-     * Uses a basic <a href="https://www.chessprogramming.org/Alpha-Beta">alpha-beta algorithm</a>
+     * Uses a basic <a href="https://www.chessprogramming.org/Alpha-Beta">alpha-beta algorithm</a>,
+     * in its principal variation search form, see PrincipalVariationSearch.java.
      *
      * @param position the position to calculate the best move for.
      * @return the best move found with basic mini-max search with alpha-beta pruning
      * @author Divy Patel
      */
     public static Move find(@NotNull Position position, int depth) {
-        int highestVal = Integer.MIN_VALUE;
-        int lowestVal = Integer.MAX_VALUE;
-        int score;
-
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
-
-        Move bestMove = null;
-
-        // get all possible next moves
-        List<Move> possible = position.getLegalMoves();
-
-        // go through all possible moves
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
-
-            // if white minimize, if black maximize
-            score = position.whiteToMove ? min(newPosition, depth - 1, alpha, beta) :
-                    max(newPosition, depth - 1, alpha, beta);
-
-            System.out.println("  " + move + " = " + score);
-
-            // update highest/lowest and alpha/beta values
-            if (position.whiteToMove) {
-                if (score > highestVal) {
-                    highestVal = score;
-                    bestMove = move;
-                }
-                alpha = Math.max(alpha, score);
-            } else {
-                if (score < lowestVal) {
-                    lowestVal = score;
-                    bestMove = move;
-                }
-                beta = Math.min(beta, score);
-            }
-        }
-        return bestMove;
+        return PrincipalVariationSearch.find(position, depth);
     }
 
     /**
-     * Minimizer for the mini-max search algorithm.
+     * Searches the position to a fixed depth, as one iteration of IterativeDeepening.java.
      *
-     * @param position the position to minimize the score for.
-     * @param depth    the depth remaining to search
-     * @return the minimized value of the position
-     * @author Divy Patel
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move, its score, and the principal variation; not valid if the search was stopped
      */
-    protected static int min(Position position, int depth, int alpha, int beta) {
-        if (depth <= 0) {
-            return position.getEvaluation();
-        }
-
-        int lowestScore = Integer.MAX_VALUE;
-        // generate all possible moves
-        List<Move> possible = position.getLegalBlackMoves();
-
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
-            // score the new position
-            int score = max(newPosition, depth - 1, alpha, beta);
-            lowestScore = Math.min(lowestScore, score);
-            // update beta
-            beta = Math.min(beta, score);
-            if (beta <= alpha) {
-                break;
-            }
-        }
-        return lowestScore;
+    public static SearchResult search(@NotNull Position position, int depth) {
+        return PrincipalVariationSearch.search(position, depth);
     }
 
     /**
-     * Maximizer for the mini-max search algorithm.
+     * Moves the best move of a transposition table entry to the front of the list, if it is in the list.
      *
-     * @param position the position to maximize the score for.
-     * @param depth    the depth remaining to search
-     * @return the maximized value of the position
-     * @author Divy Patel
+     * @param moves the moves to order
+     * @param entry the transposition table entry of the position, or NO_ENTRY
      */
-    protected static int max(Position position, int depth, int alpha, int beta) {
-        if (depth <= 0) {
-            return position.getEvaluation();
+    static void orderHashMove(MoveList moves, long entry) {
+        int hashMove = TranspositionTable.move(entry);
+        if (hashMove != PackedMove.NONE) {
+            moves.moveToFront(hashMove);
         }
+    }
 
-        int highestScore = Integer.MIN_VALUE;
-        // generate all possible moves
-        List<Move> possible = position.getLegalWhiteMoves();
-
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
-            // score the new position
-            int score = min(newPosition, depth - 1, alpha, beta);
-            highestScore = Math.max(highestScore, score);
-            // update alpha
-            alpha = Math.max(alpha, score);
-            if (beta <= alpha) {
-                break;
-            }
-        }
-        return highestScore;
+    /**
+     * Stores the result of a search in the transposition table, with a mate score counted from the position.
+     *
+     * @param key       the Zobrist key of the position that was searched
+     * @param ply       the number of plies from the root to the position
+     * @param depth     the depth that was searched
+     * @param score     the score found
+     * @param alphaOrig the alpha value the search started with
+     * @param betaOrig  the beta value the search started with
+     * @param bestMove  the best move found, or PackedMove.NONE if there were no moves
+     */
+    static void storeResult(long key, int ply, int depth, int score, int alphaOrig, int betaOrig, int bestMove) {
+        transpositionTable.store(key, depth, TranspositionTable.boundOf(score, alphaOrig, betaOrig),
+                TranspositionTable.toTable(score, ply), bestMove);
     }
 
 }
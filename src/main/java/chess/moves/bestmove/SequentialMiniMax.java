@@ -1,11 +1,14 @@
 package chess.moves.bestmove;
 
+import chess.board.Board;
+import chess.board.Evaluation;
 import chess.board.Position;
 import chess.moves.Move;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class SequentialMiniMax {
 
     /**
@@ -21,18 +24,24 @@ public class SequentialMiniMax {
         int lowestVal = Integer.MAX_VALUE;
         int score;
 
-        Move bestMove = null;
+        int bestMove = PackedMove.NONE;
 
         // get all possible next moves
-        List<Move> possible = position.getLegalMoves();
+        Board board = new Board(position);
+        MoveBuffers buffers = MoveBuffers.get();
+        MoveList possible = buffers.push();
+        board.generateMoves(possible);
 
         // go through all possible moves
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
+            // update board
+            board.make(move);
 
             // if white minimize, if black maximize
-            score = position.whiteToMove ? min(newPosition, depth - 1) : max(newPosition, depth - 1);
+            score = position.whiteToMove ? min(board, depth - 1, buffers) :
+                    max(board, depth - 1, buffers);
+            board.unmake();
 
             // update highest/lowest value
             if (position.whiteToMove) {
@@ -47,60 +56,80 @@ public class SequentialMiniMax {
                 }
             }
         }
-        return bestMove;
+        buffers.pop();
+        return bestMove == PackedMove.NONE ? null : PackedMove.toMove(bestMove);
     }
 
     /**
      * Minimizer for the mini-max search algorithm.
      *
-     * @param position the position to minimize the score for.
+     * @param board    the board to minimize the score for, left unchanged when the method returns
      * @param depth    the depth remaining to search
+     * @param buffers  the move lists of the thread running the search
      * @return the minimized value of the position
      * @author Divy Patel
      */
-    protected static int min(Position position, int depth) {
+    protected static int min(Board board, int depth, MoveBuffers buffers) {
         if (depth <= 0) {
-            return position.getEvaluation();
+            return board.getEvaluation();
         }
 
         int lowestScore = Integer.MAX_VALUE;
         // generate all possible moves
-        List<Move> possible = position.getLegalBlackMoves();
+        MoveList possible = buffers.push();
+        board.generateMoves(possible);
+        if (possible.size() == 0) {
+            buffers.pop();
+            // black is mated: a win for white
+            return board.isInCheck() ? -Evaluation.mated(board.getPly()) : 0;
+        }
 
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
-            // score the new position
-            int score = max(newPosition, depth - 1);
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
+            // update board
+            board.make(move);
+            // score the new board
+            int score = max(board, depth - 1, buffers);
+            board.unmake();
             lowestScore = Math.min(lowestScore, score);
         }
+        buffers.pop();
         return lowestScore;
     }
 
     /**
      * Maximizer for the mini-max search algorithm.
      *
-     * @param position the position to maximize the score for.
+     * @param board    the board to maximize the score for, left unchanged when the method returns
      * @param depth    the depth remaining to search
+     * @param buffers  the move lists of the thread running the search
      * @return the maximized value of the position
      * @author Divy Patel
      */
-    protected static int max(Position position, int depth) {
+    protected static int max(Board board, int depth, MoveBuffers buffers) {
         if (depth <= 0) {
-            return position.getEvaluation();
+            return board.getEvaluation();
         }
 
         int highestScore = Integer.MIN_VALUE;
         // generate all possible moves
-        List<Move> possible = position.getLegalWhiteMoves();
+        MoveList possible = buffers.push();
+        board.generateMoves(possible);
+        if (possible.size() == 0) {
+            buffers.pop();
+            return board.isInCheck() ? Evaluation.mated(board.getPly()) : 0;
+        }
 
-        for (Move move : possible) {
-            // update position
-            Position newPosition = position.makeMove(move);
-            // score the new position
-            int score = min(newPosition, depth - 1);
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
+            // update board
+            board.make(move);
+            // score the new board
+            int score = min(board, depth - 1, buffers);
+            board.unmake();
             highestScore = Math.max(highestScore, score);
         }
+        buffers.pop();
         return highestScore;
     }
 
@@ -1,18 +1,104 @@
 package chess.moves.bestmove;
 
+import chess.board.Board;
+import chess.board.Evaluation;
 import chess.board.Position;
 import chess.moves.Move;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
 
-import static chess.Constants.*;
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
 
 public class ThreadedMiniMax extends RecursiveTask<Integer> {
 
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * How a node decides whether to fork a task for each of its moves or to search them all on its own thread.
+     */
+    public enum SplitPolicy {
+        /**
+         * Fork at every node with more than SEQUENTIAL_CUTOFF plies left.
+         */
+        FIXED,
+        /**
+         * Fork only when it pays: when the subtree is big enough for the task overhead not to matter
+         * (estimated from the depth and the number of moves, see estimatedNodes()), and when the workers
+         * don't already have more queued tasks than they can take (ForkJoinTask.getSurplusQueuedTaskCount() and
+         * ForkJoinPool.getQueuedTaskCount()).
+         * Narrow positions are split deeper, wide ones nearer the root, and a busy pool stops splitting.
+         */
+        ADAPTIVE
+    }
+
     public static final int SEQUENTIAL_CUTOFF = 3;
+    // the adaptive policy never splits nodes with this many plies left or fewer
+    public static final int MIN_SPLIT_DEPTH = 2;
+    // the adaptive policy splits a node only if its subtree is estimated to have at least this many nodes
+    public static final long MIN_SPLIT_NODES = 1024;
+    // the adaptive policy doesn't split while more tasks than this are queued per worker
+    public static final int MAX_SURPLUS_TASKS = 3;
+
+    private static volatile SplitPolicy splitPolicy = SplitPolicy.ADAPTIVE;
+
+    /**
+     * Sets how nodes decide whether to split, from the next node searched.
+     */
+    public static void setSplitPolicy(SplitPolicy policy) {
+        splitPolicy = policy;
+    }
+
+    /**
+     * @return how nodes decide whether to split
+     */
+    public static SplitPolicy getSplitPolicy() {
+        return splitPolicy;
+    }
+
+    /**
+     * Estimates the size of a subtree for the adaptive split policy. With good move ordering, alpha-beta searches
+     * about moves^ceil(depth / 2) nodes (see <a href="https://www.chessprogramming.org/Minimal_Tree">minimal tree</a>).
+     *
+     * @param moves the number of moves at the node
+     * @param depth the depth remaining at the node
+     * @return the estimated number of nodes, at most MIN_SPLIT_NODES
+     */
+    static long estimatedNodes(int moves, int depth) {
+        long nodes = 1;
+        for (int i = 0; i < (depth + 1) / 2 && nodes < MIN_SPLIT_NODES; i++) {
+            nodes *= Math.max(1, moves);
+        }
+        return Math.min(nodes, MIN_SPLIT_NODES);
+    }
+
+    /**
+     * @return whether a node with the given depth and number of moves should be split by the adaptive policy
+     */
+    private static boolean shouldSplit(int moves, int depth) {
+        return estimatedNodes(moves, depth) >= MIN_SPLIT_NODES && workersNeedTasks();
+    }
+
+    /**
+     * @return whether the workers are short of tasks: neither this worker's queue nor the queues of the pool
+     * hold more than MAX_SURPLUS_TASKS per worker
+     */
+    private static boolean workersNeedTasks() {
+        if (inForkJoinPool() && getSurplusQueuedTaskCount() > MAX_SURPLUS_TASKS) {
+            return false;
+        }
+        // tasks forked by a thread outside the pool (the root, which the calling thread may run itself)
+        // go to the shared queues of the pool, which the surplus of this worker doesn't count
+        ForkJoinPool pool = SearchPool.get();
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount()
+                <= (long) MAX_SURPLUS_TASKS * pool.getParallelism();
+    }
 
     /**
      * Calculates the best move for given position.
@@ -24,6 +110,20 @@ public class ThreadedMiniMax extends RecursiveTask<Integer> {
      * @author Divy Patel
      */
     public static Move find(@NotNull Position position, int depth) {
+        SearchControl.start();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+        return search(position, depth).toMove();
+    }
+
+    /**
+     * Searches the position to a fixed depth, as one iteration of IterativeDeepening.java.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move and its score; not valid if the search was stopped
+     */
+    public static SearchResult search(@NotNull Position position, int depth) {
         // get all legal moves the root position and makes thread for each one
         // this method is called first
         int highestVal = Integer.MIN_VALUE;
@@ -33,18 +133,30 @@ public class ThreadedMiniMax extends RecursiveTask<Integer> {
         int alpha = Integer.MIN_VALUE;
         int beta = Integer.MAX_VALUE;
 
-        Move bestMove = null;
+        int bestMove = PackedMove.NONE;
 
-        // get all possible next moves
-        List<Move> possible = position.getLegalMoves();
+        // get all possible next moves, trying the move from the transposition table first
+        MoveBuffers buffers = MoveBuffers.get();
+        MoveList possible = buffers.push();
+        position.generateMoves(possible);
+        SequentialAlphaBeta.orderHashMove(possible, transpositionTable.probe(position.zobristKey));
 
         // go through all possible moves and score them
-        for (Move move : possible) {
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
             // update position
             Position newPosition = position.makeMove(move);
 
             // find score for each move
-            score = commonPool.invoke(new ThreadedMiniMax(newPosition, depth - 1, alpha, beta));
+            score = SearchPool.get().invoke(new ThreadedMiniMax(newPosition, 1, depth - 1, alpha, beta));
+            if (SearchControl.isStopped()) {
+                if (bestMove == PackedMove.NONE) {
+                    // stopped before any move was searched: the first move is better than no move
+                    bestMove = move;
+                    highestVal = lowestVal = newPosition.getEvaluation();
+                }
+                break;
+            }
 
             // update highest/lowest and alpha/beta values
             if (position.whiteToMove) {
@@ -66,11 +178,22 @@ public class ThreadedMiniMax extends RecursiveTask<Integer> {
                 break;
             }
         }
+        buffers.pop();
 
-        return bestMove;
+        if (bestMove == PackedMove.NONE) {
+            // checkmate or stalemate at the root
+            score = position.isInCheck() ? Evaluation.mated(0) : 0;
+            return new SearchResult(PackedMove.NONE, position.whiteToMove ? score : -score);
+        }
+        int bestScore = position.whiteToMove ? highestVal : lowestVal;
+        if (!SearchControl.isStopped()) {
+            transpositionTable.store(position.zobristKey, depth, TranspositionTable.EXACT, bestScore, bestMove);
+        }
+        return new SearchResult(bestMove, bestScore);
     }
 
     private final Position position;
+    private final int ply;
     private final int depth;
     private int alpha;
     private int beta;
@@ -79,13 +202,15 @@ public class ThreadedMiniMax extends RecursiveTask<Integer> {
      * Constructor for the threaded mini-max search algorithm with alpha-beta pruning.
      *
      * @param position the position to evaluate the score for.
+     * @param ply      the number of plies from the root to the position.
      * @param depth    the depth remaining to search.
      *                 Before passing depth, subtract 1 from it.
      * @param alpha    the alpha value.
      * @param beta     the beta value.
      */
-    private ThreadedMiniMax(@NotNull Position position, int depth, int alpha, int beta) {
+    private ThreadedMiniMax(@NotNull Position position, int ply, int depth, int alpha, int beta) {
         this.position = position;
+        this.ply = ply;
         this.depth = depth;
         this.alpha = alpha;
         this.beta = beta;
@@ -96,100 +221,189 @@ public class ThreadedMiniMax extends RecursiveTask<Integer> {
      * The alpha-beta pruning values are set to the default values.
      *
      * @param position the position to evaluate the score for.
+     * @param ply      the number of plies from the root to the position.
      * @param depth    the depth remaining to search.
      *                 Before passing depth, subtract 1 from it.
      */
-    private ThreadedMiniMax(@NotNull Position position, int depth) {
+    private ThreadedMiniMax(@NotNull Position position, int ply, int depth) {
         this.position = position;
+        this.ply = ply;
         this.depth = depth;
         this.alpha = Integer.MIN_VALUE;
         this.beta = Integer.MAX_VALUE;
     }
 
     protected Integer compute() {
-        return position.whiteToMove ? max(position, depth, alpha, beta) :
-                min(position, depth, alpha, beta);
+        // the task may run on any worker thread, so it uses the move lists of that thread
+        MoveBuffers buffers = MoveBuffers.get();
+        return position.whiteToMove ? max(position, ply, depth, alpha, beta, buffers) :
+                min(position, ply, depth, alpha, beta, buffers);
     }
 
     /**
      * Minimizer for the mini-max search algorithm.
-     * Switches to sequential mini-max when depth is 2.
+     * Switches to the sequential search below the split depth, see SplitPolicy.
      *
      * @param position the position to minimize the score for.
+     * @param ply      the number of plies from the root to the position
      * @param depth    the depth remaining to search
+     * @param buffers  the move lists of the thread running the search
      * @return the minimized value of the position
      * @author Divy Patel
      */
-    private int min(Position position, int depth, int alpha, int beta) {
+    private int min(Position position, int ply, int depth, int alpha, int beta, MoveBuffers buffers) {
         if (depth <= 0) {
             return position.getEvaluation();
-        } else if (depth <= SEQUENTIAL_CUTOFF) {
-            return SequentialAlphaBeta.min(position, depth, alpha, beta);
         }
+        SplitPolicy policy = splitPolicy;
+        if (policy == SplitPolicy.FIXED ? depth <= SEQUENTIAL_CUTOFF : depth <= MIN_SPLIT_DEPTH) {
+            return PrincipalVariationSearch.search(new Board(position), ply, depth, alpha, beta, buffers,
+                    SearchHistory.get());
+        }
+        if (SearchControl.isStopped()) {
+            return 0;
+        }
+        SearchStatistics statistics = SearchStatistics.get();
+        statistics.node();
+
+        // use the stored result if it is good enough, otherwise try its best move first
+        long entry = transpositionTable.probe(position.zobristKey);
+        if (TranspositionTable.isCutoff(entry, ply, depth, alpha, beta)) {
+            return TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
 
         int lowestScore = Integer.MAX_VALUE;
+        int bestMove = PackedMove.NONE;
         // generate all possible moves
-        List<Move> possible = position.getLegalBlackMoves();
+        MoveList possible = buffers.push();
+        position.generateMoves(possible);
+        if (possible.size() == 0) {
+            buffers.pop();
+            // black is mated: a win for white
+            return position.isInCheck() ? -Evaluation.mated(ply) : 0;
+        }
+        if (policy == SplitPolicy.ADAPTIVE && !shouldSplit(possible.size(), depth)) {
+            buffers.pop();
+            statistics.inline();
+            return PrincipalVariationSearch.search(new Board(position), ply, depth, alpha, beta, buffers,
+                    SearchHistory.get());
+        }
+        statistics.fork(possible.size());
+        SequentialAlphaBeta.orderHashMove(possible, entry);
         List<ThreadedMiniMax> threads = new ArrayList<>();
 
-        for (Move move : possible) {
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
             // update position
             Position newPosition = position.makeMove(move);
             // make a thread for each move
-            ThreadedMiniMax thread = new ThreadedMiniMax(newPosition, depth - 1, alpha, beta);
+            ThreadedMiniMax thread = new ThreadedMiniMax(newPosition, ply + 1, depth - 1, alpha, beta);
             threads.add(thread);
             thread.fork();
         }
 
         // find the lowest score
         int score;
-        for (ThreadedMiniMax thread : threads) {
-            score = thread.join();
-            lowestScore = Math.min(lowestScore, score);
+        for (int i = 0; i < threads.size(); i++) {
+            score = threads.get(i).join();
+            if (score < lowestScore) {
+                lowestScore = score;
+                bestMove = possible.get(i);
+            }
             beta = Math.min(beta, score);
         }
+        buffers.pop();
+        if (SearchControl.isStopped()) {
+            return 0;
+        }
 
+        SequentialAlphaBeta.storeResult(position.zobristKey, ply, depth, lowestScore, alphaOrig, betaOrig,
+                bestMove);
         return lowestScore;
     }
 
     /**
      * Maximizer for the mini-max search algorithm.
-     * Switches to sequential mini-max when depth is 2.
+     * Switches to the sequential search below the split depth, see SplitPolicy.
      *
      * @param position the position to maximize the score for.
+     * @param ply      the number of plies from the root to the position
      * @param depth    the depth remaining to search
+     * @param buffers  the move lists of the thread running the search
      * @return the maximized value of the position
      * @author Divy Patel
      */
-    private int max(Position position, int depth, int alpha, int beta) {
+    private int max(Position position, int ply, int depth, int alpha, int beta, MoveBuffers buffers) {
         if (depth <= 0) {
             return position.getEvaluation();
-        } else if (depth <= SEQUENTIAL_CUTOFF) {
-            return SequentialAlphaBeta.max(position, depth, alpha, beta);
         }
+        SplitPolicy policy = splitPolicy;
+        if (policy == SplitPolicy.FIXED ? depth <= SEQUENTIAL_CUTOFF : depth <= MIN_SPLIT_DEPTH) {
+            return PrincipalVariationSearch.search(new Board(position), ply, depth, alpha, beta, buffers,
+                    SearchHistory.get());
+        }
+        if (SearchControl.isStopped()) {
+            return 0;
+        }
+        SearchStatistics statistics = SearchStatistics.get();
+        statistics.node();
+
+        // use the stored result if it is good enough, otherwise try its best move first
+        long entry = transpositionTable.probe(position.zobristKey);
+        if (TranspositionTable.isCutoff(entry, ply, depth, alpha, beta)) {
+            return TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
 
         int highestScore = Integer.MIN_VALUE;
+        int bestMove = PackedMove.NONE;
         // generate all possible moves
-        List<Move> possible = position.getLegalWhiteMoves();
+        MoveList possible = buffers.push();
+        position.generateMoves(possible);
+        if (possible.size() == 0) {
+            buffers.pop();
+            return position.isInCheck() ? Evaluation.mated(ply) : 0;
+        }
+        if (policy == SplitPolicy.ADAPTIVE && !shouldSplit(possible.size(), depth)) {
+            buffers.pop();
+            statistics.inline();
+            return PrincipalVariationSearch.search(new Board(position), ply, depth, alpha, beta, buffers,
+                    SearchHistory.get());
+        }
+        statistics.fork(possible.size());
+        SequentialAlphaBeta.orderHashMove(possible, entry);
         List<ThreadedMiniMax> threads = new ArrayList<>();
 
-        for (Move move : possible) {
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
             // update position
             Position newPosition = position.makeMove(move);
             // make a thread for each move
-            ThreadedMiniMax thread = new ThreadedMiniMax(newPosition, depth - 1, alpha, beta);
+            ThreadedMiniMax thread = new ThreadedMiniMax(newPosition, ply + 1, depth - 1, alpha, beta);
             threads.add(thread);
             thread.fork();
         }
 
         // find the highest score
         int score;
-        for (ThreadedMiniMax thread : threads) {
-            score = thread.join();
-            highestScore = Math.max(highestScore, score);
+        for (int i = 0; i < threads.size(); i++) {
+            score = threads.get(i).join();
+            if (score > highestScore) {
+                highestScore = score;
+                bestMove = possible.get(i);
+            }
             alpha = Math.max(alpha, score);
         }
+        buffers.pop();
+        if (SearchControl.isStopped()) {
+            return 0;
+        }
 
+        SequentialAlphaBeta.storeResult(position.zobristKey, ply, depth, highestScore, alphaOrig, betaOrig,
+                bestMove);
         return highestScore;
     }
 
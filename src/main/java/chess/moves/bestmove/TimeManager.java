@@ -0,0 +1,117 @@
+package chess.moves.bestmove;
+
+/**
+ * Decides how long a search may take, from the limits of the "go" command.<p>
+ * There are two limits:
+ * <ul>
+ *     <li>the soft limit, the time the search aims to use; no new iteration is started once half of it
+ *     has passed, because an iteration usually takes longer than all the iterations before it</li>
+ *     <li>the hard limit, after which the search is stopped in the middle of an iteration</li>
+ * </ul>
+ * The soft limit is stretched while the search is unsure: when the best move keeps changing between
+ * iterations, or when the score drops, more time is worth spending on this move.<br>
+ * Time is counted from SearchControl.clockStart(), so a pondering search only uses its budget after "ponderhit";
+ * until then it keeps starting new iterations.
+ *
+ * @see <a href="https://www.chessprogramming.org/Time_Management">Time management</a>
+ */
+public class TimeManager {
+
+    // time lost to communication with the GUI, in milliseconds
+    public static final long MOVE_OVERHEAD = 20;
+    // moves assumed to be left in the game when the GUI doesn't send movestogo
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final boolean timed;
+    private final long softLimit;
+    private final long hardLimit;
+
+    private double bestMoveChanges;
+    private double scale = 1.0;
+
+    /**
+     * @param limits      the limits of the search
+     * @param whiteToMove whether the searching side is white
+     */
+    public TimeManager(SearchLimits limits, boolean whiteToMove) {
+        timed = limits.isTimed();
+        if (!timed) {
+            softLimit = Long.MAX_VALUE;
+            hardLimit = Long.MAX_VALUE;
+        } else if (limits.moveTime >= 0) {
+            softLimit = Math.max(1, limits.moveTime - MOVE_OVERHEAD);
+            hardLimit = softLimit;
+        } else {
+            long time = whiteToMove ? limits.whiteTime : limits.blackTime;
+            long increment = whiteToMove ? limits.whiteIncrement : limits.blackIncrement;
+            if (time < 0) {
+                // only the other side's clock was given: budget with it rather than with no time at all
+                time = whiteToMove ? limits.blackTime : limits.whiteTime;
+                increment = whiteToMove ? limits.blackIncrement : limits.whiteIncrement;
+            }
+            time = Math.max(0, time);
+            int movesToGo = limits.movesToGo > 0 ? Math.min(limits.movesToGo, 50) : DEFAULT_MOVES_TO_GO;
+
+            long available = Math.max(1, time - MOVE_OVERHEAD);
+            long target = Math.min(available, available / movesToGo + increment * 3 / 4);
+            softLimit = Math.max(1, target);
+            hardLimit = Math.max(1, Math.min(available, target * 4));
+        }
+    }
+
+    /**
+     * @return the milliseconds since the clock of the search started
+     */
+    public long elapsed() {
+        return (System.nanoTime() - SearchControl.clockStart()) / 1_000_000;
+    }
+
+    /**
+     * @return whether the search has a time limit
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+
+    /**
+     * Adjusts the soft limit after an iteration.
+     *
+     * @param bestMoveChanged whether the iteration found a different best move than the one before
+     * @param previousScore   the score of the iteration before, for the side to move
+     * @param score           the score of this iteration, for the side to move
+     */
+    public void update(boolean bestMoveChanged, int previousScore, int score) {
+        // recent changes count the most; the count halves every iteration
+        bestMoveChanges = bestMoveChanges / 2 + (bestMoveChanged ? 1 : 0);
+        double instability = 1.0 + bestMoveChanges * 0.5;
+        // a score that drops by a pawn or more gets up to half as much time again
+        double drop = 1.0 + Math.max(0, Math.min(100, previousScore - score)) / 200.0;
+        scale = Math.max(0.5, Math.min(2.5, instability * drop));
+    }
+
+    /**
+     * @return whether there is time to start another iteration
+     */
+    public boolean shouldStartIteration() {
+        if (!timed || SearchControl.isPondering()) {
+            return true;
+        }
+        long soft = Math.min(hardLimit, (long) (softLimit * scale));
+        return elapsed() < soft / 2;
+    }
+
+    /**
+     * @return the soft limit in milliseconds, before it is stretched
+     */
+    public long getSoftLimit() {
+        return softLimit;
+    }
+
+    /**
+     * @return the hard limit in milliseconds
+     */
+    public long getHardLimit() {
+        return hardLimit;
+    }
+
+}
@@ -0,0 +1,333 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size <a href="https://www.chessprogramming.org/Transposition_Table">transposition table</a>
+ * that remembers search results by Zobrist key.<p>
+ * The table is a single primitive long[] split into buckets of 4 entries (64 bytes, one cache line).
+ * Each entry is two longs: (key ^ data) and data, where data packs the score, best move, depth,
+ * bound and age of the entry.<br>
+ * The table is shared by all search threads without any locking.
+ * A reader only accepts an entry if (key ^ data) ^ data gives back its own key,
+ * so an entry that is half-written by another thread is simply treated as a miss
+ * (<a href="https://www.chessprogramming.org/Shared_Hash_Table#Lock-less">lock-less hashing</a>).<p>
+ * The table also keeps the keys of the nodes that threads are searching right now, for Abdada.java:
+ * one key per bucket, in an atomic array next to the entries, so that a mark is seen by the other threads
+ * as soon as it is set (release/acquire) and clearing a mark never removes another node's.
+ * The nodes of a bucket share its mark: a node marked after another takes the mark over, and the first node
+ * then looks free, so it may be searched twice. The whole key is compared, so a node never looks busy
+ * because of another node. A lost or stale mark only makes a thread search a node twice,
+ * or defer it once too often.<p>
+ * Mate scores count the plies from the root of the search (see Evaluation.mated()), but the same node can be
+ * reached at different plies, so the table stores them counted from the node instead;
+ * see {@link #toTable(int, int)} and {@link #fromTable(int, int)}.
+ */
+public class TranspositionTable {
+
+    // bound types; 0 is never used so that an empty entry (data == 0) can be told apart
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // score >= stored score (fail high)
+    public static final int UPPER_BOUND = 3; // score <= stored score (fail low)
+
+    // returned by probe when the key is not in the table
+    public static final long NO_ENTRY = 0L;
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    /*
+     * Data layout (64 bits):
+     * bits  0-31: score (int)
+     * bits 32-47: best move
+     * bits 48-55: depth
+     * bits 56-57: bound
+     * bits 58-63: age
+     */
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int DEPTH_MASK = 0xFF;
+    private static final int BOUND_MASK = 0x3;
+    private static final int AGE_MASK = 0x3F;
+
+    private long[] table;
+    // the key of a node being searched in each bucket, or 0
+    private AtomicLongArray busy;
+    private int bucketMask;
+    private int age;
+
+    /**
+     * Creates a new transposition table.
+     *
+     * @param sizeMB the size of the table in megabytes, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int sizeMB) {
+        resize(sizeMB);
+    }
+
+    /**
+     * Resizes the table and its busy marks, one per bucket; all entries and marks are cleared.
+     * Should not be called while a search is running.
+     *
+     * @param sizeMB the new size of the table in megabytes
+     */
+    public void resize(int sizeMB) {
+        long entries = Math.max(1L, (long) sizeMB) * 1024 * 1024 / BYTES_PER_ENTRY;
+        long buckets = Long.highestOneBit(Math.max(1L, entries / ENTRIES_PER_BUCKET));
+        // a java array can hold at most 2^31 - 1 elements
+        buckets = Math.min(buckets, 1L << 27);
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        busy = new AtomicLongArray((int) buckets);
+        bucketMask = (int) buckets - 1;
+        age = 0;
+    }
+
+    /**
+     * Removes all entries from the table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        busy = new AtomicLongArray(busy.length());
+        age = 0;
+    }
+
+    /**
+     * Should be called before every new search, so that entries from older searches
+     * are the first to be replaced.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Looks up a position in the table.
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed data of the entry, or NO_ENTRY if the position is not in the table
+     */
+    public long probe(long key) {
+        long[] table = this.table;
+        int bucket = ((int) key & bucketMask) * LONGS_PER_BUCKET;
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            if (data != 0 && (table[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result in the table.<br>
+     * The entry replaces, in order of preference: an entry with the same key, an empty entry,
+     * or the entry with the lowest depth, where entries from older searches count as shallower.
+     *
+     * @param key   the Zobrist key of the position
+     * @param depth the depth that was searched
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param score the score found by the search
+     * @param move  the best move found as a packed move (16 bits), or 0 if there is none
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        long[] table = this.table;
+        int bucket = ((int) key & bucketMask) * LONGS_PER_BUCKET;
+        int replace = bucket;
+        int lowestValue = Integer.MAX_VALUE;
+
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            if (data == 0) {
+                replace = i;
+                break;
+            }
+            if ((table[i] ^ data) == key) {
+                // keep the old best move if this search did not find one
+                if (move == 0) {
+                    move = move(data);
+                }
+                replace = i;
+                break;
+            }
+            // older entries are worth less than newer ones of the same depth
+            int value = depth(data) - 8 * ((age - age(data)) & AGE_MASK);
+            if (value < lowestValue) {
+                lowestValue = value;
+                replace = i;
+            }
+        }
+
+        long data = (score & 0xFFFFFFFFL)
+                | ((long) (move & MOVE_MASK) << MOVE_SHIFT)
+                | ((long) Math.min(Math.max(depth, 0), DEPTH_MASK) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * Marks a node as being searched by the calling thread, taking over the mark of its bucket.
+     *
+     * @param key the Zobrist key of the node
+     */
+    public void markBusy(long key) {
+        busy.setRelease((int) key & bucketMask, key);
+    }
+
+    /**
+     * Removes the mark of a node once its search is over, unless another node has taken its place.
+     *
+     * @param key the Zobrist key of the node
+     */
+    public void clearBusy(long key) {
+        busy.compareAndSet((int) key & bucketMask, key, 0L);
+    }
+
+    /**
+     * @param key the Zobrist key of the node
+     * @return whether a thread is searching the node right now
+     */
+    public boolean isBusy(long key) {
+        return busy.getAcquire((int) key & bucketMask) == key;
+    }
+
+    /**
+     * Estimates how full the table is, as used by the UCI "info hashfull" command.
+     *
+     * @return the number of entries (per mille) used by the current search, out of the first 1000
+     */
+    public int hashfull() {
+        long[] table = this.table;
+        int count = 0;
+        int samples = Math.min(1000, table.length / 2);
+        for (int i = 0; i < samples; i++) {
+            long data = table[2 * i + 1];
+            if (data != 0 && age(data) == age) {
+                count++;
+            }
+        }
+        return count * 1000 / samples;
+    }
+
+    /**
+     * @return the score stored in the given entry data
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    /**
+     * @return the best move stored in the given entry data, or 0 if there is none
+     */
+    public static int move(long data) {
+        return (int) (data >>> MOVE_SHIFT) & MOVE_MASK;
+    }
+
+    /**
+     * @return the depth stored in the given entry data
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    /**
+     * @return the bound type stored in the given entry data
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * Converts a score to store in the table: a mate score is counted from the node instead of the root.
+     *
+     * @param score the score, from either side's point of view
+     * @param ply   the number of plies from the root to the node
+     * @return the score to store
+     */
+    public static int toTable(int score, int ply) {
+        if (Evaluation.isMate(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score stored in the table back, the inverse of {@link #toTable(int, int)}.
+     *
+     * @param score the stored score, from either side's point of view
+     * @param ply   the number of plies from the root to the node
+     * @return the score, with a mate score counted from the root
+     */
+    public static int fromTable(int score, int ply) {
+        if (Evaluation.isMate(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Checks whether a table entry can be used instead of searching the root position.
+     *
+     * @param data  the entry data returned by probe
+     * @param depth the depth remaining to search
+     * @param alpha the alpha value
+     * @param beta  the beta value
+     * @return true if the stored score is deep enough and decides the search for the given window
+     */
+    public static boolean isCutoff(long data, int depth, int alpha, int beta) {
+        return isCutoff(data, 0, depth, alpha, beta);
+    }
+
+    /**
+     * Checks whether a table entry can be used instead of searching the position.
+     * Use {@code fromTable(score(data), ply)} for its score.
+     *
+     * @param data  the entry data returned by probe
+     * @param ply   the number of plies from the root to the position
+     * @param depth the depth remaining to search
+     * @param alpha the alpha value
+     * @param beta  the beta value
+     * @return true if the stored score is deep enough and decides the search for the given window
+     */
+    public static boolean isCutoff(long data, int ply, int depth, int alpha, int beta) {
+        if (data == NO_ENTRY || depth(data) < depth) {
+            return false;
+        }
+        int score = fromTable(score(data), ply);
+        return switch (bound(data)) {
+            case EXACT -> true;
+            case LOWER_BOUND -> score >= beta;
+            case UPPER_BOUND -> score <= alpha;
+            default -> false;
+        };
+    }
+
+    /**
+     * Finds the bound type of a score returned by a search with the given window.
+     *
+     * @param score the score returned by the search
+     * @param alpha the alpha value the search started with
+     * @param beta  the beta value the search started with
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int boundOf(int score, int alpha, int beta) {
+        if (score <= alpha) {
+            return UPPER_BOUND;
+        } else if (score >= beta) {
+            return LOWER_BOUND;
+        }
+        return EXACT;
+    }
+
+}
@@ -0,0 +1,303 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.Move;
+import chess.moves.MoveBuffers;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static chess.moves.bestmove.MoveGeneration.transpositionTable;
+
+/**
+ * The <a href="https://www.chessprogramming.org/Young_Brothers_Wait_Concept">Young Brothers Wait Concept</a>
+ * on the ForkJoin pool: at each node, the first move (the eldest brother) is searched alone to get a bound,
+ * and only then are the other moves (the young brothers) searched in parallel, all with that bound.<p>
+ * The moves of a split node share a {@link Split}: its bound is raised (lowered at a min node) atomically
+ * by every brother that finds a better score, and brothers read it when they start a subtree, so a bound found
+ * by one brother narrows the window of the others. Split nodes below a brother also read the bounds of every
+ * split above them, since scores are from white's point of view and a bound anywhere up the tree applies.
+ * When a brother causes a beta cutoff, the split is marked as cut off, and the brothers still running
+ * stop at their next split node.<br>
+ * Only nodes with more than SPLIT_DEPTH plies left are split; the subtrees below them are searched by
+ * PrincipalVariationSearch.java, which is too fast to be worth splitting.
+ */
+public class YoungBrothersWait extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    // nodes with more depth left than this are split between threads
+    public static final int SPLIT_DEPTH = 3;
+
+    /**
+     * Calculates the best move for given position.
+     *
+     * @param position the position to calculate the best move for
+     * @param depth    the depth to search to
+     * @return the best move, or null if there are no legal moves
+     */
+    public static Move find(@NotNull Position position, int depth) {
+        SearchControl.start();
+        SearchHistory.newSearch();
+        SearchStatistics.reset();
+        return search(position, depth).toMove();
+    }
+
+    /**
+     * Searches the position to a fixed depth, as one iteration of IterativeDeepening.java.
+     *
+     * @param position the position to search
+     * @param depth    the depth to search to
+     * @return the best move and its score; not valid if the search was stopped
+     */
+    public static SearchResult search(@NotNull Position position, int depth) {
+        MoveList moves = orderedMoves(position, 0, transpositionTable.probe(position.zobristKey));
+        if (moves.size() == 0) {
+            int score = position.isInCheck() ? Evaluation.mated(0) : 0;
+            return new SearchResult(PackedMove.NONE, position.whiteToMove ? score : -score);
+        }
+
+        // the root is a split node too; it runs in the pool so that its brothers are forked to the workers
+        Split root = new Split(null, position.whiteToMove, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        SearchPool.get().invoke(ForkJoinTask.adapt(() -> searchMoves(position, 0, moves, depth, root)));
+
+        if (root.bestMove == PackedMove.NONE) {
+            // stopped before any move was searched: the first move is better than no move
+            return new SearchResult(moves.get(0), position.makeMove(moves.get(0)).getEvaluation());
+        }
+        if (!SearchControl.isStopped()) {
+            transpositionTable.store(position.zobristKey, depth, TranspositionTable.EXACT, root.bestScore,
+                    root.bestMove);
+        }
+        return new SearchResult(root.bestMove, root.bestScore);
+    }
+
+    /**
+     * Searches the moves of a split node: the first on this thread, then the others in parallel.
+     * The result is left in the split.
+     *
+     * @param ply the number of plies from the root to the split node
+     */
+    private static void searchMoves(Position position, int ply, MoveList moves, int depth, Split split) {
+        int eldest = moves.get(0);
+        int score = searchChild(position.makeMove(eldest), ply + 1, depth - 1, split);
+        if (split.isAborted()) {
+            return;
+        }
+        split.update(score, eldest);
+        if (split.isCutoff() || moves.size() == 1) {
+            return;
+        }
+
+        List<YoungBrothersWait> brothers = new ArrayList<>(moves.size() - 1);
+        for (int i = 1; i < moves.size(); i++) {
+            brothers.add(new YoungBrothersWait(position, ply, moves.get(i), depth - 1, split));
+        }
+        invokeAll(brothers);
+    }
+
+    /**
+     * Searches a node with more than SPLIT_DEPTH plies left, splitting it after its first move.
+     *
+     * @param ply    the number of plies from the root to the node
+     * @param parent the split of the node above
+     * @return the score of the node; not valid if the parent has been aborted
+     */
+    private static int searchNode(Position position, int ply, int depth, int alpha, int beta, Split parent) {
+        if (SearchControl.poll(SearchStatistics.get().node()) || parent.isAborted()) {
+            return 0;
+        }
+
+        // use the stored result if it is good enough, otherwise try its best move first
+        long entry = transpositionTable.probe(position.zobristKey);
+        if (TranspositionTable.isCutoff(entry, ply, depth, alpha, beta)) {
+            return TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+        }
+        MoveList moves = orderedMoves(position, ply, entry);
+        if (moves.size() == 0) {
+            int score = position.isInCheck() ? Evaluation.mated(ply) : 0;
+            return position.whiteToMove ? score : -score;
+        }
+
+        Split split = new Split(parent, position.whiteToMove, alpha, beta);
+        searchMoves(position, ply, moves, depth, split);
+        if (parent.isAborted()) {
+            return 0;
+        }
+        // the window may have narrowed while searching; the result is only valid within the final one
+        SequentialAlphaBeta.storeResult(position.zobristKey, ply, depth, split.bestScore, split.windowAlpha(),
+                split.windowBeta(), split.bestMove);
+        return split.bestScore;
+    }
+
+    /**
+     * Orders the moves of a split node like PrincipalVariationSearch.java does, so that the eldest brother
+     * is the move most likely to give a good bound: the hash move, captures by MVV-LVA, the killer moves
+     * and the counter move, then the quiet moves by history.
+     * The move list stays in use while the brothers run, so it doesn't come from the thread's buffers.
+     *
+     * @param ply   the number of plies from the root to the node
+     * @param entry the transposition table entry of the node, or NO_ENTRY
+     * @return the legal moves of the position, best first
+     */
+    private static MoveList orderedMoves(Position position, int ply, long entry) {
+        MovePicker picker = new MovePicker(new Board(position), new MoveList(), TranspositionTable.move(entry), ply,
+                SearchHistory.get());
+        MoveList moves = new MoveList();
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    /**
+     * Searches the position after a move of a split node, with the current window of the split.
+     *
+     * @param ply the number of plies from the root to the position after the move
+     */
+    private static int searchChild(Position child, int ply, int depth, Split split) {
+        int alpha = split.alpha();
+        int beta = split.beta();
+        if (depth > SPLIT_DEPTH) {
+            return searchNode(child, ply, depth, alpha, beta, split);
+        }
+        return PrincipalVariationSearch.search(new Board(child), ply, depth, alpha, beta, MoveBuffers.get(),
+                SearchHistory.get());
+    }
+
+    private final Position position;
+    private final int ply;
+    private final int move;
+    private final int depth;
+    private final Split split;
+
+    /**
+     * A young brother: one move of a split node, searched after the first move.
+     *
+     * @param position the position of the split node, before the move
+     * @param ply      the number of plies from the root to the split node
+     * @param move     the move to search
+     * @param depth    the depth remaining after the move
+     * @param split    the split node
+     */
+    private YoungBrothersWait(Position position, int ply, int move, int depth, Split split) {
+        this.position = position;
+        this.ply = ply;
+        this.move = move;
+        this.depth = depth;
+        this.split = split;
+    }
+
+    @Override
+    protected void compute() {
+        if (split.isAborted()) {
+            return;
+        }
+        int score = searchChild(position.makeMove(move), ply + 1, depth, split);
+        if (!split.isAborted()) {
+            split.update(score, move);
+        }
+    }
+
+    /**
+     * The shared state of a node whose moves are searched in parallel.
+     * Scores are from white's point of view, like in the transposition table.
+     */
+    private static final class Split {
+
+        private final Split parent;
+        private final boolean maximizing;
+        private final int alpha;
+        private final int beta;
+        // the best score so far: raises alpha at a max node, lowers beta at a min node
+        private final AtomicInteger bound;
+        private volatile boolean cutoff;
+        private int bestScore;
+        private int bestMove = PackedMove.NONE;
+
+        Split(Split parent, boolean maximizing, int alpha, int beta) {
+            this.parent = parent;
+            this.maximizing = maximizing;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bound = new AtomicInteger(maximizing ? alpha : beta);
+            this.bestScore = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+
+        /**
+         * @return alpha of the node as given by the nodes above it, including bounds they found since
+         */
+        int windowAlpha() {
+            return parent == null ? alpha : Math.max(alpha, parent.alpha());
+        }
+
+        /**
+         * @return beta of the node as given by the nodes above it, including bounds they found since
+         */
+        int windowBeta() {
+            return parent == null ? beta : Math.min(beta, parent.beta());
+        }
+
+        /**
+         * @return the current alpha of the node, for the moves still to search
+         */
+        int alpha() {
+            return maximizing ? Math.max(windowAlpha(), bound.get()) : windowAlpha();
+        }
+
+        /**
+         * @return the current beta of the node, for the moves still to search
+         */
+        int beta() {
+            return maximizing ? windowBeta() : Math.min(windowBeta(), bound.get());
+        }
+
+        /**
+         * Records the score of a searched move, and marks the split as cut off when the window closes.
+         */
+        synchronized void update(int score, int move) {
+            if (bestMove == PackedMove.NONE || (maximizing ? score > bestScore : score < bestScore)) {
+                bestScore = score;
+                bestMove = move;
+                if (maximizing) {
+                    bound.accumulateAndGet(score, Math::max);
+                } else {
+                    bound.accumulateAndGet(score, Math::min);
+                }
+            }
+            if (alpha() >= beta()) {
+                cutoff = true;
+            }
+        }
+
+        /**
+         * @return whether the remaining moves of the node need no search
+         */
+        boolean isCutoff() {
+            return cutoff;
+        }
+
+        /**
+         * @return whether the search of the node is no longer needed: it or a node above it was cut off,
+         * or the search was stopped
+         */
+        boolean isAborted() {
+            for (Split split = this; split != null; split = split.parent) {
+                if (split.cutoff) {
+                    return true;
+                }
+            }
+            return SearchControl.isStopped();
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+package chess.board;
+
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardTest {
+
+    /**
+     * Plays every move on both a Board and a Position down to the given depth,
+     * checking that they stay the same and that unmake restores the board.
+     */
+    private static void compareTree(Board board, Position position, int depth) {
+        MoveList boardMoves = new MoveList();
+        board.generateMoves(boardMoves);
+        assertEquals(position.getLegalMoves().toString(), boardMoves.toString());
+        if (depth == 0) {
+            return;
+        }
+
+        for (int i = 0; i < boardMoves.size(); i++) {
+            int move = boardMoves.get(i);
+            Position next = position.makeMove(move);
+            board.make(move);
+            assertEquals(next, board.toPosition(), PackedMove.toAlgebraicNotation(move));
+            assertEquals(next.zobristKey, board.getZobristKey(), PackedMove.toAlgebraicNotation(move));
+            compareTree(board, next, depth - 1);
+            board.unmake();
+            assertEquals(position, board.toPosition());
+            assertEquals(position.zobristKey, board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void test01StartPosition() {
+        Position position = Position.startingPosition();
+        Board board = new Board(position);
+
+        assertEquals(position, board.toPosition());
+        assertEquals(position.zobristKey, board.getZobristKey());
+        compareTree(board, position, 3);
+    }
+
+    @Test
+    public void test02CastlingAndPromotions() {
+        // both sides can castle on both sides, and pawns are one step from promoting
+        Position position = Position.fenToPosition("r3k2r/1P4P1/8/8/8/8/1p4p1/R3K2R w KQkq - 0 1");
+        compareTree(new Board(position), position, 3);
+    }
+
+    @Test
+    public void test03EnPassant() {
+        Position position = Position.fenToPosition("4k3/8/8/8/3pP3/8/8/4K3 b - e 0 1");
+        Board board = new Board(position);
+        int move = PackedMove.of(35, 44, PackedMove.EN_PASSANT);
+        board.make(move);
+
+        assertEquals(position.makeMove(move), board.toPosition());
+        assertEquals(0L, board.getBitboard(Board.WP));
+        board.unmake();
+        assertEquals(position, board.toPosition());
+        compareTree(board, position, 3);
+    }
+
+    @Test
+    public void test04Middlegame() {
+        Position position = Position.fenToPosition(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        compareTree(new Board(position), position, 2);
+    }
+
+    @Test
+    public void test05Counters() {
+        Board board = new Board(Position.startingPosition());
+        int halfMoves = board.getHalfMoveCount();
+        int fullMoves = board.getFullMoveCount();
+        board.make(PackedMove.of(62, 45, PackedMove.QUIET)); // g1f3
+        board.make(PackedMove.of(6, 21, PackedMove.QUIET)); // g8f6
+        assertEquals(halfMoves + 2, board.getHalfMoveCount());
+        assertEquals(fullMoves + 1, board.getFullMoveCount());
+        assertEquals(2, board.getPly());
+        board.make(PackedMove.of(52, 36, PackedMove.DOUBLE_PAWN_PUSH)); // e2e4
+        assertEquals(0, board.getHalfMoveCount());
+        board.unmake();
+        board.unmake();
+        board.unmake();
+        assertEquals(Position.startingPosition(), board.toPosition());
+        assertEquals(halfMoves, board.getHalfMoveCount());
+        assertEquals(fullMoves, board.getFullMoveCount());
+    }
+
+    @Test
+    public void test06PinnedPiece() {
+        // the white rook is pinned to its king by the black rook, so it can only move along the e-file
+        Board board = new Board(Position.fenToPosition("4k3/4r3/8/8/8/8/4R3/4K3 w - - 0 1"));
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        assertEquals(9, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.from(move) == 52) {
+                assertEquals(4, PackedMove.to(move) % 8, PackedMove.toAlgebraicNotation(move));
+            }
+        }
+    }
+
+    @Test
+    public void test07CheckEvasions() {
+        // single check by the rook: block on e2..e7, capture it, or move the king off the file
+        Board board = new Board(Position.fenToPosition("4r1k1/8/8/8/8/8/3N4/1B2K3 w - - 0 1"));
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.make(move);
+            assertFalse(board.isInCheck(true), PackedMove.toAlgebraicNotation(move));
+            board.unmake();
+        }
+        assertTrue(moves.contains(PackedMove.of(51, 36, PackedMove.QUIET))); // Nd2e4 blocks
+
+        // double check by the rook and the knight: only the king can move
+        board = new Board(Position.fenToPosition("4r1k1/8/8/8/8/5n2/3N4/1B2K3 w - - 0 1"));
+        moves.clear();
+        board.generateLegalMoves(moves);
+        assertTrue(moves.size() > 0);
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(60, PackedMove.from(moves.get(i)), PackedMove.toAlgebraicNotation(moves.get(i)));
+        }
+    }
+
+    @Test
+    public void test08EnPassantPin() {
+        // taking en passant would take both pawns off the rank and leave the white king in check
+        Board board = new Board(Position.fenToPosition("8/8/8/K2pP2r/8/8/8/4k3 w - d 0 1"));
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            assertNotEquals(PackedMove.EN_PASSANT, PackedMove.flags(moves.get(i)));
+        }
+    }
+
+    @Test
+    public void test09CheckmateAndStalemate() {
+        MoveList moves = new MoveList();
+        Board mated = new Board(Position.fenToPosition(
+                "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"));
+        mated.generateLegalMoves(moves);
+        assertEquals(0, moves.size());
+        assertTrue(mated.isInCheck());
+
+        Board stalemated = new Board(Position.fenToPosition("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+        stalemated.generateLegalMoves(moves);
+        assertEquals(0, moves.size());
+        assertFalse(stalemated.isInCheck());
+    }
+
+    @Test
+    public void test10SetForgetsTheMovesMade() {
+        Board board = new Board(Position.startingPosition());
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        board.make(moves.get(0));
+        Position position = Position.fenToPosition("r3k2r/1P4P1/8/8/8/8/1p4p1/R3K2R w KQkq - 0 1");
+        board.set(position);
+
+        assertEquals(position, board.toPosition());
+        assertEquals(position.zobristKey, board.getZobristKey());
+        assertEquals(0, board.getPly());
+        compareTree(board, position, 2);
+
+        // Position.generateMoves() reuses a board of the calling thread the same way
+        moves.clear();
+        position.generateMoves(moves);
+        MoveList again = new MoveList();
+        Position.startingPosition().generateMoves(again);
+        moves.clear();
+        position.generateMoves(moves);
+        MoveList expected = new MoveList();
+        new Board(position).generateMoves(expected);
+        assertEquals(expected.toString(), moves.toString());
+        assertEquals(20, again.size());
+    }
+
+}
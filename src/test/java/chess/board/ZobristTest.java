@@ -0,0 +1,82 @@
+package chess.board;
+
+import chess.moves.MoveConversion;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ZobristTest {
+
+    /**
+     * @return the key of the given position computed from scratch
+     */
+    private static long fullKey(Position p) {
+        return Zobrist.computeKey(p.wp, p.wn, p.wb, p.wr, p.wq, p.wk, p.bp, p.bn, p.bb, p.br, p.bq, p.bk,
+                p.ep, p.cwk, p.cwq, p.cbk, p.cbq, p.whiteToMove);
+    }
+
+    @Test
+    public void test01StartPositionMatchesFEN() {
+        Position start = Position.startingPosition();
+        Position fen = Position.fenToPosition("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+        assertEquals(start.zobristKey, fen.zobristKey);
+        assertEquals(start.hashCode(), fen.hashCode());
+    }
+
+    @Test
+    public void test02SideToMoveChangesKey() {
+        Position white = Position.fenToPosition("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        Position black = Position.fenToPosition("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+        assertNotEquals(white.zobristKey, black.zobristKey);
+    }
+
+    @Test
+    public void test03SwappedPiecesChangeKey() {
+        // same occupied squares, but the pieces swapped roles
+        Position p1 = Position.fenToPosition("4k3/8/8/3Nb3/8/8/8/4K3 w - - 0 1");
+        Position p2 = Position.fenToPosition("4k3/8/8/3Bn3/8/8/8/4K3 w - - 0 1");
+
+        assertNotEquals(p1.zobristKey, p2.zobristKey);
+    }
+
+    @Test
+    public void test04IncrementalMakeMove() {
+        Position position = Position.startingPosition();
+        // play the first generated move for each side
+        for (int i = 0; i < 6; i++) {
+            int move = position.getLegalMoves().get(0);
+            position = position.makeMove(move);
+            assertEquals(fullKey(position), position.zobristKey);
+        }
+    }
+
+    @Test
+    public void test05IncrementalAlgebraMoves() {
+        Position position = Position.startingPosition();
+        String[] moves = {"e2e4", "d7d5", "e4d5", "g8f6", "g1f3", "f6d5", "f1c4", "c8g4", "e1g1"};
+        for (String move : moves) {
+            position = MoveConversion.applyAlgebraMoves(move + " ", position.getLegalMoves(), position);
+            assertEquals(fullKey(position), position.zobristKey);
+        }
+    }
+
+    @Test
+    public void test06TranspositionsHaveSameKey() {
+        Position start = Position.startingPosition();
+        Position p1 = start;
+        for (String move : new String[]{"g1f3", "g8f6", "b1c3", "b8c6"}) {
+            p1 = MoveConversion.applyAlgebraMoves(move + " ", p1.getLegalMoves(), p1);
+        }
+        Position p2 = start;
+        for (String move : new String[]{"b1c3", "b8c6", "g1f3", "g8f6"}) {
+            p2 = MoveConversion.applyAlgebraMoves(move + " ", p2.getLegalMoves(), p2);
+        }
+
+        assertEquals(p1, p2);
+        assertEquals(p1.zobristKey, p2.zobristKey);
+    }
+
+}
@@ -0,0 +1,74 @@
+package chess.engine;
+
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Node counts from the standard perft positions,
+ * see <a href="https://www.chessprogramming.org/Perft_Results">Perft Results</a>.
+ */
+public class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    private static final Perft SEQUENTIAL = new Perft(false, 0);
+
+    @Test
+    public void test01StartPosition() {
+        Position position = Position.startingPosition();
+        assertEquals(1, SEQUENTIAL.perft(position, 0));
+        assertEquals(20, SEQUENTIAL.perft(position, 1));
+        assertEquals(400, SEQUENTIAL.perft(position, 2));
+        assertEquals(8902, SEQUENTIAL.perft(position, 3));
+        assertEquals(197281, SEQUENTIAL.perft(position, 4));
+    }
+
+    @Test
+    public void test02Kiwipete() {
+        Position position = Position.fenToPosition(KIWIPETE);
+        assertEquals(48, SEQUENTIAL.perft(position, 1));
+        assertEquals(2039, SEQUENTIAL.perft(position, 2));
+        assertEquals(97862, SEQUENTIAL.perft(position, 3));
+    }
+
+    @Test
+    public void test03EndgameWithEnPassant() {
+        Position position = Position.fenToPosition(POSITION_3);
+        assertEquals(14, SEQUENTIAL.perft(position, 1));
+        assertEquals(191, SEQUENTIAL.perft(position, 2));
+        assertEquals(2812, SEQUENTIAL.perft(position, 3));
+        assertEquals(43238, SEQUENTIAL.perft(position, 4));
+    }
+
+    @Test
+    public void test04PromotionsAndChecks() {
+        assertEquals(9467, SEQUENTIAL.perft(Position.fenToPosition(POSITION_4), 3));
+        assertEquals(62379, SEQUENTIAL.perft(Position.fenToPosition(POSITION_5), 3));
+    }
+
+    @Test
+    public void test05ParallelAndHashedModes() {
+        Position position = Position.fenToPosition(KIWIPETE);
+        assertEquals(97862, new Perft(true, 0).perft(position, 3));
+        assertEquals(97862, new Perft(false, 4).perft(position, 3));
+        assertEquals(97862, new Perft(true, 4).perft(position, 3));
+    }
+
+    @Test
+    public void test06Divide() {
+        Position position = Position.startingPosition();
+        long[] counts = SEQUENTIAL.divide(position, 3);
+        assertEquals(20, counts.length);
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        assertEquals(8902, total);
+    }
+
+}
@@ -0,0 +1,54 @@
+package chess.engine;
+
+import chess.moves.bestmove.MoveGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScalingBenchmarkTest {
+
+    @Test
+    public void test01ThreadCounts() {
+        assertEquals(List.of(1), ScalingBenchmark.threadCounts(1));
+        assertEquals(List.of(1, 2, 4), ScalingBenchmark.threadCounts(4));
+        assertEquals(List.of(1, 2, 4, 6), ScalingBenchmark.threadCounts(6));
+    }
+
+    @Test
+    public void test02Csv() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ScalingBenchmark.run(new PrintStream(bytes, true), 2, 2, List.of(MoveGeneration.Algorithm.ROOT_SPLIT));
+        String[] lines = bytes.toString().trim().split("\\R");
+
+        // a header, then one row per position and number of threads
+        assertEquals(ScalingBenchmark.HEADER, lines[0]);
+        assertEquals(1 + ScalingBenchmark.POSITIONS.length * 2, lines.length);
+        int columns = ScalingBenchmark.HEADER.split(",").length;
+        for (int i = 1; i < lines.length; i++) {
+            String[] row = lines[i].split(",");
+            assertEquals(columns, row.length);
+            assertEquals("RootSplit", row[0]);
+            assertEquals("true", row[columns - 2], lines[i]);
+            assertEquals("true", row[columns - 1], lines[i]);
+        }
+        // the last position is a mate in 1
+        assertEquals(String.valueOf(MATE_VALUE - 1), lines[lines.length - 1].split(",")[columns - 3]);
+        // the options are restored
+        assertEquals(DEFAULT_THREADS, MoveGeneration.getThreads());
+    }
+
+    @Test
+    public void test03SameScore() {
+        assertTrue(ScalingBenchmark.sameScore(35, 35));
+        assertFalse(ScalingBenchmark.sameScore(35, 36));
+        assertTrue(ScalingBenchmark.sameScore(MATE_VALUE - 3, MATE_VALUE - 3));
+        assertFalse(ScalingBenchmark.sameScore(MATE_VALUE - 1, MATE_VALUE - 3));
+        assertFalse(ScalingBenchmark.sameScore(MATE_VALUE - 1, -(MATE_VALUE - 1)));
+        assertFalse(ScalingBenchmark.sameScore(MATE_VALUE - 1, 500));
+    }
+}
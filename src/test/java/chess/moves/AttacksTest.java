@@ -0,0 +1,80 @@
+package chess.moves;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AttacksTest {
+
+    /**
+     * @return the squares reached from a square by the given (rank, file) steps, without wrapping
+     */
+    private static long steps(int square, int[][] steps) {
+        long result = 0L;
+        for (int[] step : steps) {
+            int rank = square / 8 + step[0];
+            int file = square % 8 + step[1];
+            if (rank >= 0 && rank < 8 && file >= 0 && file < 8) {
+                result |= 1L << (rank * 8 + file);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void test01KnightAndKingTables() {
+        int[][] knight = {{1, 2}, {2, 1}, {-1, 2}, {-2, 1}, {1, -2}, {2, -1}, {-1, -2}, {-2, -1}};
+        int[][] king = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        for (int square = 0; square < 64; square++) {
+            assertEquals(steps(square, knight), Attacks.KNIGHT[square], "knight on " + square);
+            assertEquals(steps(square, king), Attacks.KING[square], "king on " + square);
+        }
+    }
+
+    @Test
+    public void test02PawnTables() {
+        // rank index 0 is rank 8, so white pawns capture towards lower ranks
+        for (int square = 0; square < 64; square++) {
+            assertEquals(steps(square, new int[][]{{-1, -1}, {-1, 1}}), Attacks.PAWN[Attacks.WHITE][square]);
+            assertEquals(steps(square, new int[][]{{1, -1}, {1, 1}}), Attacks.PAWN[Attacks.BLACK][square]);
+            assertEquals(Attacks.PAWN[Attacks.WHITE][square], Attacks.whitePawnAttacks(1L << square));
+            assertEquals(Attacks.PAWN[Attacks.BLACK][square], Attacks.blackPawnAttacks(1L << square));
+        }
+    }
+
+    @Test
+    public void test03Between() {
+        int a1 = 56, a8 = 0, h8 = 7, b3 = 41, c3 = 42;
+        // a1-a8: a2 to a7
+        assertEquals(0x0001010101010100L, Attacks.BETWEEN[a1][a8]);
+        // a1-h8: b2 to g7
+        assertEquals(6, Long.bitCount(Attacks.BETWEEN[a1][h8]));
+        assertEquals(Attacks.BETWEEN[a1][h8], Attacks.BETWEEN[h8][a1]);
+        // neighbours and unaligned squares have nothing between them
+        assertEquals(0L, Attacks.BETWEEN[b3][c3]);
+        assertEquals(0L, Attacks.BETWEEN[a1][b3]);
+        // a1-c3 is a diagonal with b2 between
+        assertEquals(1L << 49, Attacks.BETWEEN[a1][c3]);
+    }
+
+    @Test
+    public void test04Line() {
+        int a1 = 56, c3 = 42, e5 = 28, b1 = 57;
+        assertEquals(constantsDiagonal(), Attacks.LINE[c3][e5]);
+        assertEquals(Attacks.LINE[a1][c3], Attacks.LINE[e5][c3]);
+        assertEquals(0xFF00000000000000L, Attacks.LINE[a1][b1]);
+        assertEquals(0L, Attacks.LINE[b1][c3]);
+    }
+
+    /**
+     * @return the a1-h8 diagonal
+     */
+    private static long constantsDiagonal() {
+        long diagonal = 0L;
+        for (int i = 0; i < 8; i++) {
+            diagonal |= 1L << ((7 - i) * 8 + i);
+        }
+        return diagonal;
+    }
+
+}
@@ -0,0 +1,53 @@
+package chess.moves;
+
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveBuffersTest {
+
+    @Test
+    public void test01PushReusesLists() {
+        MoveBuffers buffers = MoveBuffers.get();
+        MoveList first = buffers.push();
+        first.add(PackedMove.of(52, 36, PackedMove.DOUBLE_PAWN_PUSH));
+        buffers.pop();
+
+        MoveList again = buffers.push();
+        buffers.pop();
+        assertSame(first, again);
+        assertEquals(0, again.size());
+    }
+
+    @Test
+    public void test02NestedPliesUseDifferentLists() {
+        MoveBuffers buffers = MoveBuffers.get();
+        MoveList ply1 = buffers.push();
+        MoveList ply2 = buffers.push();
+        buffers.pop();
+        buffers.pop();
+        assertNotSame(ply1, ply2);
+    }
+
+    @Test
+    public void test03ThreadsHaveOwnBuffers() throws InterruptedException {
+        MoveBuffers[] other = new MoveBuffers[1];
+        Thread thread = new Thread(() -> other[0] = MoveBuffers.get());
+        thread.start();
+        thread.join();
+        assertNotSame(MoveBuffers.get(), other[0]);
+    }
+
+    @Test
+    public void test04GenerateIntoBufferMatchesLegalMoves() {
+        Position position = Position.startingPosition();
+        MoveBuffers buffers = MoveBuffers.get();
+        MoveList moves = buffers.push();
+        position.generateMoves(moves);
+        buffers.pop();
+        assertEquals(position.getLegalMoves().toString(), moves.toString());
+        assertEquals(20, moves.size());
+    }
+
+}
@@ -0,0 +1,53 @@
+package chess.moves;
+
+import chess.board.Board;
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrderingTest {
+
+    @Test
+    public void test01MostValuableVictimFirst() {
+        // the pawn on d4 can take the queen on e5 or the knight on c5; the rook on e1 can take the queen too
+        Board board = new Board(Position.fenToPosition("4k3/8/8/2n1q3/3P4/8/8/4RK2 w - - 0 1"));
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+
+        assertEquals(PackedMove.of(35, 28, PackedMove.CAPTURE), moves.get(0)); // dxe5
+        assertEquals(PackedMove.of(60, 28, PackedMove.CAPTURE), moves.get(1)); // Rxe5
+        assertEquals(PackedMove.of(35, 26, PackedMove.CAPTURE), moves.get(2)); // dxc5
+        assertFalse(PackedMove.isCapture(moves.get(3)));
+    }
+
+    @Test
+    public void test02Promotions() {
+        Board board = new Board(Position.fenToPosition("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1"));
+        int queen = PackedMove.of(8, 0, PackedMove.PROMOTION_QUEEN);
+        int knight = PackedMove.of(8, 0, PackedMove.PROMOTION_KNIGHT);
+        int captureQueen = PackedMove.of(8, 1, PackedMove.PROMOTION_QUEEN | PackedMove.CAPTURE);
+
+        assertTrue(MoveOrdering.scoreNoisy(board, captureQueen) > MoveOrdering.scoreNoisy(board, queen));
+        assertTrue(MoveOrdering.scoreNoisy(board, queen) > MoveOrdering.scoreNoisy(board, knight));
+        assertTrue(MoveOrdering.scoreNoisy(board, knight) > MoveOrdering.QUIET_SCORE);
+    }
+
+    @Test
+    public void test03PickBest() {
+        MoveList moves = new MoveList();
+        int[] scores = {5, 40, 10, 40, 0};
+        for (int i = 0; i < scores.length; i++) {
+            moves.add(i + 1);
+            moves.setScore(i, scores[i]);
+        }
+
+        // highest first, ties in the order they were added
+        assertEquals(2, moves.pickBest(0));
+        assertEquals(4, moves.pickBest(1));
+        assertEquals(3, moves.pickBest(2));
+        assertEquals(1, moves.pickBest(3));
+        assertEquals(5, moves.pickBest(4));
+    }
+
+}
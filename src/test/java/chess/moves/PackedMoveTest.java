@@ -0,0 +1,63 @@
+package chess.moves;
+
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedMoveTest {
+
+    @Test
+    public void test01Fields() {
+        // e2 = 52, e4 = 36
+        int move = PackedMove.of(52, 36, PackedMove.DOUBLE_PAWN_PUSH);
+
+        assertEquals(52, PackedMove.from(move));
+        assertEquals(36, PackedMove.to(move));
+        assertTrue(PackedMove.isDoublePawnPush(move));
+        assertFalse(PackedMove.isCapture(move));
+        assertFalse(PackedMove.isPromotion(move));
+        assertEquals("e2e4", PackedMove.toAlgebraicNotation(move));
+    }
+
+    @Test
+    public void test02Promotions() {
+        // g7 = 14, h8 = 7
+        int white = PackedMove.of(14, 7, PackedMove.PROMOTION_KNIGHT | PackedMove.CAPTURE);
+        // b2 = 49, b1 = 57
+        int black = PackedMove.of(49, 57, PackedMove.PROMOTION_QUEEN);
+
+        assertTrue(PackedMove.isPromotion(white));
+        assertTrue(PackedMove.isCapture(white));
+        assertEquals('N', PackedMove.promotionPiece(white));
+        assertEquals('q', PackedMove.promotionPiece(black));
+        assertEquals("g7h8n", PackedMove.toAlgebraicNotation(white));
+        assertEquals(new Move(1, 6, 0, 7, 'N'), PackedMove.toMove(white));
+        assertEquals(new Move(6, 1, 7, 1, 'q'), PackedMove.toMove(black));
+    }
+
+    @Test
+    public void test03EnPassantAndCastling() {
+        int enPassant = PackedMove.of(27, 20, PackedMove.EN_PASSANT);
+        int castle = PackedMove.of(60, 62, PackedMove.KING_CASTLE);
+
+        assertTrue(PackedMove.isEnPassant(enPassant));
+        assertTrue(PackedMove.isCapture(enPassant));
+        assertEquals(new Move(3, 3, 2, 4, true), PackedMove.toMove(enPassant));
+        assertTrue(PackedMove.isCastling(castle));
+        assertFalse(PackedMove.isCapture(castle));
+        assertEquals("e1g1", PackedMove.toAlgebraicNotation(castle));
+    }
+
+    @Test
+    public void test04RoundTripThroughMove() {
+        Position position = Position.fenToPosition("r3k2r/1P6/8/3pP3/8/8/8/R3K2R w KQkq d 0 1");
+        MoveList moves = position.getLegalMoves();
+        assertTrue(moves.size() > 0);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            assertEquals(move, PackedMove.fromMove(PackedMove.toMove(move), position));
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package chess.moves;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SliderAttacksTest {
+
+    @Test
+    public void test01SelfCheck() {
+        assertDoesNotThrow(SliderAttacks::selfCheck);
+    }
+
+    @Test
+    public void test02RookEmptyBoard() {
+        // rook on a1 sees the whole first rank and a-file
+        int a1 = 56;
+        long attacks = SliderAttacks.rookAttacks(a1, 1L << a1);
+        assertEquals(14, Long.bitCount(attacks));
+        assertEquals(SliderAttacks.classicRookAttacks(a1, 1L << a1), attacks);
+    }
+
+    @Test
+    public void test03BlockersIncluded() {
+        // bishop on d4 blocked on f6 and b2; the blockers are attacked
+        int d4 = 35;
+        int f6 = 21;
+        int b2 = 49;
+        long occupied = (1L << d4) | (1L << f6) | (1L << b2);
+        long attacks = SliderAttacks.bishopAttacks(d4, occupied);
+        assertEquals(1L << f6, attacks & (1L << f6));
+        assertEquals(0L, attacks & (1L << 14)); // g7 is behind the blocker
+        assertEquals(1L << b2, attacks & (1L << b2));
+        assertEquals(0L, attacks & (1L << 56)); // a1 is behind the blocker
+    }
+
+    @Test
+    public void test04BackendsAgreeOnRandomBoards() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long occupied = random.nextLong() & random.nextLong();
+            int square = random.nextInt(64);
+            assertEquals(SliderAttacks.classicRookAttacks(square, occupied),
+                    SliderAttacks.magicRookAttacks(square, occupied));
+            assertEquals(SliderAttacks.classicRookAttacks(square, occupied),
+                    SliderAttacks.pextRookAttacks(square, occupied));
+            assertEquals(SliderAttacks.classicBishopAttacks(square, occupied),
+                    SliderAttacks.magicBishopAttacks(square, occupied));
+            assertEquals(SliderAttacks.classicBishopAttacks(square, occupied),
+                    SliderAttacks.pextBishopAttacks(square, occupied));
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AbdadaTest {
+
+    private static final long KEY = 0x1234_5678_9ABC_DEF0L;
+
+    @Test
+    public void test01BusyMarks() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertFalse(table.isBusy(KEY));
+        table.markBusy(KEY);
+        assertTrue(table.isBusy(KEY));
+        // another key in the same slot takes the mark over, and isn't cleared by the first key
+        long other = KEY ^ (1L << 40);
+        table.markBusy(other);
+        assertFalse(table.isBusy(KEY));
+        table.clearBusy(KEY);
+        assertTrue(table.isBusy(other));
+        table.clearBusy(other);
+        assertFalse(table.isBusy(other));
+    }
+
+    @Test
+    public void test02MateInOne() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = Abdada.search(position, SearchLimits.depth(4), 3);
+        assertEquals("a1a8", result.toMove().toAlgebraicNotation());
+    }
+
+    @Test
+    public void test03SameAsSequentialOnOneThread() {
+        // without other threads nothing is busy, so the search is the sequential alpha-beta search
+        Position position = Position.fenToPosition(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult sequential = IterativeDeepening.search(position, SearchLimits.depth(4),
+                SequentialAlphaBeta::search);
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult abdada = IterativeDeepening.search(position, SearchLimits.depth(4), Abdada::search);
+
+        assertEquals(sequential.move, abdada.move);
+        assertEquals(sequential.score, abdada.score);
+    }
+
+    @Test
+    public void test04ThreadCounts() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult result = Abdada.search(Position.startingPosition(), SearchLimits.depth(5), 2);
+        assertNotEquals(PackedMove.NONE, result.move);
+        assertTrue(SearchStatistics.activeThreads() >= 1);
+        assertTrue(SearchStatistics.threadSummary().startsWith("threads "));
+    }
+
+    @Test
+    public void test05MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate; the threads share mate scores through the table
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = Abdada.search(position, SearchLimits.depth(5), 3);
+        assertEquals(MATE_VALUE - 3, result.score);
+        assertEquals(2, Evaluation.mateMoves(result.score));
+    }
+
+    @Test
+    public void test06OwnRootMove() {
+        // a deeper root entry, as if stored by another thread, only orders the moves
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        MoveGeneration.transpositionTable.clear();
+        int other = PackedMove.of(62, 63, PackedMove.QUIET);
+        MoveGeneration.transpositionTable.store(position.zobristKey, 10, TranspositionTable.EXACT, 0, other);
+        SearchControl.start();
+        SearchResult result = Abdada.search(position, 3);
+
+        assertEquals("a1a8", result.toMove().toAlgebraicNotation());
+        assertEquals(MATE_VALUE - 1, result.score);
+        assertEquals(result.move, result.pv[0]);
+    }
+
+    @Test
+    public void test07BusyMarksSizedWithTable() {
+        // one mark per bucket: keys that only differ above the bucket bits share a mark, others don't
+        TranspositionTable table = new TranspositionTable(16);
+        long apart = KEY ^ (1L << 16);
+        table.markBusy(KEY);
+        table.markBusy(apart);
+        assertTrue(table.isBusy(KEY));
+        assertTrue(table.isBusy(apart));
+
+        table.clear();
+        assertFalse(table.isBusy(KEY));
+        assertFalse(table.isBusy(apart));
+    }
+}
@@ -0,0 +1,66 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazySMPTest {
+
+    @Test
+    public void test01MateInOne() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = LazySMP.search(position, SearchLimits.depth(3), 4);
+        assertEquals("a1a8", result.toMove().toAlgebraicNotation());
+    }
+
+    @Test
+    public void test02HelpersStopWithMainThread() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult result = LazySMP.search(position, SearchLimits.depth(4), 3);
+
+        assertTrue(position.getLegalMoves().contains(result.move));
+        // the helpers are stopped, but not as if the GUI had sent "stop"
+        assertTrue(SearchControl.isStopped());
+        assertFalse(SearchControl.isPondering());
+        // every helper has finished, so no thread is counting nodes any more
+        long nodes = SearchStatistics.totalNodes();
+        assertEquals(nodes, SearchStatistics.totalNodes());
+    }
+
+    @Test
+    public void test03SingleThread() {
+        // with one thread the result is the sequential search's; not in the starting position, where
+        // many moves score the same and the history tables of earlier searches decide which comes first
+        Position position = Position.fenToPosition(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult parallel = LazySMP.search(position, SearchLimits.depth(4), 1);
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult sequential = IterativeDeepening.search(position, SearchLimits.depth(4),
+                PrincipalVariationSearch::search);
+
+        assertEquals(sequential.move, parallel.move);
+        assertEquals(sequential.score, parallel.score);
+    }
+
+    @Test
+    public void test04MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = LazySMP.search(position, SearchLimits.depth(5), 4);
+        assertEquals(MATE_VALUE - 3, result.score);
+        assertEquals(2, Evaluation.mateMoves(result.score));
+    }
+}
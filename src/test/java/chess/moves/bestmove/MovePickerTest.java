@@ -0,0 +1,90 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Position;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovePickerTest {
+
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/1P4P1/8/8/8/8/1p4p1/R3K2R b KQkq - 0 1",
+            "4r1k1/8/8/8/8/8/3N4/1B2K3 w - - 0 1",
+    };
+
+    /**
+     * @return every move the picker hands out, in order
+     */
+    private static List<Integer> pickAll(Board board, int hashMove, int killer1, int killer2) {
+        MovePicker picker = new MovePicker(board, new MoveList(), hashMove, killer1, killer2);
+        List<Integer> picked = new ArrayList<>();
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    @Test
+    public void test01SameMovesAsGenerator() {
+        for (String fen : FENS) {
+            Board board = new Board(Position.fenToPosition(fen));
+            MoveList legal = new MoveList();
+            board.generateLegalMoves(legal);
+
+            List<Integer> picked = pickAll(board, PackedMove.NONE, PackedMove.NONE, PackedMove.NONE);
+            assertEquals(legal.size(), picked.size(), fen);
+            for (int i = 0; i < legal.size(); i++) {
+                assertTrue(picked.contains(legal.get(i)), fen);
+            }
+        }
+    }
+
+    @Test
+    public void test02Stages() {
+        Board board = new Board(Position.fenToPosition(FENS[1]));
+        int hashMove = PackedMove.of(45, 21, PackedMove.QUIET); // Qf3f6 is a capture, not a quiet move
+        int quietHash = PackedMove.of(45, 37, PackedMove.QUIET); // Qf3f4
+        int killer = PackedMove.of(54, 46, PackedMove.QUIET); // g2g3
+        assertFalse(board.isLegal(hashMove));
+
+        List<Integer> picked = pickAll(board, quietHash, killer, PackedMove.NONE);
+        assertEquals(quietHash, picked.get(0));
+
+        // captures come before the killer, which comes before the other quiet moves
+        int killerIndex = picked.indexOf(killer);
+        assertTrue(killerIndex > 0);
+        for (int i = 1; i < picked.size(); i++) {
+            int move = picked.get(i);
+            if (i < killerIndex) {
+                assertTrue(PackedMove.isCapture(move) || PackedMove.isPromotion(move));
+            } else if (i > killerIndex) {
+                assertFalse(PackedMove.isCapture(move) || PackedMove.isPromotion(move));
+            }
+        }
+        assertEquals(picked.size(), picked.stream().distinct().count());
+    }
+
+    @Test
+    public void test03IllegalHashAndKillers() {
+        // moves from another position are skipped, not played
+        Board board = new Board(Position.fenToPosition(FENS[3]));
+        int illegal = PackedMove.of(51, 36, PackedMove.CAPTURE);
+        int pinned = PackedMove.of(57, 50, PackedMove.QUIET); // Bb1c2 doesn't stop the check
+        List<Integer> picked = pickAll(board, illegal, pinned, illegal);
+        assertFalse(picked.contains(illegal));
+        assertFalse(picked.contains(pinned));
+
+        MoveList legal = new MoveList();
+        board.generateLegalMoves(legal);
+        assertEquals(legal.size(), picked.size());
+    }
+
+}
@@ -0,0 +1,103 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalVariationSearchTest {
+
+    private static final Position KIWIPETE = Position.fenToPosition(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+    @Test
+    public void test01MateInOne() {
+        MoveGeneration.transpositionTable.clear();
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("a1a8", PrincipalVariationSearch.find(position, 3).toAlgebraicNotation());
+        SearchResult result = PrincipalVariationSearch.search(position, 3);
+        assertEquals(MATE_VALUE - 1, result.score);
+        assertEquals(1, Evaluation.mateMoves(result.score));
+    }
+
+    @Test
+    public void test02MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate; the scores found at every depth
+        // go through the transposition table, which has to keep them counted from the root
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5),
+                PrincipalVariationSearch::search);
+        assertTrue(Evaluation.isMate(result.score));
+        assertEquals(2, Evaluation.mateMoves(result.score));
+        assertEquals(3, result.pv.length);
+    }
+
+    @Test
+    public void test03GettingMated() {
+        // black's only move is Kb8, then Rh8 is mate
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/1K6/8/8/8/8/7R b - - 0 1");
+        SearchResult result = PrincipalVariationSearch.search(position, 4);
+        assertEquals("a8b8", PackedMove.toAlgebraicNotation(result.move));
+        // white's point of view: white mates
+        assertEquals(MATE_VALUE - 2, result.score);
+        assertEquals(-1, Evaluation.mateMoves(-result.score));
+    }
+
+    @Test
+    public void test04SameAsFullWindow() {
+        // the zero-window searches and re-searches give the same result as the full-window alpha-beta
+        // of Abdada.java, which on one thread defers no moves
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult sequential = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4), Abdada::search);
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult pvs = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4),
+                PrincipalVariationSearch::search);
+
+        assertEquals(sequential.move, pvs.move);
+        assertEquals(sequential.score, pvs.score);
+    }
+
+    @Test
+    public void test05PrincipalVariation() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult result = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(5),
+                PrincipalVariationSearch::search);
+
+        // the whole variation is collected, as a line of legal moves starting with the best move
+        assertEquals(5, result.pv.length);
+        assertEquals(result.move, result.pv[0]);
+        assertEquals(result.pv[1], result.ponder);
+        Board board = new Board(KIWIPETE);
+        for (int move : result.pv) {
+            MoveList moves = new MoveList();
+            board.generateLegalMoves(moves);
+            assertTrue(moves.contains(move), PackedMove.toAlgebraicNotation(move));
+            board.make(move);
+        }
+    }
+
+    @Test
+    public void test06NoMoves() {
+        SearchControl.start();
+        Position mated = Position.fenToPosition("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = PrincipalVariationSearch.search(mated, 2);
+        assertEquals(PackedMove.NONE, result.move);
+        assertEquals(MATE_VALUE, result.score);
+
+        Position stalemate = Position.fenToPosition("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertEquals(0, PrincipalVariationSearch.search(stalemate, 2).score);
+    }
+
+}
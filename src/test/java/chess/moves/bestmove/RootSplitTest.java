@@ -0,0 +1,65 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RootSplitTest {
+
+    private static final Position KIWIPETE = Position.fenToPosition(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+    @Test
+    public void test01MateInOne() {
+        MoveGeneration.transpositionTable.clear();
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("a1a8", RootSplit.find(position, 3).toAlgebraicNotation());
+    }
+
+    @Test
+    public void test02SameAsSequential() {
+        // the zero-window tests and re-searches give the same result as the full-window search
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult sequential = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4),
+                SequentialAlphaBeta::search);
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        SearchResult split = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4), RootSplit::search);
+
+        assertEquals(sequential.move, split.move);
+        assertEquals(sequential.score, split.score);
+    }
+
+    @Test
+    public void test03ManyThreads() {
+        MoveGeneration.setThreads(3);
+        try {
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            SearchResult result = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4), RootSplit::search);
+            assertTrue(KIWIPETE.getLegalMoves().contains(result.move));
+        } finally {
+            MoveGeneration.setThreads(DEFAULT_THREADS);
+        }
+    }
+
+    @Test
+    public void test04MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate
+        MoveGeneration.setThreads(3);
+        try {
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+            SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5), RootSplit::search);
+            assertEquals(MATE_VALUE - 3, result.score);
+            assertEquals(2, Evaluation.mateMoves(result.score));
+        } finally {
+            MoveGeneration.setThreads(DEFAULT_THREADS);
+        }
+    }
+}
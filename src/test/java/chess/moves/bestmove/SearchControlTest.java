@@ -0,0 +1,93 @@
+package chess.moves.bestmove;
+
+import chess.board.Position;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchControlTest {
+
+    @Test
+    public void test01StopFromAnotherThread() throws Exception {
+        SearchControl.start();
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(() ->
+                IterativeDeepening.search(Position.startingPosition(), SearchLimits.parse("go infinite"),
+                        SequentialAlphaBeta::search));
+        Thread.sleep(300);
+        assertFalse(search.isDone());
+
+        long start = System.nanoTime();
+        SearchControl.stop();
+        SearchResult result = search.get(2, TimeUnit.SECONDS);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(result.toMove());
+        assertTrue(elapsed < 500, "took " + elapsed + " ms to stop");
+    }
+
+    @Test
+    public void test02AwaitStop() throws Exception {
+        SearchControl.start();
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(SearchControl::awaitStop);
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+
+        SearchControl.stop();
+        waiting.get(1, TimeUnit.SECONDS);
+        assertTrue(SearchControl.isStopped());
+    }
+
+    @Test
+    public void test03PonderHit() throws Exception {
+        // while pondering the movetime doesn't count
+        SearchControl.start(true);
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(() ->
+                IterativeDeepening.search(Position.startingPosition(), SearchLimits.parse("go ponder movetime 100"),
+                        SequentialAlphaBeta::search));
+        Thread.sleep(300);
+        assertTrue(SearchControl.isPondering());
+        assertFalse(search.isDone());
+
+        // after ponderhit the search ends within its movetime
+        long start = System.nanoTime();
+        SearchControl.ponderhit();
+        SearchResult result = search.get(2, TimeUnit.SECONDS);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(SearchControl.isPondering());
+        assertNotNull(result.toMove());
+        assertTrue(elapsed < 500, "took " + elapsed + " ms after ponderhit");
+    }
+
+    @Test
+    public void test04PonderMove() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.startingPosition();
+        SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(4), SequentialAlphaBeta::search);
+
+        // the expected reply is a legal move of the other side
+        assertNotEquals(PackedMove.NONE, result.ponder);
+        assertTrue(position.makeMove(result.move).getLegalMoves().contains(result.ponder));
+    }
+
+    @Test
+    public void test05StoppedBeforeDepthOne() {
+        // a "stop" before the first iteration has searched anything still leaves a move, the first one,
+        // scored after it is made: the only move, Kxg2, wins the queen, which the position before it doesn't show
+        Position position = Position.fenToPosition("7k/8/8/8/8/8/6q1/7K w - - 0 1");
+        IterativeDeepening.RootSearch[] searches = {SequentialAlphaBeta::search, Abdada::search};
+        for (IterativeDeepening.RootSearch search : searches) {
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            SearchControl.stop();
+            SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(3), search);
+            assertEquals("h1g2", PackedMove.toAlgebraicNotation(result.move));
+            assertEquals(position.makeMove(result.move).getEvaluation(), result.score);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Position;
+import chess.moves.MoveList;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchHistoryTest {
+
+    private static final int G1F3 = PackedMove.of(62, 45, PackedMove.QUIET);
+    private static final int B1C3 = PackedMove.of(57, 42, PackedMove.QUIET);
+    private static final int E2E4 = PackedMove.of(52, 36, PackedMove.DOUBLE_PAWN_PUSH);
+    private static final int CAPTURE = PackedMove.of(36, 27, PackedMove.CAPTURE);
+    private static final int G8F6 = PackedMove.of(6, 21, PackedMove.QUIET);
+    private static final int E7E5 = PackedMove.of(12, 28, PackedMove.DOUBLE_PAWN_PUSH);
+
+    @Test
+    public void test01Killers() {
+        SearchHistory.newSearch();
+        SearchHistory history = SearchHistory.get();
+        Board board = new Board(Position.startingPosition());
+        history.startNode(0);
+        history.cutoff(board, 0, 4, G1F3);
+        history.cutoff(board, 0, 4, B1C3);
+        history.cutoff(board, 0, 4, B1C3);
+        history.cutoff(board, 0, 4, CAPTURE);
+
+        assertEquals(B1C3, history.killer1(0));
+        assertEquals(G1F3, history.killer2(0));
+        assertEquals(PackedMove.NONE, history.killer1(1));
+    }
+
+    @Test
+    public void test02HistoryBonusAndPenalty() {
+        SearchHistory.newSearch();
+        SearchHistory history = SearchHistory.get();
+        Board board = new Board(Position.startingPosition());
+        int before = history.score(true, E2E4);
+        history.startNode(0);
+        history.searched(0, G1F3);
+        history.searched(0, CAPTURE);
+        history.searched(0, E2E4);
+        history.cutoff(board, 0, 5, E2E4);
+
+        assertTrue(history.score(true, E2E4) > before);
+        assertTrue(history.score(true, G1F3) < 0);
+        assertEquals(0, history.score(false, E2E4));
+    }
+
+    @Test
+    public void test03GravityAndAging() {
+        SearchHistory.newSearch();
+        SearchHistory history = SearchHistory.get();
+        Board board = new Board(Position.startingPosition());
+        board.make(E2E4);
+        for (int i = 0; i < 1000; i++) {
+            history.startNode(1);
+            history.searched(1, G8F6);
+            history.cutoff(board, 1, 30, G8F6);
+        }
+        int score = history.score(false, G8F6);
+        assertTrue(score > 0 && score <= SearchHistory.MAX_HISTORY);
+
+        // a new search halves the scores and forgets the killers and counter moves
+        SearchHistory.newSearch();
+        history = SearchHistory.get();
+        assertEquals(score / 2, history.score(false, G8F6));
+        assertEquals(PackedMove.NONE, history.killer1(1));
+        assertEquals(PackedMove.NONE, history.counterMove(board));
+    }
+
+    @Test
+    public void test04CounterMoveAndContinuation() {
+        SearchHistory.newSearch();
+        SearchHistory history = SearchHistory.get();
+        Board board = new Board(Position.startingPosition());
+        board.make(E2E4);
+        history.startNode(1);
+        history.searched(1, G8F6);
+        history.searched(1, E7E5);
+        history.cutoff(board, 1, 6, E7E5);
+        assertEquals(E7E5, history.counterMove(board));
+
+        // after a different move, the butterfly history is the same but the continuation history isn't
+        int afterE4 = history.score(board, E7E5);
+        board.unmake();
+        board.make(G1F3);
+        assertEquals(PackedMove.NONE, history.counterMove(board));
+        assertTrue(history.score(board, E7E5) < afterE4);
+        assertEquals(history.score(false, E7E5), history.score(board, E7E5));
+    }
+
+    @Test
+    public void test05KillersAtTheSearchPly() {
+        // a board created for a node below the root starts at board ply 0, but its killers belong to the node's ply
+        SearchHistory.newSearch();
+        SearchHistory history = SearchHistory.get();
+        Board board = new Board(Position.startingPosition());
+        history.startNode(5);
+        history.searched(5, G1F3);
+        history.cutoff(board, 5, 3, G1F3);
+
+        assertEquals(G1F3, history.killer1(5));
+        assertEquals(PackedMove.NONE, history.killer1(0));
+        MovePicker picker = new MovePicker(board, new MoveList(), PackedMove.NONE, 5, history);
+        int move = picker.next();
+        while (move != PackedMove.NONE && picker.source() == MovePicker.NOISY) {
+            move = picker.next();
+        }
+        assertEquals(G1F3, move);
+        assertEquals(MovePicker.KILLER, picker.source());
+    }
+
+}
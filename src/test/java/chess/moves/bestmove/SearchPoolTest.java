@@ -0,0 +1,72 @@
+package chess.moves.bestmove;
+
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchPoolTest {
+
+    @Test
+    public void test01Resize() {
+        try {
+            SearchPool.resize(2);
+            ForkJoinPool pool = SearchPool.get();
+            assertEquals(2, pool.getParallelism());
+            assertNotSame(ForkJoinPool.commonPool(), pool);
+            // the same size keeps the same pool
+            SearchPool.resize(2);
+            assertSame(pool, SearchPool.get());
+            SearchPool.resize(3);
+            assertEquals(3, SearchPool.get().getParallelism());
+            assertTrue(pool.isShutdown());
+        } finally {
+            SearchPool.resize(DEFAULT_THREADS);
+        }
+    }
+
+    @Test
+    public void test02ThreadNames() {
+        String name = SearchPool.get().invoke(ForkJoinTask.adapt(() -> Thread.currentThread().getName()));
+        assertTrue(name.startsWith("search-"), name);
+    }
+
+    @Test
+    public void test03SizedByThreads() {
+        MoveGeneration.setThreads(2);
+        try {
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            MoveGeneration.search(Position.startingPosition(), SearchLimits.depth(2));
+            assertEquals(2, SearchPool.get().getParallelism());
+        } finally {
+            MoveGeneration.setThreads(DEFAULT_THREADS);
+            SearchPool.resize(DEFAULT_THREADS);
+        }
+    }
+
+    @Test
+    public void test04HelpersOnThePool() {
+        // one search thread needs no helpers, so no thread is started for them
+        assertNull(SearchPool.helpers(0));
+        try {
+            // the helpers of Lazy SMP run on the workers of the pool, which grows to the number of search threads
+            SearchPool.resize(1);
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            LazySMP.search(Position.startingPosition(), SearchLimits.depth(3), 3);
+            assertEquals(3, SearchPool.get().getParallelism());
+            assertSame(SearchPool.get(), SearchPool.helpers(2));
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                assertFalse(thread.getName().startsWith("helper-"), thread.getName());
+            }
+        } finally {
+            SearchPool.resize(DEFAULT_THREADS);
+        }
+    }
+
+}
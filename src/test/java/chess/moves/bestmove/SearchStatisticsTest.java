@@ -0,0 +1,30 @@
+package chess.moves.bestmove;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchStatisticsTest {
+
+    @Test
+    public void test01EndedThreadsDropped() throws InterruptedException {
+        SearchStatistics.reset();
+        SearchStatistics.get().node();
+        int registered = SearchStatistics.registeredThreads();
+
+        Thread thread = new Thread(() -> SearchStatistics.get().node());
+        thread.start();
+        thread.join();
+        // the ended thread's nodes count until the next reset, then the thread is forgotten
+        assertEquals(registered + 1, SearchStatistics.registeredThreads());
+        assertEquals(2, SearchStatistics.totalNodes());
+        SearchStatistics.reset();
+        // fewer still if a worker of an earlier search's pool has ended since
+        assertTrue(SearchStatistics.registeredThreads() <= registered);
+
+        // the calling thread is still alive and keeps its counters
+        SearchStatistics.get().node();
+        assertEquals(1, SearchStatistics.totalNodes());
+    }
+
+}
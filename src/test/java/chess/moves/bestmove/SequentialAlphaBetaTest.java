@@ -0,0 +1,36 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SequentialAlphaBetaTest {
+
+    @Test
+    public void test01MateInOne() {
+        // Ra8 is mate; taking nothing wins more material
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("a1a8", SequentialAlphaBeta.find(position, 2).toAlgebraicNotation());
+    }
+
+    @Test
+    public void test02NoMoves() {
+        Position position = Position.fenToPosition("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertEquals(null, SequentialAlphaBeta.find(position, 2));
+    }
+
+    @Test
+    public void test03MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5),
+                SequentialAlphaBeta::search);
+        assertEquals(MATE_VALUE - 3, result.score);
+        assertEquals(2, Evaluation.mateMoves(result.score));
+    }
+}
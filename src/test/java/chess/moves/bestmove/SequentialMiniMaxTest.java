@@ -0,0 +1,23 @@
+package chess.moves.bestmove;
+
+import chess.board.Board;
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.MoveBuffers;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SequentialMiniMaxTest {
+
+    @Test
+    public void test01MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        int score = SequentialMiniMax.max(new Board(position), 4, MoveBuffers.get());
+        assertEquals(MATE_VALUE - 3, score);
+        assertEquals(2, Evaluation.mateMoves(score));
+    }
+
+}
@@ -0,0 +1,73 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreadedMiniMaxTest {
+
+    private static final Position KIWIPETE = Position.fenToPosition(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+    @Test
+    public void test01EstimatedNodes() {
+        assertEquals(1, ThreadedMiniMax.estimatedNodes(30, 0));
+        assertEquals(30, ThreadedMiniMax.estimatedNodes(30, 2));
+        assertEquals(900, ThreadedMiniMax.estimatedNodes(30, 3));
+        assertEquals(ThreadedMiniMax.MIN_SPLIT_NODES, ThreadedMiniMax.estimatedNodes(30, 5));
+        // a narrow position needs more depth to be worth splitting
+        assertEquals(64, ThreadedMiniMax.estimatedNodes(4, 5));
+    }
+
+    @Test
+    public void test02PoliciesAgree() {
+        ThreadedMiniMax.SplitPolicy policy = ThreadedMiniMax.getSplitPolicy();
+        try {
+            SearchResult[] results = new SearchResult[2];
+            for (ThreadedMiniMax.SplitPolicy p : ThreadedMiniMax.SplitPolicy.values()) {
+                ThreadedMiniMax.setSplitPolicy(p);
+                MoveGeneration.transpositionTable.clear();
+                SearchControl.start();
+                results[p.ordinal()] = IterativeDeepening.search(KIWIPETE, SearchLimits.depth(4),
+                        ThreadedMiniMax::search);
+            }
+            assertEquals(results[0].move, results[1].move);
+            assertEquals(results[0].score, results[1].score);
+        } finally {
+            ThreadedMiniMax.setSplitPolicy(policy);
+        }
+    }
+
+    @Test
+    public void test03ForksCounted() {
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        IterativeDeepening.search(KIWIPETE, SearchLimits.depth(5), ThreadedMiniMax::search);
+        assertTrue(SearchStatistics.totalForks() > 0);
+        assertTrue(SearchStatistics.forkSummary().startsWith("split "));
+    }
+
+    @Test
+    public void test04MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate; with either policy the split nodes,
+        // which search on positions, and the sequential subtrees score the mate the same
+        ThreadedMiniMax.SplitPolicy policy = ThreadedMiniMax.getSplitPolicy();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        try {
+            for (ThreadedMiniMax.SplitPolicy p : ThreadedMiniMax.SplitPolicy.values()) {
+                ThreadedMiniMax.setSplitPolicy(p);
+                MoveGeneration.transpositionTable.clear();
+                SearchControl.start();
+                SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5),
+                        ThreadedMiniMax::search);
+                assertEquals(MATE_VALUE - 3, result.score, p.name());
+                assertEquals(2, Evaluation.mateMoves(result.score));
+            }
+        } finally {
+            ThreadedMiniMax.setSplitPolicy(policy);
+        }
+    }
+}
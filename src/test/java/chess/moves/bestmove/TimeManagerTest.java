@@ -0,0 +1,73 @@
+package chess.moves.bestmove;
+
+import chess.board.Position;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeManagerTest {
+
+    @Test
+    public void test01ParseLimits() {
+        SearchLimits limits = SearchLimits.parse("go wtime 60000 btime 45000 winc 1000 binc 500 movestogo 20");
+        assertEquals(60000, limits.whiteTime);
+        assertEquals(45000, limits.blackTime);
+        assertEquals(1000, limits.whiteIncrement);
+        assertEquals(500, limits.blackIncrement);
+        assertEquals(20, limits.movesToGo);
+        assertTrue(limits.isTimed());
+        assertEquals(MAX_SEARCH_DEPTH, limits.maxDepth());
+
+        assertEquals(MAX_DEPTH, SearchLimits.parse("go").maxDepth());
+        assertEquals(3, SearchLimits.parse("go depth 3").maxDepth());
+        assertFalse(SearchLimits.parse("go infinite").isTimed());
+        assertEquals(250, SearchLimits.parse("go movetime 250 depth x").moveTime);
+    }
+
+    @Test
+    public void test02Budgets() {
+        TimeManager time = new TimeManager(SearchLimits.parse("go wtime 60000 btime 1000 winc 1000"), true);
+        assertTrue(time.getSoftLimit() > 60000 / TimeManager.DEFAULT_MOVES_TO_GO);
+        assertTrue(time.getHardLimit() > time.getSoftLimit());
+        assertTrue(time.getHardLimit() < 60000);
+
+        // black has less time left, and movestogo 1 may use all of it but the overhead
+        TimeManager black = new TimeManager(SearchLimits.parse("go wtime 60000 btime 1000 movestogo 1"), false);
+        assertEquals(1000 - TimeManager.MOVE_OVERHEAD, black.getHardLimit());
+
+        TimeManager moveTime = new TimeManager(SearchLimits.parse("go movetime 500"), true);
+        assertEquals(moveTime.getSoftLimit(), moveTime.getHardLimit());
+
+        TimeManager depth = new TimeManager(SearchLimits.depth(4), true);
+        assertFalse(depth.isTimed());
+        assertTrue(depth.shouldStartIteration());
+    }
+
+    @Test
+    public void test03TimedSearch() {
+        // a short clock still completes depth 1 and returns within the hard limit
+        Position position = Position.startingPosition();
+        SearchLimits limits = SearchLimits.parse("go movetime 200");
+        long start = System.nanoTime();
+        SearchControl.start();
+        SearchResult result = IterativeDeepening.search(position, limits, SequentialAlphaBeta::search);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(result.toMove());
+        assertTrue(elapsed < 1000, "took " + elapsed + " ms");
+    }
+
+    @Test
+    public void test04OtherSideClockOnly() {
+        // black to move, but only white's clock was given: black budgets with it instead of moving at once
+        SearchLimits limits = SearchLimits.parse("go wtime 60000 winc 1000");
+        TimeManager black = new TimeManager(limits, false);
+        TimeManager white = new TimeManager(limits, true);
+        assertTrue(black.isTimed());
+        assertEquals(white.getSoftLimit(), black.getSoftLimit());
+        assertEquals(white.getHardLimit(), black.getHardLimit());
+        assertTrue(black.getSoftLimit() > 60000 / TimeManager.DEFAULT_MOVES_TO_GO);
+    }
+
+}
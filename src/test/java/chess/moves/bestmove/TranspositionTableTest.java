@@ -0,0 +1,157 @@
+package chess.moves.bestmove;
+
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void test01StoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        table.store(key, 5, TranspositionTable.LOWER_BOUND, -250, 1234);
+
+        long data = table.probe(key);
+        assertNotEquals(TranspositionTable.NO_ENTRY, data);
+        assertEquals(5, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data));
+        assertEquals(-250, TranspositionTable.score(data));
+        assertEquals(1234, TranspositionTable.move(data));
+    }
+
+    @Test
+    public void test02MissingKey() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 3, TranspositionTable.EXACT, 10, 0);
+
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(43L));
+    }
+
+    @Test
+    public void test03ExtremeScores() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(1L, 1, TranspositionTable.UPPER_BOUND, Integer.MIN_VALUE, 0);
+        table.store(2L, 1, TranspositionTable.LOWER_BOUND, Integer.MAX_VALUE, 0);
+
+        assertEquals(Integer.MIN_VALUE, TranspositionTable.score(table.probe(1L)));
+        assertEquals(Integer.MAX_VALUE, TranspositionTable.score(table.probe(2L)));
+    }
+
+    @Test
+    public void test04ReplacementKeepsDeepEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        // keys with the same low bits land in the same bucket
+        long bucketStride = 1L << 32;
+        for (int i = 0; i < 4; i++) {
+            table.store(7L + i * bucketStride, 10 + i, TranspositionTable.EXACT, i, 0);
+        }
+        // a shallow entry replaces the shallowest one
+        table.store(7L + 4 * bucketStride, 1, TranspositionTable.EXACT, 4, 0);
+
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(7L));
+        for (int i = 1; i <= 4; i++) {
+            assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(7L + i * bucketStride));
+        }
+    }
+
+    @Test
+    public void test05OldEntriesAreReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        long bucketStride = 1L << 32;
+        table.store(9L, 20, TranspositionTable.EXACT, 0, 0);
+        table.newSearch();
+        table.newSearch();
+        table.newSearch();
+        for (int i = 1; i < 4; i++) {
+            table.store(9L + i * bucketStride, 5, TranspositionTable.EXACT, i, 0);
+        }
+        table.store(9L + 4 * bucketStride, 5, TranspositionTable.EXACT, 4, 0);
+
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(9L));
+    }
+
+    @Test
+    public void test06SameKeyKeepsBestMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(5L, 2, TranspositionTable.EXACT, 0, 777);
+        table.store(5L, 3, TranspositionTable.UPPER_BOUND, -10, 0);
+
+        long data = table.probe(5L);
+        assertEquals(3, TranspositionTable.depth(data));
+        assertEquals(777, TranspositionTable.move(data));
+    }
+
+    @Test
+    public void test07CutoffAndBounds() {
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.boundOf(-5, -5, 5));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.boundOf(5, -5, 5));
+        assertEquals(TranspositionTable.EXACT, TranspositionTable.boundOf(0, -5, 5));
+
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(11L, 4, TranspositionTable.LOWER_BOUND, 100, 0);
+        long data = table.probe(11L);
+        assertTrue(TranspositionTable.isCutoff(data, 4, 0, 50));
+        assertFalse(TranspositionTable.isCutoff(data, 4, 0, 200));
+        assertFalse(TranspositionTable.isCutoff(data, 5, 0, 50));
+    }
+
+    @Test
+    public void test08Hashfull() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.hashfull());
+        for (long key = 0; key < 1 << 16; key++) {
+            table.store(key, 1, TranspositionTable.EXACT, 0, 0);
+        }
+        assertEquals(1000, table.hashfull());
+        table.newSearch();
+        assertEquals(0, table.hashfull());
+    }
+
+    @Test
+    public void test09ConcurrentWritersNeverCorrupt() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        Thread[] threads = new Thread[4];
+        boolean[] corrupt = new boolean[1];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    // every thread writes the same keys with its own data; score always equals key
+                    long key = (i % 512) * 0x9E3779B97F4A7C15L;
+                    table.store(key, id, TranspositionTable.EXACT, (int) key, id);
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.NO_ENTRY && TranspositionTable.score(data) != (int) key) {
+                        corrupt[0] = true;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(corrupt[0]);
+    }
+
+    @Test
+    public void test10MateScoresCountedFromNode() {
+        // white mates 3 plies below a node at ply 2: mate in 5 plies from the root, in 3 from the node
+        assertEquals(MATE_VALUE - 3, TranspositionTable.toTable(MATE_VALUE - 5, 2));
+        assertEquals(MATE_VALUE - 5, TranspositionTable.fromTable(MATE_VALUE - 3, 2));
+        // reached at ply 4 instead, the same node is mate in 7 plies from the root
+        assertEquals(MATE_VALUE - 7, TranspositionTable.fromTable(MATE_VALUE - 3, 4));
+        assertEquals(-(MATE_VALUE - 7), TranspositionTable.fromTable(-(MATE_VALUE - 3), 4));
+        // other scores are stored as they are
+        assertEquals(-250, TranspositionTable.toTable(-250, 6));
+        assertEquals(-250, TranspositionTable.fromTable(-250, 6));
+
+        // a lower bound of mate in 3 plies from the node is only good enough for a mate in 5 at ply 2
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(1L, 4, TranspositionTable.LOWER_BOUND, MATE_VALUE - 3, 0);
+        long data = table.probe(1L);
+        assertTrue(TranspositionTable.isCutoff(data, 2, 4, 0, MATE_VALUE - 5));
+        assertFalse(TranspositionTable.isCutoff(data, 4, 4, 0, MATE_VALUE - 5));
+    }
+}
@@ -0,0 +1,102 @@
+package chess.moves.bestmove;
+
+import chess.board.Evaluation;
+import chess.board.Position;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static chess.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YoungBrothersWaitTest {
+
+    @Test
+    public void test01MateInOne() {
+        // deep enough for the nodes below the root to be split too
+        MoveGeneration.transpositionTable.clear();
+        Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("a1a8", YoungBrothersWait.find(position, 5).toAlgebraicNotation());
+        SearchResult result = YoungBrothersWait.search(position, 5);
+        assertEquals(MATE_VALUE - 1, result.score);
+    }
+
+    @Test
+    public void test02NoMoves() {
+        Position position = Position.fenToPosition("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchControl.start();
+        SearchResult result = YoungBrothersWait.search(position, 4);
+        assertEquals(PackedMove.NONE, result.move);
+        assertEquals(0, result.score);
+    }
+
+    @Test
+    public void test03LegalMove() {
+        MoveGeneration.transpositionTable.clear();
+        Position position = Position.fenToPosition(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchControl.start();
+        SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5), YoungBrothersWait::search);
+        assertTrue(position.getLegalMoves().contains(result.move));
+    }
+
+    @Test
+    public void test04MateCountedFromRoot() {
+        // the nodes below a split node are searched on boards of their own, which still count the plies
+        // from the root: Ra8 is mate in 1, not mate in 0
+        int threads = MoveGeneration.getThreads();
+        MoveGeneration.Algorithm algorithm = MoveGeneration.getAlgorithm();
+        try {
+            MoveGeneration.setThreads(4);
+            MoveGeneration.setAlgorithm(MoveGeneration.Algorithm.YBWC);
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            Position position = Position.fenToPosition("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+            SearchResult result = MoveGeneration.search(position, SearchLimits.depth(4));
+            assertEquals("a1a8", PackedMove.toAlgebraicNotation(result.move));
+            assertEquals(MATE_VALUE - 1, result.score);
+        } finally {
+            MoveGeneration.setThreads(threads);
+            MoveGeneration.setAlgorithm(algorithm);
+        }
+    }
+
+    @Test
+    public void test05MateInTwo() {
+        // Kb6 leaves the black king only b8, then Rh8 is mate; deep enough for the nodes below the root
+        // to be split too
+        MoveGeneration.transpositionTable.clear();
+        SearchControl.start();
+        Position position = Position.fenToPosition("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = IterativeDeepening.search(position, SearchLimits.depth(5), YoungBrothersWait::search);
+        assertEquals(MATE_VALUE - 3, result.score);
+        assertEquals(2, Evaluation.mateMoves(result.score));
+    }
+
+    @Test
+    public void test06OverheadAgainstSequential() {
+        // the split nodes order their moves like the sequential search, so the eldest brothers give good bounds
+        // and the brothers search less than twice the nodes of the sequential search (the overhead column of
+        // ScalingBenchmark.java); on one thread, so that the count doesn't depend on the scheduling
+        int threads = MoveGeneration.getThreads();
+        try {
+            MoveGeneration.setThreads(1);
+            Position position = Position.fenToPosition(
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            SearchResult sequential = IterativeDeepening.search(position, SearchLimits.depth(5),
+                    SequentialAlphaBeta::search);
+            long sequentialNodes = SearchStatistics.totalNodes();
+            MoveGeneration.transpositionTable.clear();
+            SearchControl.start();
+            SearchResult ybwc = IterativeDeepening.search(position, SearchLimits.depth(5),
+                    YoungBrothersWait::search);
+            long ybwcNodes = SearchStatistics.totalNodes();
+
+            assertEquals(sequential.score, ybwc.score);
+            assertTrue(ybwcNodes < 2 * sequentialNodes, ybwcNodes + " nodes, sequential " + sequentialNodes);
+        } finally {
+            MoveGeneration.setThreads(threads);
+        }
+    }
+}